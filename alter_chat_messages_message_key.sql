@@ -0,0 +1,5 @@
+-- 메시지 고유 키 (spool 재처리로 같은 메시지를 다시 저장해도 중복 행이 생기지 않도록 함)
+-- 기존 행은 NULL로 남으며, UNIQUE 인덱스는 NULL 중복을 허용함
+ALTER TABLE chat_messages
+  ADD COLUMN message_key CHAR(36) NULL AFTER message_id,
+  ADD UNIQUE KEY uk_chat_messages_key (message_key);
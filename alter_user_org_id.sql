@@ -0,0 +1,4 @@
+-- 사용자 소속 조직 (조직별 요청 한도, 월간 토큰 한도, 공정 스케줄링, JWT orgId 클레임에 사용)
+-- NULL이면 조직 없음으로 처리되어 조직 단위 제한이 적용되지 않음
+ALTER TABLE users ADD COLUMN org_id BIGINT NULL;
+CREATE INDEX idx_users_org_id ON users (org_id);
@@ -0,0 +1,2 @@
+-- JWT 버전 스탬프 (역할/상태/비밀번호가 바뀌면 증가, 이전 버전으로 발급된 토큰은 거부)
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,29 @@
+-- 채팅 대화 기록 (감사용)
+CREATE TABLE IF NOT EXISTS chat_conversations (
+  conversation_id VARCHAR(36) NOT NULL PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  org_id BIGINT NULL,
+  model VARCHAR(100) NULL,
+  created_at TIMESTAMP(3) NOT NULL,
+  updated_at TIMESTAMP(3) NOT NULL,
+  INDEX idx_chat_conversations_user (user_id, updated_at),
+  INDEX idx_chat_conversations_org (org_id, updated_at)
+);
+
+CREATE TABLE IF NOT EXISTS chat_messages (
+  message_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  message_key CHAR(36) NULL,
+  conversation_id VARCHAR(36) NOT NULL,
+  user_id BIGINT NOT NULL,
+  org_id BIGINT NULL,
+  role VARCHAR(20) NOT NULL,
+  content MEDIUMTEXT NOT NULL,
+  model VARCHAR(100) NULL,
+  response_id VARCHAR(100) NULL,
+  prompt_tokens INT NULL,
+  completion_tokens INT NULL,
+  created_at TIMESTAMP(3) NOT NULL,
+  UNIQUE KEY uk_chat_messages_key (message_key),
+  INDEX idx_chat_messages_conversation (conversation_id, created_at),
+  INDEX idx_chat_messages_user (user_id, created_at)
+);
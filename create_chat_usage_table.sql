@@ -0,0 +1,15 @@
+-- 토큰 사용량 집계 (일별, 사용자/조직/모델 단위)
+-- org_id가 없는 사용자는 0으로 저장
+CREATE TABLE IF NOT EXISTS chat_usage (
+  usage_date DATE NOT NULL,
+  user_id BIGINT NOT NULL,
+  org_id BIGINT NOT NULL DEFAULT 0,
+  model VARCHAR(100) NOT NULL,
+  requests BIGINT NOT NULL DEFAULT 0,
+  prompt_tokens BIGINT NOT NULL DEFAULT 0,
+  completion_tokens BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (usage_date, user_id, org_id, model),
+  INDEX idx_chat_usage_org (org_id, usage_date),
+  INDEX idx_chat_usage_user (user_id, usage_date)
+);
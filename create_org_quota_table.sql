@@ -0,0 +1,7 @@
+-- 조직별 월간 토큰 한도 (행이 없는 조직은 제한 없음)
+CREATE TABLE IF NOT EXISTS org_token_quotas (
+  org_id BIGINT NOT NULL PRIMARY KEY,
+  monthly_token_limit BIGINT NOT NULL,
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
@@ -0,0 +1,10 @@
+-- 로그아웃 등으로 폐기된 JWT (jti 기준, 토큰 만료 후 정리)
+-- 각 노드는 revoked_at 기준으로 주기적으로 새 행을 읽어 메모리 폐기 목록에 반영
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+  jti VARCHAR(64) NOT NULL PRIMARY KEY,
+  user_id BIGINT NULL,
+  expires_at DATETIME NOT NULL,
+  revoked_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  INDEX idx_revoked_tokens_revoked (revoked_at),
+  INDEX idx_revoked_tokens_expires (expires_at)
+);
@@ -0,0 +1,115 @@
+package com.aihelper.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aihelper.model.ChatCompletionRequest;
+import com.aihelper.model.ChatMessage;
+import com.aihelper.service.CoreChatRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * 채팅 요청 처리 경로 비교: 요청 본문 파싱 + Core API 요청 본문 직렬화
+ * <ul>
+ * <li>tree: 기존 방식 (JsonNode 트리로 파싱 -> ArrayNode 꺼내기 -> ObjectNode로 Core 요청 구성)</li>
+ * <li>typed: ChatCompletionRequest DTO로 바로 바인딩 -> CoreChatRequest 직렬화 (Blackbird 없음)</li>
+ * <li>typedBlackbird: typed와 같으며 애플리케이션 공용 ObjectMapper처럼 Blackbird 모듈 등록</li>
+ * </ul>
+ * 실행: mvn -Pjmh compile exec:exec -Djmh.args="ChatRequestParse -prof gc"
+ * (-prof gc 로 요청당 할당량 gc.alloc.rate.norm 비교)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ChatRequestParseBenchmark {
+
+    private static final Long USER_ID = 42L;
+    private static final Long ORG_ID = 7L;
+
+    // 요청에 포함된 메시지 수
+    @Param({"4", "64"})
+    public int messageCount;
+
+    // 메시지 하나의 content 길이 (문자 수)
+    @Param({"200", "2000"})
+    public int contentLength;
+
+    private byte[] body;
+    private ObjectMapper plainMapper;
+    private ObjectMapper blackbirdMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        plainMapper = new ObjectMapper();
+        blackbirdMapper = new ObjectMapper().registerModule(new BlackbirdModule());
+
+        StringBuilder content = new StringBuilder(contentLength);
+        while (content.length() < contentLength) {
+            content.append("안녕하세요 AI Helper 벤치마크 메시지입니다. ");
+        }
+        content.setLength(contentLength);
+
+        ObjectNode request = plainMapper.createObjectNode();
+        request.put("model", "gpt-4o-mini");
+        ArrayNode messages = request.putArray("messages");
+        messages.addObject().put("role", "system").put("content", "You are a helpful assistant.");
+        for (int i = 1; i < messageCount; i++) {
+            messages.addObject()
+                .put("role", i % 2 == 1 ? "user" : "assistant")
+                .put("content", content.toString());
+        }
+        request.put("cache", true);
+        body = plainMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] tree() throws IOException {
+        JsonNode requestBody = plainMapper.readTree(body);
+        ArrayNode messages = (ArrayNode) requestBody.get("messages");
+        String model = requestBody.path("model").asText(null);
+
+        ObjectNode coreRequest = plainMapper.createObjectNode();
+        coreRequest.set("messages", messages);
+        coreRequest.put("model", model);
+        coreRequest.put("user_id", USER_ID);
+        coreRequest.put("org_id", ORG_ID);
+        return plainMapper.writeValueAsBytes(coreRequest);
+    }
+
+    @Benchmark
+    public byte[] typed() throws IOException {
+        return typed(plainMapper);
+    }
+
+    @Benchmark
+    public byte[] typedBlackbird() throws IOException {
+        return typed(blackbirdMapper);
+    }
+
+    private byte[] typed(ObjectMapper mapper) throws IOException {
+        ChatCompletionRequest requestBody = mapper.readValue(body, ChatCompletionRequest.class);
+        List<ChatMessage> messages = requestBody.getMessages();
+        CoreChatRequest coreRequest = new CoreChatRequest(messages, requestBody.getModel(), USER_ID, ORG_ID, null);
+        return mapper.writeValueAsBytes(coreRequest);
+    }
+}
@@ -0,0 +1,122 @@
+package com.aihelper.benchmark;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aihelper.config.JwtTokenUtil;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * 요청당 JWT 검증 비용 비교 (JwtAuthFilter가 요청마다 수행하는 작업 기준)
+ * <ul>
+ * <li>legacy: 기존 방식 (호출마다 서명 키/파서 생성, 같은 토큰을 3번 파싱/검증)</li>
+ * <li>singleParse: 키/파서 재사용, 토큰을 한 번만 파싱/검증 (검증 캐시 사용 안 함)</li>
+ * <li>cached: singleParse + 검증 토큰 캐시 (jwt.verified-cache.enabled=true, 기본값)</li>
+ * </ul>
+ * tokenCount는 번갈아 검증하는 서로 다른 토큰(사용자) 수입니다.
+ * 실행: mvn -Pjmh compile exec:exec -Djmh.args="JwtVerify -prof gc"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "aihelper-benchmark-secret-key-0123456789-abcdefghij";
+    private static final long EXPIRATION_MS = 3_600_000L;
+
+    @Param({"1", "1000"})
+    public int tokenCount;
+
+    private JwtTokenUtil uncachedUtil;
+    private JwtTokenUtil cachedUtil;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        uncachedUtil = newTokenUtil(false);
+        cachedUtil = newTokenUtil(true);
+        tokens = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            tokens[i] = cachedUtil.generateToken("user" + i);
+        }
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String token = nextToken();
+        // 필터의 getUsernameFromToken + validateToken 안의 getUsernameFromToken, getExpirationDateFromToken
+        String username = legacyParse(token).getSubject();
+        String validatedUsername = legacyParse(token).getSubject();
+        Date expiration = legacyParse(token).getExpiration();
+        return username.equals(validatedUsername) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        return check(uncachedUtil.verify(nextToken()));
+    }
+
+    @Benchmark
+    public boolean cached() {
+        return check(cachedUtil.verify(nextToken()));
+    }
+
+    private String nextToken() {
+        String token = tokens[next];
+        next = next + 1 == tokens.length ? 0 : next + 1;
+        return token;
+    }
+
+    private static boolean check(Claims claims) {
+        return claims.getSubject() != null && !claims.getExpiration().before(new Date());
+    }
+
+    private static Claims legacyParse(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static JwtTokenUtil newTokenUtil(boolean cacheEnabled) throws ReflectiveOperationException {
+        JwtTokenUtil util = new JwtTokenUtil();
+        setField(util, "secret", SECRET);
+        setField(util, "expiration", EXPIRATION_MS);
+        setField(util, "verifiedCacheEnabled", cacheEnabled);
+        setField(util, "verifiedCacheMaxSize", 10_000L);
+        util.init();
+        return util;
+    }
+
+    // @Value 필드를 Spring 없이 설정
+    private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,135 @@
+package com.aihelper.config;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅 API 요청 본문 크기 제한
+ * Content-Length가 한도를 넘으면 본문을 읽지 않고 바로 413으로 거부하고,
+ * 길이를 알 수 없는 요청(chunked)은 읽은 바이트 수를 세다가 한도를 넘는 순간 파싱을 중단시킵니다.
+ * 중단된 요청은 ChatController가 413으로 응답합니다.
+ */
+@Component
+@Slf4j
+public class ChatRequestSizeFilter extends OncePerRequestFilter {
+
+    private static final String CHAT_PATH_PREFIX = "/api/chat/";
+
+    @Value("${aihelper.chat.request.max-bytes:2097152}")
+    private long maxBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return maxBytes <= 0 || !request.getRequestURI().startsWith(CHAT_PATH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > maxBytes) {
+            log.warn("채팅 요청 본문 크기 초과: {}바이트 (한도: {}바이트)", contentLength, maxBytes);
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "요청 본문이 너무 큽니다.");
+            return;
+        }
+        chain.doFilter(new LimitedRequest(request, maxBytes), response);
+    }
+
+    /**
+     * 본문이 한도를 넘었을 때 읽기 도중 발생하는 예외
+     */
+    public static class RequestTooLargeException extends IOException {
+
+        public RequestTooLargeException(long maxBytes) {
+            super("요청 본문이 " + maxBytes + "바이트를 초과했습니다.");
+        }
+    }
+
+    private static final class LimitedRequest extends HttpServletRequestWrapper {
+        private final long maxBytes;
+        private ServletInputStream stream;
+
+        LimitedRequest(HttpServletRequest request, long maxBytes) {
+            super(request);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new LimitedInputStream(super.getInputStream(), maxBytes);
+            }
+            return stream;
+        }
+    }
+
+    private static final class LimitedInputStream extends ServletInputStream {
+        private final ServletInputStream in;
+        private final long maxBytes;
+        private long count;
+
+        LimitedInputStream(ServletInputStream in, long maxBytes) {
+            this.in = in;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1) {
+                add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                add(read);
+            }
+            return read;
+        }
+
+        private void add(int read) throws RequestTooLargeException {
+            count += read;
+            if (count > maxBytes) {
+                throw new RequestTooLargeException(maxBytes);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return in.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return in.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            in.setReadListener(readListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
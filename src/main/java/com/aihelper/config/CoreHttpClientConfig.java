@@ -0,0 +1,105 @@
+package com.aihelper.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ai-helper-core 통신용 HTTP 클라이언트 설정
+ * keep-alive 커넥션 풀, 타임아웃, 유휴 커넥션 정리를 구성합니다.
+ */
+@Configuration
+@Slf4j
+public class CoreHttpClientConfig {
+
+    @Value("${aihelper.core.api.pool.max-total:200}")
+    private int maxTotal;
+
+    @Value("${aihelper.core.api.pool.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${aihelper.core.api.pool.validate-after-inactivity-ms:2000}")
+    private int validateAfterInactivityMs;
+
+    @Value("${aihelper.core.api.pool.keep-alive-ms:30000}")
+    private long keepAliveMs;
+
+    @Value("${aihelper.core.api.pool.idle-evict-ms:30000}")
+    private long idleEvictMs;
+
+    @Value("${aihelper.core.api.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${aihelper.core.api.read-timeout-ms:60000}")
+    private int readTimeoutMs;
+
+    @Value("${aihelper.core.api.pool.acquire-timeout-ms:1000}")
+    private int acquireTimeoutMs;
+
+    @Bean(destroyMethod = "close")
+    public CorePoolingConnectionManager coreConnectionManager() {
+        CorePoolingConnectionManager connectionManager = new CorePoolingConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivityMs);
+        log.info("Core API 커넥션 풀 설정 - 전체: {}, 라우트별: {}", maxTotal, maxPerRoute);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient coreHttpClient(CorePoolingConnectionManager coreConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(acquireTimeoutMs)
+                .build();
+
+        // 서버가 Keep-Alive 헤더를 보내지 않으면 설정된 시간만큼만 커넥션을 유지
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMs) : keepAliveMs;
+        };
+
+        return HttpClients.custom()
+                .setConnectionManager(coreConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictMs, TimeUnit.MILLISECONDS)
+                // 응답 압축 해제는 CoreCompression에서 직접 처리 (요청별 Accept-Encoding 제어, 압축률 집계)
+                .disableContentCompression()
+                .build();
+    }
+
+    /**
+     * Core API 호출 전용 I/O 스레드 풀
+     * 스레드 수는 커넥션 풀 전체 한도와 같으며, 한도를 넘는 호출은 즉시 실패 처리됩니다.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService coreIoExecutor() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                0, maxTotal,
+                60L, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "core-io-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
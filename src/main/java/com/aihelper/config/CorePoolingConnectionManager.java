@@ -0,0 +1,91 @@
+package com.aihelper.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Core API 전용 커넥션 풀
+ * 풀에서 커넥션을 얻기까지의 대기 시간을 측정하여 풀 크기 조정에 활용합니다.
+ */
+public class CorePoolingConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireWaitNanos = new LongAdder();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final AtomicLong maxAcquireWaitNanos = new AtomicLong();
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ConnectionRequest delegate = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return delegate.get(timeout, tunit);
+                } catch (ConnectionPoolTimeoutException e) {
+                    acquireTimeouts.increment();
+                    throw e;
+                } finally {
+                    recordAcquire(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return delegate.cancel();
+            }
+        };
+    }
+
+    private void recordAcquire(long waitNanos) {
+        acquireCount.increment();
+        acquireWaitNanos.add(waitNanos);
+        maxAcquireWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * 풀 상태 스냅샷을 반환합니다.
+     *
+     * @return 전체/라우트별 leased, idle, pending 수와 커넥션 획득 대기 시간 통계
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", toMap(getTotalStats()));
+
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : getRoutes()) {
+            routes.put(route.getTargetHost().toURI(), toMap(getStats(route)));
+        }
+        result.put("routes", routes);
+
+        long count = acquireCount.sum();
+        long waitNanos = acquireWaitNanos.sum();
+        result.put("acquireCount", count);
+        result.put("acquireTimeouts", acquireTimeouts.sum());
+        result.put("avgAcquireWaitMs", count == 0 ? 0.0 : waitNanos / (double) count / 1_000_000.0);
+        result.put("maxAcquireWaitMs", maxAcquireWaitNanos.get() / 1_000_000.0);
+        return result;
+    }
+
+    private static Map<String, Object> toMap(PoolStats stats) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("leased", stats.getLeased());
+        map.put("idle", stats.getAvailable());
+        map.put("pending", stats.getPending());
+        map.put("max", stats.getMax());
+        return map;
+    }
+}
@@ -0,0 +1,22 @@
+package com.aihelper.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * 애플리케이션 공용 ObjectMapper 설정
+ * Spring Boot가 만드는 ObjectMapper 하나를 컨트롤러, Core API 클라이언트, 캐시 등에서 함께 사용합니다.
+ * Blackbird 모듈은 DTO getter/setter/생성자 호출을 리플렉션 대신 LambdaMetafactory로 생성한 접근자로 처리합니다.
+ */
+@Configuration
+public class JacksonConfig {
+
+    // Module 빈은 JacksonAutoConfiguration이 ObjectMapper에 자동 등록
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -1,5 +1,9 @@
 package com.aihelper.config;
 
+import com.aihelper.model.AuthenticatedUser;
+import com.aihelper.service.TokenRevocationStore;
+import com.aihelper.service.UserTokenVersionCache;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,10 +21,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtTokenUtil;
     private final UserDetailsService userDetailsService;
+    private final UserTokenVersionCache tokenVersionCache;
+    private final TokenRevocationStore revocationStore;
 
-    public JwtAuthFilter(JwtTokenUtil jwtTokenUtil, UserDetailsService userDetailsService) {
+    public JwtAuthFilter(JwtTokenUtil jwtTokenUtil, UserDetailsService userDetailsService,
+                         UserTokenVersionCache tokenVersionCache, TokenRevocationStore revocationStore) {
         this.jwtTokenUtil = jwtTokenUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionCache = tokenVersionCache;
+        this.revocationStore = revocationStore;
     }
 
     @Override
@@ -30,24 +39,44 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwt = null;
+        Claims claims = null;
 
-        // Authorization 헤더에서 JWT 토큰 추출
+        // Authorization 헤더에서 JWT 토큰 추출 (파싱/서명 검증은 한 번만 수행)
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtTokenUtil.getUsernameFromToken(jwt);
+                claims = jwtTokenUtil.verify(jwt);
+                // 로그아웃 등으로 폐기된 토큰은 인증하지 않음 (메모리 폐기 목록만 확인)
+                if (revocationStore.isRevoked(claims.getId())) {
+                    logger.debug("폐기된 토큰: " + claims.getId());
+                    claims = null;
+                } else {
+                    username = claims.getSubject();
+                }
             } catch (Exception e) {
                 logger.error("토큰 검증 실패: " + e.getMessage());
             }
         }
 
-        // SecurityContext에 Authentication 객체가 없고, 유효한 토큰이 있는 경우 처리
+        // 사용자 식별 클레임이 있는 토큰은 DB 조회 없이 클레임으로 인증 (토큰 버전만 캐시로 확인)
+        AuthenticatedUser principal = claims != null ? jwtTokenUtil.toPrincipal(claims) : null;
+        if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (tokenVersionCache.isCurrent(principal.getUserId(), principal.getTokenVersion())) {
+                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                        principal, null, principal.getAuthorities());
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // SecurityContext에 Authentication 객체가 없고, 유효한 토큰이 있는 경우 처리 (식별 클레임이 없는 기존 토큰)
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
 
             // 토큰이 유효한 경우 SecurityContext에 Authentication 객체 설정
-            if (jwtTokenUtil.validateToken(jwt, userDetails)) {
+            if (jwtTokenUtil.validateToken(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -1,6 +1,13 @@
 package com.aihelper.config;
 
+import com.aihelper.model.AuthenticatedUser;
+import com.aihelper.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -8,27 +15,97 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtTokenUtil {
 
+    // 사용자 식별 클레임 (요청마다 사용자 테이블을 조회하지 않도록 토큰에 포함)
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ORG_ID = "orgId";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
-    
-    // 설정 파일에서 제공된 비밀 키를 사용하여 서명 키 생성
-    private SecretKey getSigningKey() {
+
+    @Value("${jwt.verified-cache.enabled:true}")
+    private boolean verifiedCacheEnabled;
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    // 서명 키와 파서는 한 번만 생성 (JwtParser는 불변이라 여러 스레드에서 공유 가능)
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // 검증이 끝난 토큰 (키: 서명 부분, 토큰 만료 시각에 함께 만료)
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
         // HS256 알고리즘으로 변경하여 키 크기 문제 해결
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long remainingMs = value.claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 토큰을 한 번만 파싱/검증해 클레임을 반환합니다.
+     * 이미 검증한 토큰이면 서명 검증 없이 캐시된 클레임을 반환합니다.
+     * 반환된 클레임은 캐시와 공유되므로 수정하면 안 됩니다.
+     *
+     * @throws io.jsonwebtoken.JwtException 서명이 맞지 않거나 만료된 토큰
+     */
+    public Claims verify(String token) {
+        if (!verifiedCacheEnabled) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        VerifiedToken cached = verifiedTokens.getIfPresent(signature);
+        // 서명만 같고 헤더/페이로드가 다른 토큰이 캐시를 통과하지 못하도록 전체 토큰을 비교
+        if (cached != null && cached.token.equals(token)) {
+            return cached.claims;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(signature, new VerifiedToken(token, claims));
+        }
+        return claims;
     }
 
     // 토큰에서 사용자 이름 추출
@@ -43,24 +120,14 @@ public class JwtTokenUtil {
 
     // 토큰에서 클레임 추출
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
+        final Claims claims = verify(token);
         return claimsResolver.apply(claims);
     }
 
-    // 토큰에서 모든 클레임 추출
-    private Claims getAllClaimsFromToken(String token) {
-        SecretKey key = getSigningKey();
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    // 토큰이 만료되었는지 확인
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    // 클레임이 만료되었는지 확인
+    private Boolean isTokenExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 
     // 사용자 아이디로 토큰 생성
@@ -69,21 +136,73 @@ public class JwtTokenUtil {
         return doGenerateToken(claims, username);
     }
 
+    // 사용자 식별 정보(userId, orgId, role, 토큰 버전)를 담은 토큰 생성
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getUserId());
+        if (user.getOrgId() != null) {
+            claims.put(CLAIM_ORG_ID, user.getOrgId());
+        }
+        claims.put(CLAIM_ROLE, user.getRole());
+        claims.put(CLAIM_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0);
+        return doGenerateToken(claims, user.getUsername());
+    }
+
+    // 클레임으로 인증 사용자 생성 (식별 클레임이 없는 기존 토큰이면 null)
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Integer version = claims.get(CLAIM_VERSION, Integer.class);
+        if (userId == null || role == null || version == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(), claims.get(CLAIM_ORG_ID, Long.class), role, version);
+    }
+
     // 실제 토큰 생성 로직
     private String doGenerateToken(Map<String, Object> claims, String subject) {
-        SecretKey key = getSigningKey();
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString()) // 폐기(로그아웃) 시 식별용 jti
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     // 토큰 검증
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
+    }
+
+    // 이미 검증된 클레임으로 사용자/만료 확인 (토큰을 다시 파싱하지 않음)
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username != null && username.equals(userDetails.getUsername()) && !isTokenExpired(claims));
+    }
+
+    // 검증 토큰 캐시 통계
+    public Map<String, Object> snapshot() {
+        CacheStats stats = verifiedTokens.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", verifiedCacheEnabled);
+        result.put("maxSize", verifiedCacheMaxSize);
+        result.put("entries", verifiedTokens.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private static final class VerifiedToken {
+        private final String token;
+        private final Claims claims;
+
+        VerifiedToken(String token, Claims claims) {
+            this.token = token;
+            this.claims = claims;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.aihelper.config;
 
+import com.aihelper.service.TokenRevocationStore;
+import com.aihelper.service.UserTokenVersionCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,8 +9,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -27,9 +27,15 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsService userDetailsService;
     
+    @Autowired
+    private UserTokenVersionCache tokenVersionCache;
+    
+    @Autowired
+    private TokenRevocationStore revocationStore;
+    
     @Bean
     public JwtAuthFilter jwtAuthFilter() {
-        return new JwtAuthFilter(jwtTokenUtil, userDetailsService);
+        return new JwtAuthFilter(jwtTokenUtil, userDetailsService, tokenVersionCache, revocationStore);
     }
 
     @Bean
@@ -42,6 +48,7 @@ public class SecurityConfig {
             .authorizeRequests()
                 .antMatchers("/api/auth/**").permitAll() // 인증 관련 API는 모두 허용
                 .antMatchers("/api/public/**").permitAll() // 공개 API는 모두 허용
+                .antMatchers("/api/admin/**").hasRole("ADMIN") // 관리자 API는 관리자만 허용 (운영 상태 조회/변경 포함)
                 .anyRequest().authenticated() // 그 외 요청은 인증 필요
             .and()
             .addFilterBefore(jwtAuthFilter(), UsernamePasswordAuthenticationFilter.class); // JWT 필터 추가
@@ -61,9 +68,4 @@ public class SecurityConfig {
         source.registerCorsConfiguration("/**", configuration);
         return source;
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 } 
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.aihelper.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 비동기 요청(SSE 스트리밍 등) 처리 설정
+ * 스트리밍 중계는 전용 스레드 풀에서 실행되며 동시 스트림 수가 제한됩니다.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    @Value("${aihelper.chat.stream.max-concurrent:200}")
+    private int maxConcurrentStreams;
+
+    @Value("${aihelper.chat.stream.queue-capacity:50}")
+    private int streamQueueCapacity;
+
+    @Value("${aihelper.chat.stream.timeout-ms:300000}")
+    private long streamTimeoutMs;
+
+    @Bean
+    public ThreadPoolTaskExecutor chatStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentStreams);
+        executor.setMaxPoolSize(maxConcurrentStreams);
+        executor.setQueueCapacity(streamQueueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("chat-stream-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(chatStreamExecutor());
+        configurer.setDefaultTimeout(streamTimeoutMs);
+    }
+}
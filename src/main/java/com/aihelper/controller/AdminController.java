@@ -1,7 +1,12 @@
 package com.aihelper.controller;
 
+import com.aihelper.config.JwtTokenUtil;
 import com.aihelper.model.User;
+import com.aihelper.service.PasswordHashingService;
+import com.aihelper.service.TokenRevocationStore;
+import com.aihelper.service.UserDetailsCache;
 import com.aihelper.service.UserService;
+import com.aihelper.service.UserTokenVersionCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +30,21 @@ public class AdminController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private UserTokenVersionCache tokenVersionCache;
+
+    @Autowired
+    private TokenRevocationStore revocationStore;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     /**
      * 관리자 권한 체크 - 임시로 모든 요청 허용
      * AdminController의 각 API 엔드포인트(/api/admin/*)가 호출될 때마다 실행되어 권한을 검사
@@ -139,6 +159,10 @@ public class AdminController {
         
         // ID 설정
         user.setUserId(id);
+        // 조직을 지정하지 않은 요청은 기존 소속 유지 (org_id를 모르는 기존 클라이언트가 소속을 지우지 않도록)
+        if (user.getOrgId() == null) {
+            user.setOrgId(existingUser.getOrgId());
+        }
         
         try {
             User updatedUser = userService.updateUser(user);
@@ -224,4 +248,78 @@ public class AdminController {
                     .body("사용자 삭제 중 오류가 발생했습니다.");
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 인증 사용자 정보 캐시 통계 조회 (적중률, DB 조회 지연)
+     */
+    @GetMapping("/auth/user-cache")
+    public ResponseEntity<?> getUserCacheStats() {
+        if (!isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("관리자 권한이 필요합니다.");
+        }
+        return ResponseEntity.ok(userDetailsCache.snapshot());
+    }
+
+    /**
+     * 인증 사용자 정보 캐시 전체 비우기 (DB를 직접 수정한 경우 등)
+     */
+    @DeleteMapping("/auth/user-cache")
+    public ResponseEntity<?> clearUserCache() {
+        if (!isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("관리자 권한이 필요합니다.");
+        }
+        logger.info("사용자 인증 정보 캐시 비우기");
+        userDetailsCache.invalidateAll();
+        return ResponseEntity.ok(Map.of("message", "사용자 인증 정보 캐시를 비웠습니다."));
+    }
+
+    /**
+     * 검증된 JWT 캐시 통계 조회
+     */
+    @GetMapping("/auth/token-cache")
+    public ResponseEntity<?> getTokenCacheStats() {
+        if (!isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("관리자 권한이 필요합니다.");
+        }
+        return ResponseEntity.ok(jwtTokenUtil.snapshot());
+    }
+
+    /**
+     * 토큰 버전 캐시 통계 조회 (버전 불일치로 거부된 토큰 수 포함)
+     */
+    @GetMapping("/auth/token-versions")
+    public ResponseEntity<?> getTokenVersionStats() {
+        if (!isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("관리자 권한이 필요합니다.");
+        }
+        return ResponseEntity.ok(tokenVersionCache.snapshot());
+    }
+
+    /**
+     * 토큰 폐기 목록 통계 조회 (엔트리 수, 추정 메모리, Bloom 필터 통과율)
+     */
+    @GetMapping("/auth/revocations")
+    public ResponseEntity<?> getRevocationStats() {
+        if (!isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("관리자 권한이 필요합니다.");
+        }
+        return ResponseEntity.ok(revocationStore.snapshot());
+    }
+
+    /**
+     * 비밀번호 해싱 풀 통계 조회 (BCrypt cost, 대기열 깊이, 대기/해싱 지연 히스토그램)
+     */
+    @GetMapping("/auth/password-hashing")
+    public ResponseEntity<?> getPasswordHashingStats() {
+        if (!isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("관리자 권한이 필요합니다.");
+        }
+        return ResponseEntity.ok(passwordHashingService.snapshot());
+    }
+}
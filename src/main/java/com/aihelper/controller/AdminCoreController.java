@@ -0,0 +1,240 @@
+package com.aihelper.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aihelper.config.CorePoolingConnectionManager;
+import com.aihelper.service.ChatAdmissionService;
+import com.aihelper.service.ChatCompletionExecutor;
+import com.aihelper.service.ChatContextManager;
+import com.aihelper.service.ChatResponseCache;
+import com.aihelper.service.ChatTranscriptWriter;
+import com.aihelper.service.ConversationSessionStore;
+import com.aihelper.service.CoreBatchCollector;
+import com.aihelper.service.CoreCircuitBreaker;
+import com.aihelper.service.CoreCompression;
+import com.aihelper.service.CoreEndpointPool;
+import com.aihelper.service.CoreHedgePolicy;
+import com.aihelper.service.CoreRetryPolicy;
+import com.aihelper.service.CoreSingleFlight;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Core API 연동 상태를 조회하는 관리자 컨트롤러
+ * /api/admin/** 경로는 SecurityConfig에서 관리자(ROLE_ADMIN)만 접근할 수 있도록 제한합니다.
+ */
+@RestController
+@RequestMapping("/api/admin/core")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminCoreController {
+
+    private final CorePoolingConnectionManager coreConnectionManager;
+    private final ChatCompletionExecutor chatCompletionExecutor;
+    private final ChatResponseCache chatResponseCache;
+    private final CoreSingleFlight coreSingleFlight;
+    private final CoreCircuitBreaker coreCircuitBreaker;
+    private final ChatAdmissionService chatAdmissionService;
+    private final CoreEndpointPool coreEndpointPool;
+    private final CoreHedgePolicy coreHedgePolicy;
+    private final ChatContextManager chatContextManager;
+    private final ConversationSessionStore conversationSessionStore;
+    private final ChatTranscriptWriter chatTranscriptWriter;
+    private final CoreBatchCollector coreBatchCollector;
+    private final CoreRetryPolicy coreRetryPolicy;
+    private final CoreCompression coreCompression;
+
+    /**
+     * Core API 커넥션 풀 통계 조회
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<Map<String, Object>> getPoolStats() {
+        log.debug("Core API 커넥션 풀 통계 조회");
+        return ResponseEntity.ok(coreConnectionManager.snapshot());
+    }
+
+    /**
+     * 채팅 실행 풀(동시 실행, 대기열, 거부/타임아웃) 통계 조회
+     */
+    @GetMapping("/executor")
+    public ResponseEntity<Map<String, Object>> getExecutorStats() {
+        log.debug("채팅 실행 풀 통계 조회");
+        return ResponseEntity.ok(chatCompletionExecutor.snapshot());
+    }
+
+    /**
+     * 채팅 응답 캐시 통계 조회 (hit/miss/eviction, 메모리 사용량)
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        log.debug("채팅 응답 캐시 통계 조회");
+        return ResponseEntity.ok(chatResponseCache.snapshot());
+    }
+
+    /**
+     * 채팅 응답 캐시 전체 삭제
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<?> clearCache() {
+        log.info("채팅 응답 캐시 전체 삭제");
+        chatResponseCache.invalidateAll();
+        return ResponseEntity.ok(Map.of("message", "캐시가 삭제되었습니다."));
+    }
+
+    /**
+     * 동일 요청 병합(single-flight) 통계 조회
+     */
+    @GetMapping("/single-flight")
+    public ResponseEntity<Map<String, Object>> getSingleFlightStats() {
+        log.debug("single-flight 통계 조회");
+        return ResponseEntity.ok(coreSingleFlight.snapshot());
+    }
+
+    /**
+     * Core API 서킷 브레이커 상태 및 상태 전이 이력 조회
+     */
+    @GetMapping("/breaker")
+    public ResponseEntity<Map<String, Object>> getBreakerState() {
+        log.debug("Core API 서킷 브레이커 상태 조회");
+        return ResponseEntity.ok(coreCircuitBreaker.snapshot());
+    }
+
+    /**
+     * Core API 서킷 브레이커 강제 초기화 (CLOSED)
+     */
+    @PostMapping("/breaker/reset")
+    public ResponseEntity<Map<String, Object>> resetBreaker() {
+        log.info("Core API 서킷 브레이커 초기화 요청");
+        coreCircuitBreaker.reset();
+        return ResponseEntity.ok(coreCircuitBreaker.snapshot());
+    }
+
+    /**
+     * 사용자/조직별 요청 한도 카운터 조회
+     * 
+     * @param key 조회할 키 (예: user:1, org:3), 생략 시 전체
+     */
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, Object>> getAdmissionStats(
+            @RequestParam(required = false) String key) {
+        log.debug("요청 한도 카운터 조회: key={}", key);
+        return ResponseEntity.ok(chatAdmissionService.snapshot(key));
+    }
+
+    /**
+     * Core API 엔드포인트별 상태 조회 (진행 중 요청, 지연 시간, 헬스 체크, 제외 여부)
+     */
+    @GetMapping("/endpoints")
+    public ResponseEntity<Map<String, Object>> getEndpoints() {
+        log.debug("Core API 엔드포인트 상태 조회");
+        return ResponseEntity.ok(coreEndpointPool.snapshot());
+    }
+
+    /**
+     * Core API 엔드포인트 추가
+     * 
+     * @param request {"url": "http://host:port"}
+     */
+    @PostMapping("/endpoints")
+    public ResponseEntity<Map<String, Object>> addEndpoint(@RequestBody Map<String, String> request) {
+        String url = request.get("url");
+        if (url == null || url.trim().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Core API 엔드포인트 추가 요청: {}", url);
+        if (!coreEndpointPool.add(url.trim())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(coreEndpointPool.snapshot());
+        }
+        return ResponseEntity.ok(coreEndpointPool.snapshot());
+    }
+
+    /**
+     * Core API 엔드포인트 제거 (진행 중인 요청은 그대로 완료)
+     * 
+     * @param url 제거할 엔드포인트 주소
+     */
+    @DeleteMapping("/endpoints")
+    public ResponseEntity<Map<String, Object>> removeEndpoint(@RequestParam String url) {
+        log.info("Core API 엔드포인트 제거 요청: {}", url);
+        if (!coreEndpointPool.remove(url.trim())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(coreEndpointPool.snapshot());
+    }
+
+    /**
+     * Core API 헤지 요청 통계 조회 (헤지 비율, 헤지 응답이 먼저 도착한 횟수)
+     */
+    @GetMapping("/hedge")
+    public ResponseEntity<Map<String, Object>> getHedgeStats() {
+        log.debug("Core API 헤지 통계 조회");
+        return ResponseEntity.ok(coreHedgePolicy.snapshot());
+    }
+
+    /**
+     * 대화 이력 정리 통계 조회 (정리된 요청 수, 절약된 추정 토큰 수)
+     */
+    @GetMapping("/context")
+    public ResponseEntity<Map<String, Object>> getContextStats() {
+        log.debug("대화 이력 정리 통계 조회");
+        return ResponseEntity.ok(chatContextManager.snapshot());
+    }
+
+    /**
+     * 대화 세션 저장소 통계 조회 (세션 수, 메모리 사용량, LRU 제거/디스크 저장 횟수)
+     */
+    @GetMapping("/sessions")
+    public ResponseEntity<Map<String, Object>> getSessionStats() {
+        log.debug("대화 세션 저장소 통계 조회");
+        return ResponseEntity.ok(conversationSessionStore.snapshot());
+    }
+
+    /**
+     * 대화 기록 저장 파이프라인 통계 조회 (큐 길이, 배치 크기, flush 지연 시간, spool)
+     */
+    @GetMapping("/transcripts")
+    public ResponseEntity<Map<String, Object>> getTranscriptStats() {
+        log.debug("대화 기록 저장 통계 조회");
+        return ResponseEntity.ok(chatTranscriptWriter.snapshot());
+    }
+
+    /**
+     * Core API 마이크로 배치 통계 조회 (배치 수, 평균 크기, 부분 실패)
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<Map<String, Object>> getBatchStats() {
+        log.debug("Core API 마이크로 배치 통계 조회");
+        return ResponseEntity.ok(coreBatchCollector.snapshot());
+    }
+
+    /**
+     * Core API 재시도 통계 조회 (원인별 재시도 수, 결과별 요청 수, 남은 예산)
+     */
+    @GetMapping("/retry")
+    public ResponseEntity<Map<String, Object>> getRetryStats() {
+        log.debug("Core API 재시도 통계 조회");
+        return ResponseEntity.ok(coreRetryPolicy.snapshot());
+    }
+
+    /**
+     * Core API 요청/응답 압축 통계 조회 (압축률, 요청당 CPU 시간)
+     */
+    @GetMapping("/compression")
+    public ResponseEntity<Map<String, Object>> getCompressionStats() {
+        log.debug("Core API 압축 통계 조회");
+        return ResponseEntity.ok(coreCompression.snapshot());
+    }
+}
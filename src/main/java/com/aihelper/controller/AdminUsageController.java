@@ -0,0 +1,123 @@
+package com.aihelper.controller;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aihelper.service.ChatUsageAccounting;
+import com.aihelper.service.OrgTokenQuotaService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 토큰 사용량 조회 관리자 컨트롤러
+ * DB에 저장된 사용량과 아직 저장되지 않은 메모리 증가분을 합산해 반환합니다.
+ * 조직별 월간 토큰 한도도 여기서 관리합니다.
+ * /api/admin/** 경로는 SecurityConfig에서 관리자(ROLE_ADMIN)만 접근할 수 있도록 제한합니다.
+ */
+@RestController
+@RequestMapping("/api/admin/usage")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+@Slf4j
+public class AdminUsageController {
+
+    private final ChatUsageAccounting chatUsageAccounting;
+    private final OrgTokenQuotaService orgTokenQuotaService;
+
+    /**
+     * 사용자별 토큰 사용량 조회 (기본: 오늘)
+     */
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<Map<String, Object>> getUserUsage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end;
+        log.debug("사용자 토큰 사용량 조회: userId={}, {} ~ {}", userId, start, end);
+        return ResponseEntity.ok(chatUsageAccounting.totalsForUser(userId, start, end));
+    }
+
+    /**
+     * 조직별 토큰 사용량 조회 (기본: 오늘)
+     */
+    @GetMapping("/orgs/{orgId}")
+    public ResponseEntity<Map<String, Object>> getOrgUsage(
+            @PathVariable Long orgId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end;
+        log.debug("조직 토큰 사용량 조회: orgId={}, {} ~ {}", orgId, start, end);
+        return ResponseEntity.ok(chatUsageAccounting.totalsForOrg(orgId, start, end));
+    }
+
+    /**
+     * 사용량 집계 상태 조회 (대기 중인 키 수, flush 통계)
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(chatUsageAccounting.snapshot());
+    }
+
+    /**
+     * 대기 중인 증가분을 즉시 저장
+     */
+    @PostMapping("/flush")
+    public ResponseEntity<Map<String, Object>> flush() {
+        log.info("토큰 사용량 즉시 저장 요청");
+        chatUsageAccounting.flush();
+        return ResponseEntity.ok(chatUsageAccounting.snapshot());
+    }
+
+    /**
+     * 조직별 월간 토큰 한도와 이 노드의 남은 토큰 조회
+     */
+    @GetMapping("/quotas")
+    public ResponseEntity<Map<String, Object>> getQuotas() {
+        log.debug("조직 토큰 한도 상태 조회");
+        return ResponseEntity.ok(orgTokenQuotaService.snapshot());
+    }
+
+    /**
+     * 조직 월간 토큰 한도 설정
+     *
+     * @param request {"monthlyTokenLimit": 월간 토큰 한도}
+     */
+    @PutMapping("/quotas/{orgId}")
+    public ResponseEntity<Map<String, Object>> setQuota(
+            @PathVariable Long orgId,
+            @RequestBody Map<String, Long> request) {
+        Long limit = request.get("monthlyTokenLimit");
+        if (limit == null || limit < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        orgTokenQuotaService.setQuota(orgId, limit);
+        return ResponseEntity.ok(orgTokenQuotaService.snapshot());
+    }
+
+    /**
+     * 조직 월간 토큰 한도 삭제 (제한 없음)
+     */
+    @DeleteMapping("/quotas/{orgId}")
+    public ResponseEntity<Map<String, Object>> removeQuota(@PathVariable Long orgId) {
+        if (!orgTokenQuotaService.removeQuota(orgId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(orgTokenQuotaService.snapshot());
+    }
+}
@@ -1,11 +1,17 @@
 package com.aihelper.controller;
 
+import com.aihelper.config.JwtTokenUtil;
+import com.aihelper.model.AuthenticatedUser;
 import com.aihelper.model.LoginRequest;
 import com.aihelper.model.LoginResponse;
+import com.aihelper.service.PasswordHashingRejectedException;
+import com.aihelper.service.TokenRevocationStore;
 import com.aihelper.service.UserService;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +28,12 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private TokenRevocationStore revocationStore;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
         logger.info("로그인 시도: username={}", loginRequest.getUsername());
@@ -30,6 +42,11 @@ public class AuthController {
             LoginResponse response = userService.login(loginRequest);
             logger.info("로그인 성공: username={}", loginRequest.getUsername());
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("로그인 거부 (해싱 풀 포화): username={}", loginRequest.getUsername());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
         } catch (Exception e) {
             logger.error("로그인 실패: username={}, 에러={}", loginRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -44,13 +61,37 @@ public class AuthController {
     }
     
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
         logger.info("로그아웃 요청 처리");
-        // 클라이언트 측에서 토큰 삭제가 주요 로그아웃 메커니즘이지만,
-        // 향후 토큰 블랙리스트 등 서버 측 로그아웃 로직을 여기에 구현할 수 있습니다.
+        // 클라이언트 측 토큰 삭제와 함께 서버에서도 토큰을 폐기 (만료 시각까지 거부)
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            revokeToken(authorizationHeader.substring(7));
+        }
         return ResponseEntity.ok(Map.of(
             "message", "로그아웃 성공",
             "status", "success"
         ));
     }
-} 
\ No newline at end of file
+
+    // 토큰 폐기 (이미 만료되었거나 잘못된 토큰이면 무시)
+    private void revokeToken(String token) {
+        try {
+            Claims claims = jwtTokenUtil.verify(token);
+            AuthenticatedUser principal = jwtTokenUtil.toPrincipal(claims);
+            Long userId = principal != null ? principal.getUserId() : null;
+            if (claims.getId() == null || claims.getExpiration() == null) {
+                // jti가 없는 기존 토큰은 개별 폐기할 수 없음 (만료 시까지 유효)
+                logger.info("폐기할 수 없는 기존 형식 토큰: username={}", claims.getSubject());
+                return;
+            }
+            if (!revocationStore.revoke(claims.getId(), userId, claims.getExpiration().getTime()) && userId != null) {
+                // 폐기 목록이 가득 찬 경우 해당 사용자의 토큰 전체를 폐기
+                userService.revokeAllTokens(userId);
+                logger.warn("폐기 목록이 가득 차 사용자 토큰 전체 폐기: userId={}", userId);
+            }
+            logger.info("토큰 폐기 완료: username={}, jti={}", claims.getSubject(), claims.getId());
+        } catch (Exception e) {
+            logger.warn("로그아웃 토큰 폐기 실패: {}", e.getMessage());
+        }
+    }
+}
@@ -1,22 +1,56 @@
 package com.aihelper.controller;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.aihelper.config.ChatRequestSizeFilter;
+import com.aihelper.model.ChatCompletionRequest;
+import com.aihelper.model.ChatMessage;
+import com.aihelper.model.AuthenticatedUser;
 import com.aihelper.model.User;
+import com.aihelper.service.ChatAdmissionService;
+import com.aihelper.service.ChatCompletionExecutor;
+import com.aihelper.service.ChatContextManager;
+import com.aihelper.service.ChatFairQueue;
+import com.aihelper.service.ChatRejectedException;
+import com.aihelper.service.ChatTranscriptWriter;
+import com.aihelper.service.ChatUsageAccounting;
+import com.aihelper.service.ConversationSession;
+import com.aihelper.service.ConversationSessionStore;
 import com.aihelper.service.CoreApiClient;
+import com.aihelper.service.CoreDeadline;
+import com.aihelper.service.CoreRequestOptions;
+import com.aihelper.service.CoreResponseSniffer;
+import com.aihelper.service.CoreStreamSniffer;
+import com.aihelper.service.OrgTokenQuotaService;
 import com.aihelper.service.UserService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,72 +64,598 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class ChatController {
 
+    // 대화 이력 정리로 줄어든 추정 토큰 수
+    private static final String TOKENS_SAVED_HEADER = "X-Context-Tokens-Saved";
+
     private final CoreApiClient coreApiClient;
+    private final ChatCompletionExecutor chatCompletionExecutor;
+    private final ChatAdmissionService chatAdmissionService;
+    private final ChatContextManager chatContextManager;
+    private final ConversationSessionStore conversationSessionStore;
+    private final ChatTranscriptWriter chatTranscriptWriter;
+    private final ChatUsageAccounting chatUsageAccounting;
+    private final OrgTokenQuotaService orgTokenQuotaService;
     private final UserService userService;
     private final ObjectMapper objectMapper;
     
+    // 요청 하나에 담을 수 있는 최대 메시지 수 (본문 바이트 한도는 ChatRequestSizeFilter 참고)
+    @Value("${aihelper.chat.request.max-messages:500}")
+    private int maxMessages;
+    
     /**
      * 채팅 완성 요청을 처리합니다.
+     * Core API 호출은 전용 실행 풀에서 비동기로 처리되며, 대기 중에는 Tomcat 스레드를 점유하지 않습니다.
      * 
      * @param requestBody 채팅 요청 본문
      * @param authentication 인증 정보
      * @return AI 응답
      */
     @PostMapping("/completions")
-    public ResponseEntity<JsonNode> chatCompletions(
-            @RequestBody JsonNode requestBody,
+    public DeferredResult<ResponseEntity<JsonNode>> chatCompletions(
+            @RequestBody ChatCompletionRequest requestBody,
+            @RequestHeader(value = CoreDeadline.HEADER, required = false) Long requestedDeadlineMs,
             Authentication authentication) {
         
         log.info("채팅 API 호출 - 사용자: {}", authentication.getName());
-        log.debug("채팅 API 요청 본문: {}", requestBody.toString());
+        
+        DeferredResult<ResponseEntity<JsonNode>> result = new DeferredResult<>();
         
         try {
             // 현재 인증된 사용자 정보 조회
-            User user = userService.findByUsername(authentication.getName());
+            AuthenticatedUser user = currentUser(authentication);
             if (user == null) {
                 log.warn("인증된 사용자 정보를 찾을 수 없음: {}", authentication.getName());
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                result.setResult(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+                return result;
             }
             
             log.info("사용자 정보 조회 성공 - 사용자 ID: {}, 조직 ID: {}", user.getUserId(), user.getOrgId());
             
-            // 요청에서 메시지 배열 추출
-            ArrayNode messages = (ArrayNode) requestBody.get("messages");
-            if (messages == null || messages.size() == 0) {
-                log.warn("메시지 배열이 비어있거나 존재하지 않음");
-                return ResponseEntity.badRequest().build();
+            // 요청 메시지 검증
+            List<ChatMessage> messages = requestBody.getMessages();
+            ResponseEntity<JsonNode> invalid = validateMessages(messages);
+            if (invalid != null) {
+                result.setResult(invalid);
+                return result;
             }
             
             log.debug("메시지 개수: {}", messages.size());
             
             // 모델 파라미터 추출
-            String model = requestBody.has("model") ? requestBody.get("model").asText() : null;
+            String model = requestBody.getModel();
             log.debug("요청 모델: {}", model != null ? model : "기본값");
             
-            // Core API 호출
-            log.info("Core API 호출 시작...");
-            JsonNode response = coreApiClient.sendChatRequest(
-                messages, 
+            // 요청 등급 ("priority": "batch" 이면 대화형 요청보다 뒤로 스케줄링)
+            ChatFairQueue.Priority priority = "batch".equalsIgnoreCase(requestBody.getPriority())
+                ? ChatFairQueue.Priority.BATCH
+                : ChatFairQueue.Priority.INTERACTIVE;
+            
+            // 대화 이력 정리, 요청 한도 확인 후 Core API 호출
+            submitCompletion(result, user, UUID.randomUUID().toString(), messages, model,
+                !Boolean.FALSE.equals(requestBody.getCache()), priority, requestedDeadlineMs, null);
+            
+        } catch (Exception e) {
+            result.setResult(handleChatError(e));
+        }
+        return result;
+    }
+    
+    /**
+     * 대화 이력을 정리한 뒤 Core API 호출을 실행 풀에 제출하고, 완료되면 DeferredResult에 응답을 설정합니다.
+     * 
+     * @param result 응답을 설정할 DeferredResult
+     * @param user 요청 사용자
+     * @param conversationId 대화 기록용 ID (세션 ID 또는 요청별 ID)
+     * @param messages 메시지 목록
+     * @param model 모델 이름
+     * @param useCache 응답 캐시 사용 여부
+     * @param priority 요청 등급 (조직별 공정 대기열에서 사용)
+     * @param requestedDeadlineMs 클라이언트가 요청한 처리 기한 (없으면 null)
+     * @param onResponse 응답을 반환하기 전에 호출할 콜백 (없으면 null)
+     * @throws ChatRejectedException 요청 한도 초과 또는 실행 대기열 초과 시
+     */
+    private void submitCompletion(DeferredResult<ResponseEntity<JsonNode>> result, AuthenticatedUser user,
+                                  String conversationId, List<ChatMessage> messages, String model, boolean useCache,
+                                  ChatFairQueue.Priority priority, Long requestedDeadlineMs, Consumer<JsonNode> onResponse) {
+        // 대화 이력을 모델 토큰 예산에 맞게 정리
+        ChatContextManager.Result context = chatContextManager.prepare(messages, model);
+        List<ChatMessage> contextMessages = context.getMessages();
+        
+        // 요청 처리 기한 (실행 풀 대기, Core API 호출까지 동일한 기한 적용)
+        CoreDeadline deadline = chatCompletionExecutor.newDeadline(requestedDeadlineMs);
+        
+        // 요청 옵션 ("cache": false 이면 응답 캐시 우회, batch 등급 요청은 마이크로 배치 허용)
+        CoreRequestOptions options = CoreRequestOptions.builder()
+            .useCache(useCache)
+            .deadline(deadline)
+            .batchable(priority == ChatFairQueue.Priority.BATCH)
+            .build();
+        
+        // 조직 월간 토큰 한도 예약 (소진 시 429)
+        OrgTokenQuotaService.Reservation reservation =
+            orgTokenQuotaService.reserve(user.getOrgId(), context.getFinalTokens());
+        
+        // 사용자/조직 요청 한도 확인 (초과 시 429)
+        ChatAdmissionService.Permit permit;
+        try {
+            permit = chatAdmissionService.acquire(user.getUserId(), user.getOrgId(), user.getRole());
+        } catch (RuntimeException e) {
+            reservation.release();
+            throw e;
+        }
+        
+        // Core API 호출 (조직별 공정 대기열을 거쳐 실행기에 제출, 응답을 기다리며 스레드를 점유하지 않음)
+        // 처리 기한은 작업(Core 호출)이 관리하며, 한도 정산과 사용량 집계는 Core 호출이 끝난 시점에 수행
+        // 요청 한도와 남은 예약은 작업이 실제로 끝나거나 실행되지 않고 버려질 때 반납
+        log.info("Core API 호출 시작...");
+        CompletableFuture<JsonNode> future;
+        try {
+            future = chatCompletionExecutor.submit(() -> coreApiClient.sendChatRequestAsync(
+                contextMessages, 
                 model, 
                 user.getUserId(), 
-                user.getOrgId()
-            );
+                user.getOrgId(),
+                options).thenApply(coreResult -> {
+                    JsonNode response = coreResult.getResponse();
+                    if (!coreResult.isBillable()) {
+                        // 캐시 적중/진행 중인 요청 합류/시뮬레이션 응답은 새로 쓴 토큰이 없으므로 예약만 해제
+                        reservation.release();
+                        return response;
+                    }
+                    orgTokenQuotaService.reconcile(reservation, response);
+                    
+                    // 토큰 사용량 집계 (메모리 누적 후 주기적으로 저장)
+                    chatUsageAccounting.record(user.getUserId(), user.getOrgId(), model, response);
+                    return response;
+                }), deadline, user.getOrgId(), priority, context.getFinalTokens(), () -> {
+                permit.release();
+                reservation.release();
+            });
+        } catch (RuntimeException e) {
+            permit.release();
+            reservation.release();
+            throw e;
+        }
+        future.whenComplete((response, ex) -> {
+            if (ex != null) {
+                result.setResult(handleChatError(ex));
+                return;
+            }
             log.info("Core API 호출 완료");
             
             // 응답 로깅 (민감 정보 제외)
             if (response.has("id")) {
                 log.debug("응답 ID: {}", response.get("id").asText());
             }
+            if (onResponse != null) {
+                onResponse.accept(response);
+            }
             
-            // 응답 반환
-            return ResponseEntity.ok(response);
+            // 대화 기록 저장 (비동기 write-behind, 응답을 지연시키지 않음)
+            chatTranscriptWriter.recordTurn(conversationId, user.getUserId(), user.getOrgId(), model,
+                messages, response);
             
-        } catch (Exception e) {
-            log.error("채팅 요청 처리 중 오류: " + e.getMessage(), e);
+            // 응답 반환
+            result.setResult(ResponseEntity.ok()
+                .header(TOKENS_SAVED_HEADER, String.valueOf(context.getTokensSaved()))
+                .body(response));
+        });
+    }
+    
+    /**
+     * 요청 메시지 목록을 검증합니다.
+     * 
+     * @param messages 요청 메시지 목록
+     * @return 오류 응답 (문제가 없으면 null)
+     */
+    private ResponseEntity<JsonNode> validateMessages(List<ChatMessage> messages) {
+        if (messages == null || messages.isEmpty() || messages.contains(null)) {
+            log.warn("메시지 배열이 비어있거나 존재하지 않음");
+            return ResponseEntity.badRequest().build();
+        }
+        if (maxMessages > 0 && messages.size() > maxMessages) {
+            log.warn("메시지 수 초과: {}개 (한도: {}개)", messages.size(), maxMessages);
             JsonNode errorResponse = objectMapper.createObjectNode()
                 .put("error", true)
-                .put("message", "채팅 요청 처리 중 오류가 발생했습니다: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+                .put("message", "메시지는 최대 " + maxMessages + "개까지 보낼 수 있습니다.");
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+        }
+        return null;
+    }
+    
+    /**
+     * 요청 본문을 읽지 못한 경우를 처리합니다.
+     * 본문 크기 한도를 넘어 읽기가 중단되었으면 413, 그 외 JSON 형식 오류는 400으로 응답합니다.
+     * 
+     * @param ex 발생한 예외
+     * @return 오류 응답
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<JsonNode> handleUnreadableRequest(HttpMessageNotReadableException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ChatRequestSizeFilter.RequestTooLargeException) {
+                log.warn("채팅 요청 본문 크기 초과: {}", cause.getMessage());
+                JsonNode errorResponse = objectMapper.createObjectNode()
+                    .put("error", true)
+                    .put("message", cause.getMessage());
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+            }
+        }
+        log.warn("채팅 요청 본문을 읽을 수 없음: {}", ex.getMessage());
+        JsonNode errorResponse = objectMapper.createObjectNode()
+            .put("error", true)
+            .put("message", "요청 본문 형식이 올바르지 않습니다.");
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+    
+    /**
+     * 채팅 요청 처리 중 발생한 예외를 응답으로 변환합니다.
+     * 
+     * @param ex 발생한 예외
+     * @return 오류 응답
+     */
+    private ResponseEntity<JsonNode> handleChatError(Throwable ex) {
+        Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ? ex.getCause() : ex;
+        
+        if (cause instanceof ChatRejectedException) {
+            ChatRejectedException rejected = (ChatRejectedException) cause;
+            log.warn("채팅 요청 거부: {} ({})", rejected.getMessage(), rejected.getStatus());
+            JsonNode errorResponse = objectMapper.createObjectNode()
+                .put("error", true)
+                .put("message", rejected.getMessage());
+            return ResponseEntity.status(rejected.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(rejected.getRetryAfterSeconds()))
+                .body(errorResponse);
+        }
+        
+        if (cause instanceof TimeoutException) {
+            log.warn("채팅 요청 처리 시간 초과: {}", cause.getMessage());
+            JsonNode errorResponse = objectMapper.createObjectNode()
+                .put("error", true)
+                .put("message", "AI 응답 대기 시간이 초과되었습니다.");
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+        }
+        
+        log.error("채팅 요청 처리 중 오류: " + cause.getMessage(), cause);
+        JsonNode errorResponse = objectMapper.createObjectNode()
+            .put("error", true)
+            .put("message", "채팅 요청 처리 중 오류가 발생했습니다: " + cause.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    }
+    
+    /**
+     * 채팅 완성 요청을 스트리밍(Server-Sent Events)으로 처리합니다.
+     * Core API 스트림을 받아오는 즉시 클라이언트로 중계합니다.
+     * 
+     * @param requestBody 채팅 요청 본문
+     * @param authentication 인증 정보
+     * @return SSE 스트림
+     */
+    @PostMapping(value = "/completions/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> chatCompletionsStream(
+            @RequestBody ChatCompletionRequest requestBody,
+            Authentication authentication) {
+        
+        log.info("스트리밍 채팅 API 호출 - 사용자: {}", authentication.getName());
+        
+        // 현재 인증된 사용자 정보 조회
+        AuthenticatedUser user = currentUser(authentication);
+        if (user == null) {
+            log.warn("인증된 사용자 정보를 찾을 수 없음: {}", authentication.getName());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        // 요청 메시지 검증
+        ResponseEntity<JsonNode> invalid = validateMessages(requestBody.getMessages());
+        if (invalid != null) {
+            return ResponseEntity.status(invalid.getStatusCode()).build();
+        }
+        String model = requestBody.getModel();
+        ChatContextManager.Result context = chatContextManager.prepare(requestBody.getMessages(), model);
+        List<ChatMessage> messages = context.getMessages();
+        Long userId = user.getUserId();
+        Long orgId = user.getOrgId();
+        
+        // 조직 토큰 한도 예약, 사용자/조직 요청 한도 확인 (초과 시 429)
+        OrgTokenQuotaService.Reservation reservation;
+        ChatAdmissionService.Permit permit;
+        try {
+            reservation = orgTokenQuotaService.reserve(orgId, context.getFinalTokens());
+            try {
+                permit = chatAdmissionService.acquire(userId, orgId, user.getRole());
+            } catch (ChatRejectedException e) {
+                reservation.release();
+                throw e;
+            }
+        } catch (ChatRejectedException e) {
+            log.warn("스트리밍 채팅 요청 거부: {}", e.getMessage());
+            return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+        }
+        
+        StreamingResponseBody body = out -> {
+            CoreStreamSniffer sniffer = new CoreStreamSniffer(objectMapper, chatContextManager.estimatorFor(model));
+            try {
+                coreApiClient.streamChatRequest(messages, model, userId, orgId, out, sniffer);
+            } finally {
+                permit.release();
+                recordStreamUsage(userId, orgId, model, context, sniffer, reservation);
+            }
+        };
+        
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+            .header(TOKENS_SAVED_HEADER, String.valueOf(context.getTokensSaved()))
+            .header("X-Accel-Buffering", "no") // 프록시 버퍼링 비활성화
+            .contentType(MediaType.TEXT_EVENT_STREAM)
+            .body(body);
+    }
+    
+    // 스트리밍 사용량 집계 및 한도 정산
+    // Core가 usage 청크를 보냈으면 그 값을, 없으면 요청 추정 토큰 + 중계한 응답 내용의 추정 토큰을 사용
+    // (chat_usage에 기록해야 다음 한도 동기화 때 스트리밍 사용량이 빠지지 않음)
+    private void recordStreamUsage(Long userId, Long orgId, String model, ChatContextManager.Result context,
+                                   CoreStreamSniffer sniffer, OrgTokenQuotaService.Reservation reservation) {
+        if (sniffer.getChunks() == 0) {
+            // 연결 실패, 오류 응답 등 중계한 응답이 없음
+            reservation.release();
+            return;
+        }
+        long promptTokens = sniffer.hasUsage() ? sniffer.getPromptTokens() : context.getFinalTokens();
+        long completionTokens = sniffer.hasUsage() ? sniffer.getCompletionTokens() : sniffer.getEstimatedCompletionTokens();
+        log.debug("스트리밍 토큰 사용량 - 요청: {}, 응답: {} ({})", promptTokens, completionTokens,
+            sniffer.hasUsage() ? "usage" : "추정");
+        chatUsageAccounting.record(userId, orgId, model, promptTokens, completionTokens);
+        reservation.reconcile(promptTokens + completionTokens);
+    }
+    
+    /**
+     * 채팅 완성 요청을 passthrough 모드로 처리합니다.
+     * Core API 응답을 JSON 트리로 변환하지 않고 바이트 그대로 클라이언트에 전달합니다.
+     * 
+     * @param requestBody 채팅 요청 본문
+     * @param authentication 인증 정보
+     * @return Core API 응답 본문 (원본 그대로)
+     */
+    @PostMapping(value = "/completions/passthrough", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> chatCompletionsPassthrough(
+            @RequestBody ChatCompletionRequest requestBody,
+            Authentication authentication) {
+        
+        log.info("passthrough 채팅 API 호출 - 사용자: {}", authentication.getName());
+        
+        // 현재 인증된 사용자 정보 조회
+        AuthenticatedUser user = currentUser(authentication);
+        if (user == null) {
+            log.warn("인증된 사용자 정보를 찾을 수 없음: {}", authentication.getName());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        // 요청 메시지 검증
+        ResponseEntity<JsonNode> invalid = validateMessages(requestBody.getMessages());
+        if (invalid != null) {
+            return ResponseEntity.status(invalid.getStatusCode()).build();
+        }
+        String model = requestBody.getModel();
+        ChatContextManager.Result context = chatContextManager.prepare(requestBody.getMessages(), model);
+        List<ChatMessage> messages = context.getMessages();
+        Long userId = user.getUserId();
+        Long orgId = user.getOrgId();
+        
+        // 조직 토큰 한도 예약, 사용자/조직 요청 한도 확인 (초과 시 429)
+        OrgTokenQuotaService.Reservation reservation;
+        ChatAdmissionService.Permit permit;
+        try {
+            reservation = orgTokenQuotaService.reserve(orgId, context.getFinalTokens());
+            try {
+                permit = chatAdmissionService.acquire(userId, orgId, user.getRole());
+            } catch (ChatRejectedException e) {
+                reservation.release();
+                throw e;
+            }
+        } catch (ChatRejectedException e) {
+            log.warn("passthrough 채팅 요청 거부: {}", e.getMessage());
+            return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+        }
+        
+        StreamingResponseBody body = out -> {
+            try {
+                CoreResponseSniffer summary =
+                    coreApiClient.passthroughChatRequest(messages, model, userId, orgId, out);
+                log.debug("응답 ID: {}, 토큰: {}", summary.getId(), summary.getTotalTokens());
+                if (!summary.isSimulated() && summary.hasUsage()) {
+                    long promptTokens = Math.max(0, summary.getPromptTokens());
+                    long completionTokens = Math.max(0, summary.getCompletionTokens());
+                    if (summary.getPromptTokens() < 0 && summary.getCompletionTokens() < 0) {
+                        // total_tokens만 온 경우 전체를 응답 토큰으로 집계
+                        completionTokens = summary.getTotalTokens();
+                    }
+                    chatUsageAccounting.record(userId, orgId, model, promptTokens, completionTokens);
+                    reservation.reconcile(promptTokens + completionTokens);
+                }
+            } finally {
+                permit.release();
+                reservation.release();
+            }
+        };
+        
+        return ResponseEntity.ok()
+            .header(TOKENS_SAVED_HEADER, String.valueOf(context.getTokensSaved()))
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+    
+    /**
+     * 대화 세션을 생성합니다.
+     * 이후에는 새 메시지만 보내면 서버에 저장된 이력과 합쳐 Core API로 전달됩니다.
+     * 
+     * @param requestBody {"model": 모델 이름(선택), "system": system 프롬프트(선택)}
+     * @param authentication 인증 정보
+     * @return 생성된 세션 정보
+     */
+    @PostMapping("/sessions")
+    public ResponseEntity<JsonNode> createSession(
+            @RequestBody(required = false) JsonNode requestBody,
+            Authentication authentication) {
+        
+        AuthenticatedUser user = currentUser(authentication);
+        if (user == null) {
+            log.warn("인증된 사용자 정보를 찾을 수 없음: {}", authentication.getName());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        JsonNode body = requestBody != null ? requestBody : objectMapper.createObjectNode();
+        String model = body.hasNonNull("model") ? body.get("model").asText() : null;
+        ConversationSession session = conversationSessionStore.create(user.getUserId(), user.getOrgId(), model);
+        if (body.hasNonNull("system")) {
+            conversationSessionStore.append(session, "system", body.get("system").asText());
+        }
+        
+        log.info("대화 세션 생성 - 사용자 ID: {}, 세션: {}", user.getUserId(), session.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(objectMapper.valueToTree(session.toMap()));
+    }
+    
+    /**
+     * 대화 세션에 새 메시지를 보냅니다.
+     * 서버에 저장된 이력에 메시지를 추가해 Core API로 보내고, 응답 메시지도 이력에 저장합니다.
+     * 
+     * @param sessionId 세션 ID
+     * @param requestBody {"content": 새 사용자 메시지, "cache": 응답 캐시 사용 여부(선택)}
+     * @param authentication 인증 정보
+     * @return AI 응답
+     */
+    @PostMapping("/sessions/{sessionId}/messages")
+    public DeferredResult<ResponseEntity<JsonNode>> sendSessionMessage(
+            @PathVariable String sessionId,
+            @RequestBody JsonNode requestBody,
+            @RequestHeader(value = CoreDeadline.HEADER, required = false) Long requestedDeadlineMs,
+            Authentication authentication) {
+        
+        log.info("세션 채팅 API 호출 - 사용자: {}, 세션: {}", authentication.getName(), sessionId);
+        
+        DeferredResult<ResponseEntity<JsonNode>> result = new DeferredResult<>();
+        
+        try {
+            AuthenticatedUser user = currentUser(authentication);
+            if (user == null) {
+                log.warn("인증된 사용자 정보를 찾을 수 없음: {}", authentication.getName());
+                result.setResult(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+                return result;
+            }
+            
+            ConversationSession session = findSession(sessionId, user);
+            if (session == null) {
+                result.setResult(ResponseEntity.notFound().build());
+                return result;
+            }
+            
+            String content = requestBody.path("content").asText(null);
+            if (content == null || content.isEmpty()) {
+                log.warn("메시지 내용이 비어있음");
+                result.setResult(ResponseEntity.badRequest().build());
+                return result;
+            }
+            
+            // 한 세션에서는 한 번에 한 턴만 처리 (동시 요청은 409)
+            if (!conversationSessionStore.tryBeginTurn(session.getId())) {
+                log.warn("이전 메시지를 처리 중인 세션: {}", session.getId());
+                JsonNode errorResponse = objectMapper.createObjectNode()
+                    .put("error", true)
+                    .put("message", "이전 메시지를 처리 중입니다. 응답을 받은 뒤 다시 보내주세요.");
+                result.setResult(ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse));
+                return result;
+            }
+            result.onCompletion(() -> conversationSessionStore.endTurn(session.getId()));
+            
+            // 사용자 메시지는 응답을 받은 뒤 응답과 함께 이력에 추가 (거부/실패 시 이력에 남지 않아 재시도해도 중복되지 않음)
+            List<ChatMessage> messages = session.toMessages();
+            messages.add(new ChatMessage("user", content));
+            try {
+                submitCompletion(result, user, session.getId(), messages, session.getModel(),
+                    requestBody.path("cache").asBoolean(true), ChatFairQueue.Priority.INTERACTIVE, requestedDeadlineMs,
+                    response -> appendTurn(session, content, response));
+            } catch (RuntimeException e) {
+                conversationSessionStore.endTurn(session.getId());
+                throw e;
+            }
+            
+        } catch (Exception e) {
+            result.setResult(handleChatError(e));
+        }
+        return result;
+    }
+    
+    /**
+     * 대화 세션 정보(메시지 수, 메모리 사용량)를 조회합니다.
+     * 
+     * @param sessionId 세션 ID
+     * @param authentication 인증 정보
+     * @return 세션 정보
+     */
+    @GetMapping("/sessions/{sessionId}")
+    public ResponseEntity<JsonNode> getSession(@PathVariable String sessionId, Authentication authentication) {
+        AuthenticatedUser user = currentUser(authentication);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        ConversationSession session = findSession(sessionId, user);
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(objectMapper.valueToTree(session.toMap()));
+    }
+    
+    /**
+     * 대화 세션을 삭제합니다.
+     * 
+     * @param sessionId 세션 ID
+     * @param authentication 인증 정보
+     */
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Void> deleteSession(@PathVariable String sessionId, Authentication authentication) {
+        AuthenticatedUser user = currentUser(authentication);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (findSession(sessionId, user) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        conversationSessionStore.remove(sessionId);
+        log.info("대화 세션 삭제 - 사용자 ID: {}, 세션: {}", user.getUserId(), sessionId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    // 인증 사용자 (JWT 클레임으로 인증된 경우 DB 조회 없음, 식별 클레임이 없는 기존 토큰만 사용자 조회)
+    private AuthenticatedUser currentUser(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return (AuthenticatedUser) authentication.getPrincipal();
+        }
+        User user = userService.findByUsername(authentication.getName());
+        return user != null ? AuthenticatedUser.from(user) : null;
+    }
+    
+    // 다른 사용자의 세션은 없는 것으로 처리
+    private ConversationSession findSession(String sessionId, AuthenticatedUser user) {
+        ConversationSession session = conversationSessionStore.get(sessionId);
+        if (session == null || !Objects.equals(session.getUserId(), user.getUserId())) {
+            return null;
+        }
+        return session;
+    }
+    
+    // 오류/시뮬레이션이 아닌 경우에만 사용자 메시지와 응답 메시지를 함께 세션 이력에 추가
+    private void appendTurn(ConversationSession session, String userContent, JsonNode response) {
+        if (response.has("error") || response.path("id").asText("").startsWith("sim_")) {
+            return;
+        }
+        JsonNode content = response.path("choices").path(0).path("message").path("content");
+        if (content.isTextual()) {
+            conversationSessionStore.append(session, List.of(
+                new ChatMessage("user", userContent),
+                new ChatMessage("assistant", content.asText())));
         }
     }
     
@@ -109,7 +669,7 @@ public class ChatController {
     public ResponseEntity<JsonNode> getChatStreamUrl(Authentication authentication) {
         try {
             // 현재 인증된 사용자 정보 조회
-            User user = userService.findByUsername(authentication.getName());
+            AuthenticatedUser user = currentUser(authentication);
             if (user == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
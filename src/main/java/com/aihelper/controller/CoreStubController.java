@@ -0,0 +1,107 @@
+package com.aihelper.controller;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.aihelper.service.ChatTokenEstimator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 로컬 테스트용 Core API 대역 (실제 Core 없이 단건/배치 호출을 확인할 때 사용)
+ * aihelper.core.stub.enabled=true 일 때만 등록되며,
+ * aihelper.core.api.url을 http://localhost:8080/api/public/core-stub 으로 지정하면 됩니다.
+ * 마지막 user 메시지를 되돌려주는 응답을 만들고, failure-rate 비율로 배치 항목을 실패시켜 부분 실패도 재현합니다.
+ */
+@RestController
+@RequestMapping("/api/public/core-stub")
+@ConditionalOnProperty(name = "aihelper.core.stub.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class CoreStubController {
+
+    private final ObjectMapper objectMapper;
+    private final ChatTokenEstimator estimator = new ChatTokenEstimator(4.0, 1.0);
+
+    // 호출마다 추가하는 처리 시간 (배치는 항목 수와 무관하게 한 번만 적용)
+    @Value("${aihelper.core.stub.latency-ms:50}")
+    private long latencyMs;
+
+    @Value("${aihelper.core.stub.failure-rate:0.0}")
+    private double failureRate;
+
+    @GetMapping("/health")
+    public ResponseEntity<String> health() {
+        return ResponseEntity.ok("OK");
+    }
+
+    @PostMapping("/api/v1/chat/completions")
+    public ResponseEntity<JsonNode> completions(@RequestBody JsonNode request) throws InterruptedException {
+        Thread.sleep(latencyMs);
+        return ResponseEntity.ok(createResponse(request));
+    }
+
+    @PostMapping("/api/v1/chat/completions/batch")
+    public ResponseEntity<JsonNode> batch(@RequestBody JsonNode request) throws InterruptedException {
+        Thread.sleep(latencyMs);
+        log.debug("Core 대역 배치 요청 - 모델: {}, {}건", request.path("model").asText(), request.path("requests").size());
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode results = response.putArray("results");
+        for (JsonNode item : request.path("requests")) {
+            ObjectNode result = results.addObject();
+            result.put("custom_id", item.path("custom_id").asText());
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                result.put("status", 500);
+                result.put("error", "stub failure");
+            } else {
+                result.put("status", 200);
+                result.set("response", createResponse(item.path("body")));
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    private ObjectNode createResponse(JsonNode request) {
+        String lastUserMessage = "";
+        int promptTokens = ChatTokenEstimator.TOKENS_PER_REQUEST;
+        for (JsonNode message : request.path("messages")) {
+            String content = message.path("content").asText("");
+            promptTokens += estimator.estimateMessage(message.path("role").asText(null), content);
+            if ("user".equals(message.path("role").asText())) {
+                lastUserMessage = content;
+            }
+        }
+        String content = "[stub] " + lastUserMessage;
+        int completionTokens = estimator.estimate(content);
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("id", "stub_" + System.nanoTime());
+        response.put("object", "chat.completion");
+        response.put("created", System.currentTimeMillis() / 1000);
+        response.put("model", request.path("model").asText("gpt-3.5-turbo"));
+        ObjectNode choice = response.putArray("choices").addObject();
+        choice.put("index", 0);
+        ObjectNode message = choice.putObject("message");
+        message.put("role", "assistant");
+        message.put("content", content);
+        choice.put("finish_reason", "stop");
+        ObjectNode usage = response.putObject("usage");
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", promptTokens + completionTokens);
+        return response;
+    }
+}
@@ -0,0 +1,14 @@
+package com.aihelper.mapper;
+
+import com.aihelper.model.ChatMessageRecord;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface ChatTranscriptMapper {
+
+    // 대화 추가 (이미 있으면 마지막 갱신 시간만 변경)
+    int upsertConversation(ChatMessageRecord message);
+
+    // 메시지 추가 (같은 message_key가 있으면 무시)
+    int insertMessage(ChatMessageRecord message);
+}
@@ -0,0 +1,20 @@
+package com.aihelper.mapper;
+
+import com.aihelper.model.OrgQuota;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface OrgQuotaMapper {
+
+    // 전체 조직 한도 조회
+    List<OrgQuota> findAll();
+
+    // 조직 한도 설정 (없으면 추가)
+    int upsert(OrgQuota quota);
+
+    // 조직 한도 삭제 (제한 없음으로 변경)
+    int deleteByOrgId(@Param("orgId") Long orgId);
+}
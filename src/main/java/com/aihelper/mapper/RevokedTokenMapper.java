@@ -0,0 +1,21 @@
+package com.aihelper.mapper;
+
+import com.aihelper.model.RevokedToken;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface RevokedTokenMapper {
+
+    // 폐기 토큰 추가 (이미 있으면 무시)
+    int insert(RevokedToken token);
+
+    // 아직 만료되지 않은 폐기 토큰 조회 (since가 null이면 전체)
+    List<RevokedToken> findActiveSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    // 만료된 폐기 토큰 삭제
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,24 @@
+package com.aihelper.mapper;
+
+import com.aihelper.model.UsageRecord;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper
+public interface UsageMapper {
+
+    // 사용량 누적 (행이 없으면 추가)
+    int addUsage(UsageRecord usage);
+
+    // 사용자별 모델 사용량 합계
+    List<UsageRecord> sumByUser(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // 조직별 모델 사용량 합계
+    List<UsageRecord> sumByOrg(@Param("orgId") Long orgId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // 전체 조직의 기간 사용량 합계 (한도 동기화용)
+    List<UsageRecord> sumAllOrgsSince(@Param("from") LocalDate from);
+}
@@ -36,6 +36,16 @@ public interface UserMapper {
     // 비밀번호 업데이트
     int updatePassword(@Param("userId") Long userId, @Param("password") String password);
     
+    // 비밀번호 재해싱 저장 (기존 해시가 그대로일 때만, 토큰 버전 유지)
+    int updatePasswordHash(@Param("userId") Long userId, @Param("oldPassword") String oldPassword,
+                           @Param("password") String password);
+    
+    // JWT 버전 확인용 상태 조회 (user_id, status, token_version)
+    User findAuthState(@Param("userId") Long userId);
+    
+    // 토큰 버전 증가 (발급된 토큰 전체 폐기)
+    int incrementTokenVersion(@Param("userId") Long userId);
+    
     // 마지막 로그인 시간 업데이트
     int updateLastLogin(@Param("userId") Long userId);
     
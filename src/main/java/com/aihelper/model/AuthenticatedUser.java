@@ -0,0 +1,48 @@
+package com.aihelper.model;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * JWT 클레임으로 만든 인증 사용자 (Authentication principal)
+ * 요청마다 사용자 테이블을 조회하지 않도록 userId, orgId, role, 토큰 버전을 토큰에서 바로 가져옵니다.
+ * getName()이 username을 반환하므로 Authentication.getName()도 그대로 사용할 수 있습니다.
+ */
+@Getter
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+    private final Long userId;
+    private final String username;
+    private final Long orgId;
+    private final String role;
+    private final int tokenVersion;
+
+    /**
+     * 기존 토큰처럼 클레임이 없을 때 DB에서 조회한 사용자로 만듭니다.
+     */
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getUserId(), user.getUsername(), user.getOrgId(), user.getRole(),
+            user.getTokenVersion() != null ? user.getTokenVersion() : 0);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public Collection<GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -0,0 +1,25 @@
+package com.aihelper.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 채팅 완성 요청 본문
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ChatCompletionRequest {
+    private String model;
+    private List<ChatMessage> messages;
+    // false 이면 응답 캐시 우회
+    private Boolean cache;
+    // "batch" 이면 대화형 요청보다 뒤로 스케줄링
+    private String priority;
+}
@@ -0,0 +1,68 @@
+package com.aihelper.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 채팅 메시지 (role, content, 선택적으로 name)
+ * content는 문자열뿐 아니라 멀티모달 배열([{"type": "text", ...}, {"type": "image_url", ...}])도 그대로 받아 Core로 전달합니다.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ChatMessage {
+    private String role;
+    private JsonNode content;
+    private String name;
+
+    public ChatMessage(String role, String content) {
+        this(role, content != null ? TextNode.valueOf(content) : null, null);
+    }
+
+    /**
+     * 토큰 추정/요약에 쓰는 텍스트 (문자열이면 그대로, 배열이면 text 파트를 이어 붙임, 없으면 null)
+     */
+    @JsonIgnore
+    public String getText() {
+        if (content == null || content.isNull()) {
+            return null;
+        }
+        if (content.isTextual()) {
+            return content.asText();
+        }
+        if (content.isArray()) {
+            StringBuilder text = new StringBuilder();
+            for (JsonNode part : content) {
+                JsonNode partText = part.path("text");
+                if (partText.isTextual()) {
+                    if (text.length() > 0) {
+                        text.append('\n');
+                    }
+                    text.append(partText.asText());
+                }
+            }
+            return text.toString();
+        }
+        return content.toString();
+    }
+
+    /**
+     * 저장/비교용 content 문자열 (문자열이면 그대로, 그 외에는 JSON 문자열, 없으면 null)
+     */
+    @JsonIgnore
+    public String getContentString() {
+        if (content == null || content.isNull()) {
+            return null;
+        }
+        return content.isTextual() ? content.asText() : content.toString();
+    }
+}
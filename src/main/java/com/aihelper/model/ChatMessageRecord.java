@@ -0,0 +1,28 @@
+package com.aihelper.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 저장할 채팅 메시지 한 건 (chat_messages)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatMessageRecord {
+    // 메시지 고유 키 (spool 재처리로 같은 메시지를 다시 저장해도 중복 행이 생기지 않도록 함)
+    private String messageKey;
+    private String conversationId;
+    private Long userId;
+    private Long orgId;
+    private String role;
+    private String content;
+    private String model;
+    private String responseId;
+    private Integer promptTokens;
+    private Integer completionTokens;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.aihelper.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 조직별 월간 토큰 한도 (org_token_quotas)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrgQuota {
+    private Long orgId;
+    private Long monthlyTokenLimit;
+}
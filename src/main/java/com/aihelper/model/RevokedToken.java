@@ -0,0 +1,20 @@
+package com.aihelper.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 폐기된 JWT (revoked_tokens)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedToken {
+    private String jti;
+    private Long userId;
+    private LocalDateTime expiresAt;
+    private LocalDateTime revokedAt;
+}
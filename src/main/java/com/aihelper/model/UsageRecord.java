@@ -0,0 +1,23 @@
+package com.aihelper.model;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 일별 토큰 사용량 (chat_usage)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UsageRecord {
+    private LocalDate usageDate;
+    private Long userId;
+    private Long orgId;
+    private String model;
+    private long requests;
+    private long promptTokens;
+    private long completionTokens;
+}
@@ -0,0 +1,342 @@
+package com.aihelper.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 사용자/조직 단위 채팅 요청 허용(admission) 제어
+ * 키마다 토큰 버킷(GCRA, AtomicLong 하나로 CAS 처리)과 동시 실행 수 제한을 적용합니다.
+ * 락을 사용하지 않으므로 QPS가 높아도 제한기 자체가 병목이 되지 않습니다.
+ */
+@Component
+@Slf4j
+public class ChatAdmissionService {
+
+    @Value("${aihelper.chat.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aihelper.chat.admission.user.rate-per-second:1}")
+    private double userRatePerSecond;
+
+    @Value("${aihelper.chat.admission.user.burst:5}")
+    private int userBurst;
+
+    @Value("${aihelper.chat.admission.user.max-concurrent:3}")
+    private int userMaxConcurrent;
+
+    @Value("${aihelper.chat.admission.org.rate-per-second:20}")
+    private double orgRatePerSecond;
+
+    @Value("${aihelper.chat.admission.org.burst:40}")
+    private int orgBurst;
+
+    @Value("${aihelper.chat.admission.org.max-concurrent:50}")
+    private int orgMaxConcurrent;
+
+    // 역할별 사용자 한도 (예: ADMIN:10/20/10 -> 초당 10건, 버스트 20, 동시 10)
+    @Value("${aihelper.chat.admission.role-overrides:}")
+    private String roleOverrideSpec;
+
+    // 조직별 한도 (예: 1:100/200/100)
+    @Value("${aihelper.chat.admission.org-overrides:}")
+    private String orgOverrideSpec;
+
+    @Value("${aihelper.chat.admission.idle-expire-minutes:30}")
+    private long idleExpireMinutes;
+
+    private Limits defaultUserLimits;
+    private Limits defaultOrgLimits;
+    private Map<String, Limits> roleLimits = Collections.emptyMap();
+    private Map<String, Limits> orgLimits = Collections.emptyMap();
+
+    // 오래 사용되지 않은 키는 자동 제거
+    private Cache<String, KeyState> states;
+
+    @PostConstruct
+    public void init() {
+        defaultUserLimits = new Limits(userRatePerSecond, userBurst, userMaxConcurrent);
+        defaultOrgLimits = new Limits(orgRatePerSecond, orgBurst, orgMaxConcurrent);
+        roleLimits = parseOverrides(roleOverrideSpec, true);
+        orgLimits = parseOverrides(orgOverrideSpec, false);
+        states = Caffeine.newBuilder()
+            .expireAfterAccess(idleExpireMinutes, TimeUnit.MINUTES)
+            .build();
+        log.info("채팅 요청 제한 초기화 - 사용: {}, 사용자: {}, 조직: {}, 역할별: {}, 조직별: {}",
+            enabled, defaultUserLimits, defaultOrgLimits, roleLimits.keySet(), orgLimits.keySet());
+    }
+
+    /**
+     * 요청 허용 여부를 확인하고 동시 실행 슬롯을 확보합니다.
+     * 반환된 Permit은 요청 처리가 끝나면 반드시 release 해야 합니다.
+     *
+     * @param userId 사용자 ID
+     * @param orgId 조직 ID (없으면 조직 한도 미적용)
+     * @param role 사용자 역할
+     * @return 허용 Permit
+     * @throws ChatRejectedException 요청 한도 초과 시 (429)
+     */
+    public Permit acquire(Long userId, Long orgId, String role) {
+        if (!enabled) {
+            return Permit.NOOP;
+        }
+        long now = System.nanoTime();
+
+        KeyState userState = stateFor("user:" + userId,
+            role != null ? roleLimits.getOrDefault(role.toUpperCase(), defaultUserLimits) : defaultUserLimits);
+        KeyState orgState = orgId != null
+            ? stateFor("org:" + orgId, orgLimits.getOrDefault(orgId.toString(), defaultOrgLimits))
+            : null;
+
+        // 1. 요청 속도 제한 (뒤의 한도에서 거부되면 앞에서 소비한 토큰은 되돌림)
+        long waitNanos = userState.tryConsume(now);
+        if (waitNanos > 0) {
+            throw reject(userState, waitNanos, "사용자 요청 한도를 초과했습니다.");
+        }
+        if (orgState != null) {
+            waitNanos = orgState.tryConsume(now);
+            if (waitNanos > 0) {
+                userState.refund();
+                throw reject(orgState, waitNanos, "조직 요청 한도를 초과했습니다.");
+            }
+        }
+
+        // 2. 동시 실행 제한
+        if (!userState.tryEnter()) {
+            refund(userState, orgState);
+            throw rejectConcurrency(userState, "사용자 동시 요청 한도를 초과했습니다.");
+        }
+        if (orgState != null && !orgState.tryEnter()) {
+            userState.exit();
+            refund(userState, orgState);
+            throw rejectConcurrency(orgState, "조직 동시 요청 한도를 초과했습니다.");
+        }
+
+        userState.admitted.increment();
+        if (orgState != null) {
+            orgState.admitted.increment();
+        }
+        return new Permit(userState, orgState);
+    }
+
+    /**
+     * 키별 카운터를 조회합니다.
+     *
+     * @param key 조회할 키 (예: user:1, org:3), null이면 전체
+     */
+    public Map<String, Object> snapshot(String key) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("trackedKeys", states.estimatedSize());
+        if (key != null) {
+            KeyState state = states.getIfPresent(key);
+            result.put(key, state != null ? state.toMap() : null);
+            return result;
+        }
+        List<String> keys = new ArrayList<>(states.asMap().keySet());
+        Collections.sort(keys);
+        Map<String, Object> perKey = new LinkedHashMap<>();
+        for (String k : keys) {
+            KeyState state = states.getIfPresent(k);
+            if (state != null) {
+                perKey.put(k, state.toMap());
+            }
+        }
+        result.put("keys", perKey);
+        return result;
+    }
+
+    private KeyState stateFor(String key, Limits limits) {
+        KeyState state = states.get(key, k -> new KeyState(limits));
+        if (state.limits != limits) {
+            // 역할 변경 등으로 한도가 바뀐 경우 새 상태로 교체
+            state = new KeyState(limits);
+            states.put(key, state);
+        }
+        return state;
+    }
+
+    private static void refund(KeyState userState, KeyState orgState) {
+        userState.refund();
+        if (orgState != null) {
+            orgState.refund();
+        }
+    }
+
+    private ChatRejectedException reject(KeyState state, long waitNanos, String message) {
+        state.rateLimited.increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        return new ChatRejectedException(HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds, message);
+    }
+
+    private ChatRejectedException rejectConcurrency(KeyState state, String message) {
+        state.concurrencyLimited.increment();
+        return new ChatRejectedException(HttpStatus.TOO_MANY_REQUESTS, 1, message);
+    }
+
+    private static Map<String, Limits> parseOverrides(String spec, boolean upperCaseKey) {
+        Map<String, Limits> result = new HashMap<>();
+        if (spec == null || spec.trim().isEmpty()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            String[] keyValue = entry.trim().split(":");
+            String[] values = keyValue.length == 2 ? keyValue[1].split("/") : new String[0];
+            if (values.length != 3) {
+                log.warn("잘못된 요청 한도 설정 무시: {}", entry);
+                continue;
+            }
+            String key = upperCaseKey ? keyValue[0].trim().toUpperCase() : keyValue[0].trim();
+            result.put(key, new Limits(
+                Double.parseDouble(values[0].trim()),
+                Integer.parseInt(values[1].trim()),
+                Integer.parseInt(values[2].trim())));
+        }
+        return result;
+    }
+
+    /**
+     * 키별 한도 (rate 0 이하 또는 maxConcurrent 0 이하이면 해당 제한 없음)
+     */
+    private static final class Limits {
+        private final double ratePerSecond;
+        private final int burst;
+        private final int maxConcurrent;
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        Limits(double ratePerSecond, int burst, int maxConcurrent) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = Math.max(1, burst);
+            this.maxConcurrent = maxConcurrent;
+            this.intervalNanos = ratePerSecond > 0 ? (long) (1_000_000_000L / ratePerSecond) : 0;
+            this.burstNanos = intervalNanos * this.burst;
+        }
+
+        @Override
+        public String toString() {
+            return ratePerSecond + "/s, burst " + burst + ", concurrent " + maxConcurrent;
+        }
+    }
+
+    private static final class KeyState {
+        private final Limits limits;
+        // GCRA: 다음 요청의 이론적 도착 시각 (theoretical arrival time)
+        private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rateLimited = new LongAdder();
+        private final LongAdder concurrencyLimited = new LongAdder();
+
+        KeyState(Limits limits) {
+            this.limits = limits;
+        }
+
+        /**
+         * @return 0이면 허용, 아니면 다시 시도할 수 있을 때까지 남은 나노초
+         */
+        long tryConsume(long now) {
+            if (limits.intervalNanos <= 0) {
+                return 0;
+            }
+            while (true) {
+                long current = tat.get();
+                long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                long next = base + limits.intervalNanos;
+                long allowAt = next - limits.burstNanos;
+                if (allowAt - now > 0) {
+                    return allowAt - now;
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * tryConsume으로 소비한 토큰 하나를 되돌립니다 (이후 다른 한도에서 요청이 거부된 경우).
+         */
+        void refund() {
+            if (limits.intervalNanos > 0) {
+                tat.addAndGet(-limits.intervalNanos);
+            }
+        }
+
+        boolean tryEnter() {
+            if (limits.maxConcurrent <= 0) {
+                inFlight.incrementAndGet();
+                return true;
+            }
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limits.maxConcurrent) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void exit() {
+            inFlight.decrementAndGet();
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("limits", limits.toString());
+            map.put("inFlight", inFlight.get());
+            map.put("admitted", admitted.sum());
+            map.put("rateLimited", rateLimited.sum());
+            map.put("concurrencyLimited", concurrencyLimited.sum());
+            return map;
+        }
+    }
+
+    /**
+     * 확보한 동시 실행 슬롯. 여러 번 release해도 한 번만 반환됩니다.
+     */
+    public static class Permit {
+        static final Permit NOOP = new Permit(null, null);
+
+        private final KeyState userState;
+        private final KeyState orgState;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(KeyState userState, KeyState orgState) {
+            this.userState = userState;
+            this.orgState = orgState;
+        }
+
+        public void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            if (userState != null) {
+                userState.exit();
+            }
+            if (orgState != null) {
+                orgState.exit();
+            }
+        }
+    }
+}
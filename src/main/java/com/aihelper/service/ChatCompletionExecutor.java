@@ -0,0 +1,333 @@
+package com.aihelper.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅 완성 요청의 동시 실행 수를 제한하고 실행 순서를 정하는 컴포넌트
+ * Tomcat 스레드는 요청을 넘기고 바로 반환되며, 작업은 Core API 호출을 시작하고 future를 반환합니다.
+ * 작업 스레드(chat-exec)는 호출을 시작하는 동안만 쓰이고 응답을 기다리며 점유되지 않으므로, 적은 스레드로 max-concurrent개의 호출을 진행합니다.
+ * 단, Core HTTP 호출은 blocking HttpClient라 호출마다 core-io 스레드와 커넥션 하나를 쓰므로,
+ * 실제 동시 Core 호출 수는 max-concurrent와 aihelper.core.api.pool.max-total 중 작은 값으로 제한됩니다.
+ * 대기열이 가득 차면 503(Retry-After)으로 즉시 거부하고, 요청별 deadline을 넘기면 타임아웃 처리합니다.
+ * deadline은 작업 자신(Core API 호출)이 처리하며, 실행기는 deadline + timeout-grace-ms가 지나도 끝나지 않은 요청만 포기합니다.
+ * 응답을 포기해도 호출은 계속 진행되므로, 동시 실행 한도 등의 자원은 onTaskDone 콜백(작업 종료 시점)에서 반납해야 합니다.
+ * 대기 중인 요청은 FIFO가 아니라 조직별 가중 공정 대기열(ChatFairQueue)에서 꺼내 실행합니다.
+ */
+@Component
+@Slf4j
+public class ChatCompletionExecutor {
+
+    @Value("${aihelper.chat.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    // 동시에 진행할 수 있는 Core API 호출 수 (스레드 수가 아님)
+    @Value("${aihelper.chat.async.max-concurrent:32}")
+    private int maxConcurrent;
+
+    // 호출을 시작하는 작업 스레드 수 (응답 대기에는 쓰이지 않음)
+    @Value("${aihelper.chat.async.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${aihelper.chat.async.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${aihelper.chat.async.deadline-ms:60000}")
+    private long deadlineMs;
+
+    @Value("${aihelper.chat.async.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    // 진행 중인 작업이 deadline을 넘겨도 응답을 기다리는 추가 시간 (작업이 스스로 deadline을 처리하지 못할 때의 안전장치)
+    @Value("${aihelper.chat.async.timeout-grace-ms:1000}")
+    private long timeoutGraceMs;
+
+    // 조직이 라운드마다 받는 기본 몫 (추정 토큰)
+    @Value("${aihelper.chat.scheduler.quantum-tokens:1000}")
+    private long quantumTokens;
+
+    // 조직별 가중치 (예: 1:4,2:1), 설정하지 않은 조직은 1
+    @Value("${aihelper.chat.scheduler.org-weights:}")
+    private String orgWeightSpec;
+
+    // N번에 한 번은 batch 요청을 우선 (0이면 interactive가 있으면 항상 우선)
+    @Value("${aihelper.chat.scheduler.batch-every:5}")
+    private int batchEvery;
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DISCARDED = 2;
+
+    private ThreadPoolExecutor executor;
+    private ChatFairQueue fairQueue;
+    // 진행 중인 작업 수 (fairQueue에서 꺼낸 뒤 호출이 끝날 때까지)
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder expiredInQueue = new LongAdder();
+    private final LongAdder abandonedRunning = new LongAdder();
+    // 작업(Core API 호출) 자신이 deadline/호출 타임아웃으로 실패한 횟수
+    private final LongAdder taskTimedOut = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        fairQueue = new ChatFairQueue(queueCapacity, quantumTokens, batchEvery, parseWeights(orgWeightSpec));
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 풀의 대기열에는 fairQueue에서 꺼낸 작업만 들어감 (최대 max-concurrent개)
+        executor = new ThreadPoolExecutor(
+            workerThreads, workerThreads,
+            60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                Thread thread = new Thread(r, "chat-exec-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        log.info("채팅 실행기 초기화 - 비동기: {}, 동시 실행: {}, 작업 스레드: {}, 대기열: {}, deadline: {}ms, 조직 가중치: {}",
+            asyncEnabled, maxConcurrent, workerThreads, queueCapacity, deadlineMs, orgWeightSpec);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 요청 처리 기한을 생성합니다.
+     * 클라이언트가 요청한 시간이 있으면 설정된 최대 deadline 이내에서 사용합니다.
+     *
+     * @param requestedMs 클라이언트가 요청한 처리 시간 (없으면 null)
+     */
+    public CoreDeadline newDeadline(Long requestedMs) {
+        long millis = requestedMs != null && requestedMs > 0 ? Math.min(requestedMs, deadlineMs) : deadlineMs;
+        return CoreDeadline.after(millis);
+    }
+
+    /**
+     * 작업을 제출합니다.
+     *
+     * @param task Core API 호출을 시작하고 결과 future를 반환하는 작업
+     * @param deadline 요청 처리 기한
+     * @return 작업 결과 (deadline 초과 시 TimeoutException으로 완료)
+     * @throws ChatRejectedException 대기열이 가득 찬 경우
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task, CoreDeadline deadline) {
+        return submit(task, deadline, null, ChatFairQueue.Priority.INTERACTIVE, 1, null);
+    }
+
+    /**
+     * 작업을 조직별 공정 대기열을 거쳐 제출합니다.
+     * 동시 실행 슬롯이 나면 작업 스레드에서 task를 실행해 호출을 시작하고, 반환된 future가 끝나면 슬롯을 반납합니다.
+     *
+     * @param task Core API 호출을 시작하고 결과 future를 반환하는 작업 (응답을 기다리며 블록하면 안 됨)
+     * @param deadline 요청 처리 기한
+     * @param orgId 요청 조직 ID (null이면 조직 없음으로 묶음)
+     * @param priority 요청 등급 (interactive/batch)
+     * @param cost 공정 분배에 사용할 비용 (추정 프롬프트 토큰)
+     * @param onTaskDone 작업이 실제로 끝났을 때(또는 실행되지 않고 버려졌을 때) 한 번 호출할 콜백 (없으면 null)
+     *                   반환된 future가 타임아웃으로 먼저 완료되어도 진행 중인 호출이 끝날 때까지 호출되지 않음
+     *                   제출이 거부되어 예외가 발생하면 호출되지 않음
+     * @return 작업 결과 (대기 중 deadline 초과, 또는 deadline + grace 초과 시 TimeoutException으로 완료)
+     * @throws ChatRejectedException 대기열이 가득 찬 경우
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task, CoreDeadline deadline, Long orgId,
+                                           ChatFairQueue.Priority priority, long cost, Runnable onTaskDone) {
+        submitted.increment();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!asyncEnabled) {
+            // 동기 모드: 호출 스레드에서 바로 시작 (대기열/동시 실행 제한 없음)
+            start(task, future, onTaskDone, null);
+            return future;
+        }
+
+        // QUEUED -> RUNNING (작업 실행) 또는 QUEUED -> DISCARDED (대기 중 타임아웃, 실행하지 않음)
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        Runnable runnable = () -> {
+            if (deadline.isExpired()) {
+                if (state.compareAndSet(QUEUED, DISCARDED)) {
+                    expiredInQueue.increment();
+                    future.completeExceptionally(new TimeoutException("대기열에서 deadline 초과"));
+                    runCallback(onTaskDone);
+                }
+                releaseSlot();
+                return;
+            }
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                releaseSlot(); // 대기 중 타임아웃 처리됨 (콜백은 타임아웃 처리 시 호출)
+                return;
+            }
+            start(task, future, onTaskDone, this::releaseSlot);
+        };
+
+        if (!fairQueue.offer(orgId, priority, cost, runnable)) {
+            rejected.increment();
+            log.warn("채팅 실행 대기열 초과 - 대기: {}, 진행 중: {}", fairQueue.size(), running.get());
+            throw new ChatRejectedException(HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds,
+                "요청이 많아 잠시 후 다시 시도해 주세요.");
+        }
+        dispatch();
+
+        // deadline은 작업(Core API 호출)이 처리하고, 실행기는 grace 이후에만 응답을 포기 (타임아웃과 시뮬레이션 응답이 경합하지 않도록)
+        future.orTimeout(deadline.capMillis(deadlineMs) + timeoutGraceMs, TimeUnit.MILLISECONDS).whenComplete((result, ex) -> {
+            if (!(ex instanceof TimeoutException)) {
+                return;
+            }
+            timedOut.increment();
+            if (state.compareAndSet(QUEUED, DISCARDED)) {
+                // 아직 대기 중 - 실행하지 않고 바로 자원 반납
+                expiredInQueue.increment();
+                runCallback(onTaskDone);
+            } else if (state.get() == RUNNING) {
+                // 진행 중 - 응답만 포기하고 자원은 호출이 끝날 때 반납
+                abandonedRunning.increment();
+                log.warn("채팅 작업이 deadline을 넘겨 응답을 포기합니다 (호출은 계속 진행)");
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 작업을 실행해 호출을 시작하고, 호출이 끝나면 결과 전달 -> onTaskDone -> 슬롯 반납 순으로 처리합니다.
+     */
+    private <T> void start(Supplier<CompletableFuture<T>> task, CompletableFuture<T> future,
+                           Runnable onTaskDone, Runnable onFinish) {
+        CompletableFuture<T> call;
+        try {
+            call = task.get();
+        } catch (Throwable t) {
+            call = new CompletableFuture<>();
+            call.completeExceptionally(t);
+        }
+        call.whenComplete((result, ex) -> {
+            try {
+                if (ex != null) {
+                    countTaskTimeout(ex);
+                    future.completeExceptionally(ex);
+                } else {
+                    future.complete(result);
+                }
+            } finally {
+                runCallback(onTaskDone);
+                if (onFinish != null) {
+                    onFinish.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * 동시 실행 슬롯이 남아 있는 동안 fairQueue에서 작업을 꺼내 작업 스레드로 넘깁니다.
+     */
+    private void dispatch() {
+        while (true) {
+            int current = running.get();
+            if (current >= maxConcurrent) {
+                return;
+            }
+            if (!running.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = fairQueue.poll();
+            if (next == null) {
+                running.decrementAndGet();
+                // 슬롯을 잡고 있는 사이 다른 스레드가 넣은 작업이 있으면 다시 시도
+                if (fairQueue.size() == 0) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                executor.execute(next);
+            } catch (RejectedExecutionException e) {
+                // 종료 중 - 호출 스레드에서 바로 처리
+                next.run();
+            }
+        }
+    }
+
+    private void releaseSlot() {
+        running.decrementAndGet();
+        dispatch();
+    }
+
+    private void countTaskTimeout(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        if (cause instanceof TimeoutException) {
+            taskTimedOut.increment();
+        }
+    }
+
+    private static void runCallback(Runnable callback) {
+        if (callback == null) {
+            return;
+        }
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            log.warn("채팅 작업 종료 콜백 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 실행 풀 상태 스냅샷을 반환합니다.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("asyncEnabled", asyncEnabled);
+        result.put("maxConcurrent", maxConcurrent);
+        result.put("workerThreads", workerThreads);
+        result.put("running", running.get());
+        result.put("queued", fairQueue.size());
+        result.put("queueCapacity", queueCapacity);
+        result.put("deadlineMs", deadlineMs);
+        result.put("submitted", submitted.sum());
+        result.put("rejected", rejected.sum());
+        result.put("timedOut", timedOut.sum());
+        result.put("expiredInQueue", expiredInQueue.sum());
+        result.put("abandonedRunning", abandonedRunning.sum());
+        result.put("taskTimedOut", taskTimedOut.sum());
+        result.put("timeoutGraceMs", timeoutGraceMs);
+        result.put("scheduler", fairQueue.snapshot());
+        return result;
+    }
+
+    private static Map<Long, Integer> parseWeights(String spec) {
+        Map<Long, Integer> weights = new HashMap<>();
+        if (spec == null || spec.trim().isEmpty()) {
+            return weights;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                log.warn("잘못된 조직 가중치 설정 무시: {}", entry);
+                continue;
+            }
+            weights.put(Long.parseLong(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
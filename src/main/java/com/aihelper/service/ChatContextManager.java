@@ -0,0 +1,281 @@
+package com.aihelper.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aihelper.model.ChatMessage;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Core API 호출 전 대화 이력을 모델별 토큰 예산에 맞게 줄이는 컴포넌트
+ * system 메시지와 마지막 메시지는 항상 유지하고, 최근 N턴을 예산 안에서 최대한 남깁니다.
+ * 예산을 넘는 오래된 메시지는 버리거나(DROP), 앞부분만 발췌한 요약 system 메시지 하나로 압축합니다(SUMMARIZE).
+ * 요약은 모델 호출 없이 로컬에서 만듭니다.
+ */
+@Component
+@Slf4j
+public class ChatContextManager {
+
+    public enum Policy { DROP, SUMMARIZE }
+
+    private static final String SUMMARY_PREFIX = "[이전 대화 요약]";
+
+    @Value("${aihelper.chat.context.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aihelper.chat.context.default-budget-tokens:3000}")
+    private int defaultBudgetTokens;
+
+    // 모델별 토큰 예산 (예: gpt-3.5-turbo:3000,gpt-4:7000)
+    @Value("${aihelper.chat.context.model-budget-tokens:}")
+    private String modelBudgetSpec;
+
+    @Value("${aihelper.chat.context.chars-per-token:4.0}")
+    private double defaultCharsPerToken;
+
+    // 모델별 영문 글자당 토큰 비율 (예: gpt-4:4.0)
+    @Value("${aihelper.chat.context.model-chars-per-token:}")
+    private String modelCharsPerTokenSpec;
+
+    @Value("${aihelper.chat.context.non-ascii-tokens-per-char:1.0}")
+    private double nonAsciiTokensPerChar;
+
+    @Value("${aihelper.chat.context.keep-recent-turns:10}")
+    private int keepRecentTurns;
+
+    @Value("${aihelper.chat.context.policy:DROP}")
+    private Policy policy;
+
+    @Value("${aihelper.chat.context.summary-max-tokens:300}")
+    private int summaryMaxTokens;
+
+    @Value("${aihelper.chat.context.summary-snippet-chars:100}")
+    private int summarySnippetChars;
+
+    private Map<String, Integer> modelBudgets = new HashMap<>();
+    private Map<String, ChatTokenEstimator> modelEstimators = new HashMap<>();
+    private ChatTokenEstimator defaultEstimator;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder trimmedRequests = new LongAdder();
+    private final LongAdder droppedMessages = new LongAdder();
+    private final LongAdder tokensBefore = new LongAdder();
+    private final LongAdder tokensSaved = new LongAdder();
+    private final Map<String, LongAdder> tokensSavedByModel = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        defaultEstimator = new ChatTokenEstimator(defaultCharsPerToken, nonAsciiTokensPerChar);
+        for (Map.Entry<String, Double> entry : parseModelValues(modelCharsPerTokenSpec).entrySet()) {
+            modelEstimators.put(entry.getKey(), new ChatTokenEstimator(entry.getValue(), nonAsciiTokensPerChar));
+        }
+        for (Map.Entry<String, Double> entry : parseModelValues(modelBudgetSpec).entrySet()) {
+            modelBudgets.put(entry.getKey(), entry.getValue().intValue());
+        }
+        log.info("대화 컨텍스트 관리 초기화 - 사용: {}, 기본 예산: {} 토큰, 모델별: {}, 최근 {}턴 유지, 정책: {}",
+            enabled, defaultBudgetTokens, modelBudgets, keepRecentTurns, policy);
+    }
+
+    /**
+     * 메시지 목록을 모델의 토큰 예산에 맞게 정리합니다.
+     * 예산 안이면 원본 목록을 그대로 반환합니다.
+     *
+     * @param messages 클라이언트가 보낸 메시지 목록
+     * @param model 모델 이름 (null이면 기본 예산)
+     * @return 정리 결과
+     */
+    public Result prepare(List<ChatMessage> messages, String model) {
+        ChatTokenEstimator estimator = estimatorFor(model);
+        int size = messages.size();
+        int[] tokens = new int[size];
+        int total = ChatTokenEstimator.TOKENS_PER_REQUEST;
+        for (int i = 0; i < size; i++) {
+            ChatMessage message = messages.get(i);
+            tokens[i] = estimator.estimateMessage(message.getRole(), message.getText());
+            total += tokens[i];
+        }
+        requests.increment();
+        tokensBefore.add(total);
+
+        int budget = model != null ? modelBudgets.getOrDefault(model, defaultBudgetTokens) : defaultBudgetTokens;
+        if (!enabled || total <= budget) {
+            return new Result(messages, total, total, 0);
+        }
+
+        // 1. system 메시지와 마지막 메시지는 항상 유지
+        boolean[] keep = new boolean[size];
+        int used = ChatTokenEstimator.TOKENS_PER_REQUEST;
+        for (int i = 0; i < size; i++) {
+            if (isSystem(messages.get(i))) {
+                keep[i] = true;
+                used += tokens[i];
+            }
+        }
+        if (!keep[size - 1]) {
+            keep[size - 1] = true;
+            used += tokens[size - 1];
+        }
+
+        // 2. 최근 메시지부터 예산과 최근 N턴(user + assistant) 한도 안에서 유지
+        int maxRecent = keepRecentTurns * 2;
+        int recent = 1;
+        for (int i = size - 2; i >= 0 && recent < maxRecent; i--) {
+            if (keep[i]) {
+                continue;
+            }
+            if (used + tokens[i] > budget) {
+                break;
+            }
+            keep[i] = true;
+            used += tokens[i];
+            recent++;
+        }
+
+        // 3. 남지 못한 오래된 메시지는 버리거나 요약
+        int dropped = 0;
+        int firstDropped = -1;
+        for (int i = 0; i < size; i++) {
+            if (!keep[i]) {
+                dropped++;
+                if (firstDropped < 0) {
+                    firstDropped = i;
+                }
+            }
+        }
+        ChatMessage summary = null;
+        if (policy == Policy.SUMMARIZE && dropped > 0) {
+            int summaryBudget = Math.min(summaryMaxTokens, budget - used - ChatTokenEstimator.TOKENS_PER_MESSAGE);
+            summary = summarize(messages, keep, estimator, summaryBudget);
+            if (summary != null) {
+                used += estimator.estimateMessage(summary.getRole(), summary.getText());
+            }
+        }
+
+        List<ChatMessage> result = new ArrayList<>(size - dropped + 1);
+        for (int i = 0; i < size; i++) {
+            if (i == firstDropped && summary != null) {
+                result.add(summary);
+            }
+            if (keep[i]) {
+                result.add(messages.get(i));
+            }
+        }
+
+        trimmedRequests.increment();
+        droppedMessages.add(dropped);
+        tokensSaved.add(total - used);
+        tokensSavedByModel.computeIfAbsent(model != null ? model : "default", k -> new LongAdder()).add(total - used);
+        log.info("대화 이력 정리 - 모델: {}, 예산: {}, 토큰: {} -> {}, 제외 메시지: {}개",
+            model, budget, total, used, dropped);
+        return new Result(result, total, used, dropped);
+    }
+
+    /**
+     * 모델별 토큰 추정기를 반환합니다 (설정이 없으면 기본 추정기).
+     */
+    public ChatTokenEstimator estimatorFor(String model) {
+        return model != null ? modelEstimators.getOrDefault(model, defaultEstimator) : defaultEstimator;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("policy", policy);
+        result.put("defaultBudgetTokens", defaultBudgetTokens);
+        result.put("modelBudgetTokens", modelBudgets);
+        result.put("keepRecentTurns", keepRecentTurns);
+        result.put("requests", requests.sum());
+        result.put("trimmedRequests", trimmedRequests.sum());
+        result.put("droppedMessages", droppedMessages.sum());
+        result.put("estimatedTokens", tokensBefore.sum());
+        result.put("tokensSaved", tokensSaved.sum());
+        Map<String, Long> byModel = new LinkedHashMap<>();
+        tokensSavedByModel.forEach((model, saved) -> byModel.put(model, saved.sum()));
+        result.put("tokensSavedByModel", byModel);
+        return result;
+    }
+
+    // 제외된 메시지의 앞부분을 발췌해 system 메시지 하나로 만듭니다 (예산 초과 시 중단)
+    private ChatMessage summarize(List<ChatMessage> messages, boolean[] keep, ChatTokenEstimator estimator, int budget) {
+        if (budget <= 0) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder(SUMMARY_PREFIX);
+        int usedTokens = estimator.estimate(SUMMARY_PREFIX);
+        for (int i = 0; i < keep.length; i++) {
+            if (keep[i]) {
+                continue;
+            }
+            ChatMessage message = messages.get(i);
+            String content = message.getText() != null ? message.getText() : "";
+            String snippet = content.length() > summarySnippetChars
+                ? content.substring(0, summarySnippetChars) + "..."
+                : content;
+            String line = "\n" + (message.getRole() != null ? message.getRole() : "user") + ": " + snippet;
+            int lineTokens = estimator.estimate(line);
+            if (usedTokens + lineTokens > budget) {
+                break;
+            }
+            text.append(line);
+            usedTokens += lineTokens;
+        }
+        if (text.length() == SUMMARY_PREFIX.length()) {
+            return null;
+        }
+        return new ChatMessage("system", text.toString());
+    }
+
+    private static boolean isSystem(ChatMessage message) {
+        return "system".equals(message.getRole());
+    }
+
+    private static Map<String, Double> parseModelValues(String spec) {
+        Map<String, Double> result = new HashMap<>();
+        if (spec == null || spec.trim().isEmpty()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            int idx = entry.lastIndexOf(':');
+            if (idx <= 0) {
+                log.warn("잘못된 모델별 설정 무시: {}", entry);
+                continue;
+            }
+            result.put(entry.substring(0, idx).trim(), Double.parseDouble(entry.substring(idx + 1).trim()));
+        }
+        return result;
+    }
+
+    /**
+     * 컨텍스트 정리 결과
+     */
+    @Getter
+    public static class Result {
+        private final List<ChatMessage> messages;
+        private final int originalTokens;
+        private final int finalTokens;
+        private final int droppedMessages;
+
+        Result(List<ChatMessage> messages, int originalTokens, int finalTokens, int droppedMessages) {
+            this.messages = messages;
+            this.originalTokens = originalTokens;
+            this.finalTokens = finalTokens;
+            this.droppedMessages = droppedMessages;
+        }
+
+        public int getTokensSaved() {
+            return originalTokens - finalTokens;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.aihelper.service;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 조직별 가중 공정 대기열 (Deficit Round Robin)
+ * 조직마다 별도 대기열을 두고, 라운드마다 가중치 x quantum 만큼의 토큰(추정 프롬프트 토큰)을 배정해 순서대로 꺼냅니다.
+ * 한 조직이 대량 요청을 넣어도 다른 조직의 요청은 가중치 비율만큼 계속 처리됩니다.
+ * interactive 요청을 batch 요청보다 먼저 꺼내되, batch가 굶지 않도록 batchEvery번에 한 번은 batch를 우선합니다.
+ * 모든 메서드는 this 로 동기화됩니다.
+ */
+public final class ChatFairQueue {
+
+    public enum Priority { INTERACTIVE, BATCH }
+
+    // 조직 ID가 없는 사용자 요청
+    static final long NO_ORG = 0L;
+
+    private final int capacity;
+    private final long quantum;
+    private final int batchEvery;
+    private final Map<Long, Integer> weights;
+
+    private final PriorityClass[] classes = { new PriorityClass(), new PriorityClass() };
+    // 통계는 대기열이 비어도 유지
+    private final Map<Long, OrgStats> stats = new HashMap<>();
+    private int size;
+    private long dispatchCount;
+
+    ChatFairQueue(int capacity, long quantum, int batchEvery, Map<Long, Integer> weights) {
+        this.capacity = capacity;
+        this.quantum = Math.max(1, quantum);
+        this.batchEvery = batchEvery;
+        this.weights = weights;
+    }
+
+    /**
+     * 작업을 조직 대기열에 추가합니다.
+     *
+     * @return 대기열이 가득 차서 추가하지 못했으면 false
+     */
+    synchronized boolean offer(Long orgId, Priority priority, long cost, Runnable task) {
+        if (size >= capacity) {
+            return false;
+        }
+        long key = orgId != null ? orgId : NO_ORG;
+        PriorityClass pc = classes[priority.ordinal()];
+        OrgQueue queue = pc.orgs.get(key);
+        if (queue == null) {
+            queue = new OrgQueue(key, weights.getOrDefault(key, 1));
+            pc.orgs.put(key, queue);
+        }
+        if (queue.entries.isEmpty()) {
+            pc.active.addLast(queue);
+        }
+        queue.entries.addLast(new Entry(task, Math.max(1, cost), System.nanoTime()));
+        size++;
+        stats.computeIfAbsent(key, k -> new OrgStats()).enqueued++;
+        return true;
+    }
+
+    /**
+     * 다음에 실행할 작업을 꺼냅니다.
+     *
+     * @return 작업 (비어 있으면 null)
+     */
+    synchronized Runnable poll() {
+        if (size == 0) {
+            return null;
+        }
+        PriorityClass interactive = classes[Priority.INTERACTIVE.ordinal()];
+        PriorityClass batch = classes[Priority.BATCH.ordinal()];
+        dispatchCount++;
+        boolean preferBatch = batchEvery > 0 && dispatchCount % batchEvery == 0;
+        PriorityClass pc = (interactive.active.isEmpty() || (preferBatch && !batch.active.isEmpty()))
+            ? batch : interactive;
+
+        while (true) {
+            OrgQueue queue = pc.active.peekFirst();
+            Entry head = queue.entries.peekFirst();
+            if (queue.deficit < head.cost) {
+                // 이번 라운드 몫을 받고 뒤로 이동 (cost가 커도 몇 라운드 안에 처리됨)
+                queue.deficit += quantum * queue.weight;
+                pc.active.addLast(pc.active.pollFirst());
+                continue;
+            }
+            queue.entries.pollFirst();
+            queue.deficit -= head.cost;
+            if (queue.entries.isEmpty()) {
+                // 대기열이 비면 남은 몫은 버림 (쉬던 조직이 몫을 쌓아두지 못하도록)
+                queue.deficit = 0;
+                pc.active.pollFirst();
+                pc.orgs.remove(queue.orgId);
+            }
+            size--;
+            OrgStats orgStats = stats.get(queue.orgId);
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueuedAt);
+            orgStats.dispatched++;
+            orgStats.totalWaitMs += waitedMs;
+            orgStats.maxWaitMs = Math.max(orgStats.maxWaitMs, waitedMs);
+            return head.task;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 조직별 대기 수, 대기 시간 통계
+     */
+    synchronized Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queued", size);
+        result.put("capacity", capacity);
+        result.put("quantumTokens", quantum);
+        result.put("batchEvery", batchEvery);
+        result.put("weights", weights);
+        Map<Long, Object> byOrg = new LinkedHashMap<>();
+        stats.forEach((orgId, orgStats) -> {
+            Map<String, Object> org = new LinkedHashMap<>();
+            org.put("weight", weights.getOrDefault(orgId, 1));
+            org.put("queuedInteractive", queued(Priority.INTERACTIVE, orgId));
+            org.put("queuedBatch", queued(Priority.BATCH, orgId));
+            org.put("enqueued", orgStats.enqueued);
+            org.put("dispatched", orgStats.dispatched);
+            org.put("averageWaitMs", orgStats.dispatched == 0 ? 0 : orgStats.totalWaitMs / orgStats.dispatched);
+            org.put("maxWaitMs", orgStats.maxWaitMs);
+            byOrg.put(orgId, org);
+        });
+        result.put("orgs", byOrg);
+        return result;
+    }
+
+    private int queued(Priority priority, Long orgId) {
+        OrgQueue queue = classes[priority.ordinal()].orgs.get(orgId);
+        return queue != null ? queue.entries.size() : 0;
+    }
+
+    private static final class PriorityClass {
+        // 대기 중인 요청이 있는 조직 (라운드 로빈 순서)
+        private final ArrayDeque<OrgQueue> active = new ArrayDeque<>();
+        private final Map<Long, OrgQueue> orgs = new HashMap<>();
+    }
+
+    private static final class OrgQueue {
+        private final long orgId;
+        private final int weight;
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        private long deficit;
+
+        OrgQueue(long orgId, int weight) {
+            this.orgId = orgId;
+            this.weight = Math.max(1, weight);
+        }
+    }
+
+    private static final class Entry {
+        private final Runnable task;
+        private final long cost;
+        private final long enqueuedAt;
+
+        Entry(Runnable task, long cost, long enqueuedAt) {
+            this.task = task;
+            this.cost = cost;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private static final class OrgStats {
+        private long enqueued;
+        private long dispatched;
+        private long totalWaitMs;
+        private long maxWaitMs;
+    }
+}
@@ -0,0 +1,27 @@
+package com.aihelper.service;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 채팅 요청이 처리 전에 거부되었을 때 발생하는 예외
+ * 컨트롤러는 status와 Retry-After 값을 그대로 응답에 반영합니다.
+ */
+public class ChatRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public ChatRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,108 @@
+package com.aihelper.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import com.aihelper.model.ChatMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 채팅 요청의 정규화된 해시를 계산하는 유틸리티
+ * 필드 순서와 공백에 관계없이 같은 내용이면 같은 해시를 반환합니다.
+ */
+public final class ChatRequestHasher {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ChatRequestHasher() {
+    }
+
+    /**
+     * messages + model (+ 선택적 scope)의 SHA-256 해시를 계산합니다.
+     *
+     * @param messages 채팅 메시지 목록
+     * @param model 모델 이름
+     * @param scope 키 범위 (예: 조직 ID, 없으면 null)
+     * @return 16진수 해시 문자열
+     */
+    public static String hash(List<ChatMessage> messages, String model, Long scope) {
+        return hash(messages, model, scope != null ? scope.toString() : null);
+    }
+
+    /**
+     * messages + model (+ 선택적 scope)의 SHA-256 해시를 계산합니다.
+     *
+     * @param messages 채팅 메시지 목록
+     * @param model 모델 이름
+     * @param scope 키 범위 문자열 (예: 조직 ID, 사용자 범위 "u" + 사용자 ID, 없으면 null)
+     * @return 16진수 해시 문자열
+     */
+    public static String hash(List<ChatMessage> messages, String model, String scope) {
+        MessageDigest digest = newDigest();
+        updateString(digest, model != null ? model : "");
+        updateString(digest, scope != null ? scope : "");
+        digest.update((byte) '[');
+        for (ChatMessage message : messages) {
+            digest.update((byte) '{');
+            updateNullable(digest, message.getRole());
+            updateContent(digest, message.getContent());
+            updateNullable(digest, message.getName());
+            digest.update((byte) '}');
+        }
+        digest.update((byte) ']');
+        return toHex(digest.digest());
+    }
+
+    // 문자열 content는 기존과 같은 키, 배열(멀티모달) content는 JSON 문자열로 구분해 반영
+    private static void updateContent(MessageDigest digest, JsonNode content) {
+        if (content == null || content.isNull()) {
+            digest.update((byte) '0');
+            return;
+        }
+        if (content.isTextual()) {
+            updateNullable(digest, content.asText());
+            return;
+        }
+        digest.update((byte) 'j');
+        updateString(digest, content.toString());
+    }
+
+    private static void updateNullable(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) '0');
+            return;
+        }
+        digest.update((byte) 's');
+        updateString(digest, value);
+    }
+
+    // 길이를 앞에 붙여 문자열 경계가 모호해지지 않도록 함
+    private static void updateString(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+        digest.update(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256을 사용할 수 없습니다.", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,217 @@
+package com.aihelper.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aihelper.model.ChatMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅 완성 응답 캐시 (정확히 일치하는 요청만 대상)
+ * 키는 messages + model (+ 조직 또는 사용자 범위)의 정규화 해시이며, 응답은 직렬화된 바이트로 보관합니다.
+ * 전체 크기는 바이트 기준으로 제한되고(W-TinyLFU), 모델별로 TTL을 다르게 줄 수 있습니다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatResponseCache {
+
+    // 엔트리당 키/객체 헤더 등 부가 비용 추정치
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${aihelper.chat.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${aihelper.chat.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${aihelper.chat.cache.default-ttl-seconds:600}")
+    private long defaultTtlSeconds;
+
+    // 모델별 TTL (예: gpt-4:300,gpt-3.5-turbo:1800)
+    @Value("${aihelper.chat.cache.model-ttl-seconds:}")
+    private String modelTtlSpec;
+
+    @Value("${aihelper.chat.cache.scope-per-org:true}")
+    private boolean scopePerOrg;
+
+    private Map<String, Long> modelTtlNanos = Collections.emptyMap();
+    private Cache<String, CachedResponse> cache;
+    private final LongAdder bypassed = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        modelTtlNanos = parseModelTtls(modelTtlSpec);
+        final long defaultTtlNanos = TimeUnit.SECONDS.toNanos(defaultTtlSeconds);
+
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, CachedResponse value) -> value.weight(key))
+            .expireAfter(new Expiry<String, CachedResponse>() {
+                @Override
+                public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                    return modelTtlNanos.getOrDefault(value.model, defaultTtlNanos);
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, value, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
+        log.info("채팅 응답 캐시 초기화 - 사용: {}, 최대 크기: {}바이트, 기본 TTL: {}초, 모델별 TTL: {}",
+            enabled, maxBytes, defaultTtlSeconds, modelTtlSpec);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 캐시 키를 계산합니다.
+     *
+     * @param messages 채팅 메시지 배열
+     * @param model 모델 이름
+     * @param orgId 조직 ID (scope-per-org 설정 시 키에 포함)
+     * @param userId 사용자 ID (scope-per-org 설정 시 조직이 없는 사용자는 사용자별 범위)
+     * @return 캐시 키
+     */
+    public String keyOf(List<ChatMessage> messages, String model, Long orgId, Long userId) {
+        return ChatRequestHasher.hash(messages, model, scopeOf(orgId, userId));
+    }
+
+    // 조직이 없는 사용자끼리 빈 범위를 공유하지 않도록 사용자별 범위로 대체 (조직 ID와 겹치지 않게 "u" 접두사)
+    private String scopeOf(Long orgId, Long userId) {
+        if (!scopePerOrg) {
+            return null;
+        }
+        if (orgId != null) {
+            return orgId.toString();
+        }
+        return userId != null ? "u" + userId : null;
+    }
+
+    /**
+     * 캐시된 응답을 조회합니다. 호출자가 수정해도 안전하도록 매번 새 트리를 반환합니다.
+     *
+     * @return 캐시된 응답, 없으면 null
+     */
+    public JsonNode get(String key) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(cached.body);
+        } catch (IOException e) {
+            log.warn("캐시 응답 복원 실패, 엔트리 제거: {}", e.getMessage());
+            cache.invalidate(key);
+            return null;
+        }
+    }
+
+    /**
+     * Core API 응답을 캐시에 저장합니다. 오류 응답은 저장하지 않습니다.
+     */
+    public void put(String key, String model, JsonNode response) {
+        if (response == null || response.has("error")) {
+            return;
+        }
+        try {
+            cache.put(key, new CachedResponse(model, objectMapper.writeValueAsBytes(response)));
+        } catch (IOException e) {
+            log.warn("응답 캐시 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 요청이 캐시를 우회했음을 기록합니다.
+     */
+    public void recordBypass() {
+        bypassed.increment();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 캐시 통계 스냅샷을 반환합니다.
+     */
+    public Map<String, Object> snapshot() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("entries", cache.estimatedSize());
+        result.put("weightedBytes", cache.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        result.put("maxBytes", maxBytes);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("evictedBytes", stats.evictionWeight());
+        result.put("bypassed", bypassed.sum());
+        return result;
+    }
+
+    private static Map<String, Long> parseModelTtls(String spec) {
+        Map<String, Long> result = new HashMap<>();
+        if (spec == null || spec.trim().isEmpty()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            int idx = entry.lastIndexOf(':');
+            if (idx <= 0) {
+                log.warn("잘못된 모델 TTL 설정 무시: {}", entry);
+                continue;
+            }
+            String model = entry.substring(0, idx).trim();
+            long seconds = Long.parseLong(entry.substring(idx + 1).trim());
+            result.put(model, TimeUnit.SECONDS.toNanos(seconds));
+        }
+        return result;
+    }
+
+    private static final class CachedResponse {
+        private final String model;
+        private final byte[] body;
+
+        CachedResponse(String model, byte[] body) {
+            this.model = model;
+            this.body = body;
+        }
+
+        int weight(String key) {
+            return body.length + key.length() * 2 + ENTRY_OVERHEAD_BYTES;
+        }
+    }
+}
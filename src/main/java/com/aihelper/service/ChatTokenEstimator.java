@@ -0,0 +1,68 @@
+package com.aihelper.service;
+
+/**
+ * 로컬 토큰 수 추정기
+ * 정규식이나 토크나이저 없이 문자열을 한 번만 훑어 토큰 수를 근사합니다 (객체 할당 없음).
+ * - 영문/숫자 연속 구간: 구간 길이 / charsPerToken (올림)
+ * - 문장 부호: 1글자당 1토큰
+ * - 한글, 한자 등 비 ASCII 문자: 1글자당 nonAsciiTokensPerChar 토큰
+ * - 공백: 다음 단어에 포함되는 것으로 보고 세지 않음
+ */
+public final class ChatTokenEstimator {
+
+    // 메시지 하나당 역할/구분자 토큰
+    public static final int TOKENS_PER_MESSAGE = 4;
+    // 응답 시작 토큰
+    public static final int TOKENS_PER_REQUEST = 3;
+
+    private final double charsPerToken;
+    private final double nonAsciiTokensPerChar;
+
+    public ChatTokenEstimator(double charsPerToken, double nonAsciiTokensPerChar) {
+        this.charsPerToken = charsPerToken > 0 ? charsPerToken : 4.0;
+        this.nonAsciiTokensPerChar = nonAsciiTokensPerChar > 0 ? nonAsciiTokensPerChar : 1.0;
+    }
+
+    /**
+     * 문자열의 토큰 수를 추정합니다.
+     */
+    public int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int punctuation = 0;
+        int nonAscii = 0;
+        int wordTokens = 0;
+        int run = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                    run++;
+                    continue;
+                }
+                if (c != ' ' && c != '\n' && c != '\t' && c != '\r') {
+                    punctuation++;
+                }
+            } else if (!Character.isLowSurrogate(c)) {
+                nonAscii++;
+            }
+            if (run > 0) {
+                wordTokens += (int) Math.ceil(run / charsPerToken);
+                run = 0;
+            }
+        }
+        if (run > 0) {
+            wordTokens += (int) Math.ceil(run / charsPerToken);
+        }
+        int tokens = wordTokens + punctuation + (int) Math.ceil(nonAscii * nonAsciiTokensPerChar);
+        return Math.max(1, tokens);
+    }
+
+    /**
+     * 메시지 하나(role + content)의 토큰 수를 추정합니다.
+     */
+    public int estimateMessage(String role, String content) {
+        return TOKENS_PER_MESSAGE + estimate(role) + estimate(content);
+    }
+}
@@ -0,0 +1,436 @@
+package com.aihelper.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aihelper.mapper.ChatTranscriptMapper;
+import com.aihelper.model.ChatMessage;
+import com.aihelper.model.ChatMessageRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채팅 대화 기록 write-behind 저장기
+ * 요청 처리 스레드는 메시지를 제한된 크기의 큐에 넣기만 하고, 전용 스레드가 크기/시간 기준으로 모아
+ * JDBC 배치 INSERT로 저장합니다.
+ * 큐가 가득 차거나 DB 저장에 실패한 메시지는 로컬 spool 파일(JSON lines)에 기록했다가 DB가 복구되면 다시 저장합니다.
+ * spool 재처리 중 실패하면 파일 전체를 다시 시도하지만, 메시지마다 고유 키(message_key)가 있어
+ * 이미 저장된 메시지는 다시 저장되지 않습니다.
+ */
+@Component
+@Slf4j
+public class ChatTranscriptWriter {
+
+    public enum Backpressure { SPOOL, DROP, BLOCK }
+
+    private static final String SPOOL_PREFIX = "transcript-";
+    private static final String SPOOL_SUFFIX = ".jsonl";
+    // 재처리 중인 spool 파일 (실패하거나 재처리 도중 종료되면 다음 주기에 이 파일부터 다시 처리)
+    private static final String REPLAY_SUFFIX = ".replay";
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final ObjectMapper objectMapper;
+
+    @Value("${aihelper.chat.transcript.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aihelper.chat.transcript.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${aihelper.chat.transcript.batch-size:200}")
+    private int batchSize;
+
+    @Value("${aihelper.chat.transcript.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    // 큐가 가득 찼을 때: SPOOL(파일에 기록), DROP(버림), BLOCK(잠시 대기 후 파일에 기록)
+    @Value("${aihelper.chat.transcript.backpressure:SPOOL}")
+    private Backpressure backpressure;
+
+    @Value("${aihelper.chat.transcript.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+
+    @Value("${aihelper.chat.transcript.spool-dir:./data/transcript-spool}")
+    private String spoolDir;
+
+    @Value("${aihelper.chat.transcript.spool-replay-interval-ms:30000}")
+    private long spoolReplayIntervalMs;
+
+    @Value("${aihelper.chat.transcript.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<ChatMessageRecord> queue;
+    private Path spoolPath;
+    private Thread flusher;
+    private volatile boolean running;
+    private long lastReplayAttempt;
+    private final Object spoolLock = new Object();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder spooled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile long lastFlushMillis;
+    private final AtomicLong maxBatchSize = new AtomicLong();
+
+    public ChatTranscriptWriter(SqlSessionFactory sqlSessionFactory, ObjectMapper objectMapper) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        spoolPath = Paths.get(spoolDir);
+        Files.createDirectories(spoolPath);
+        running = true;
+        flusher = new Thread(this::runFlusher, "chat-transcript-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("대화 기록 저장기 초기화 - 사용: {}, 큐: {}, 배치: {}건/{}ms, 큐 초과 시: {}, spool: {}",
+            enabled, queueCapacity, batchSize, flushIntervalMs, backpressure, spoolPath.toAbsolutePath());
+    }
+
+    /**
+     * 남은 메시지를 모두 저장하고 종료합니다. 제한 시간 안에 저장하지 못한 메시지는 spool 파일에 기록합니다.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(shutdownTimeoutMs);
+        List<ChatMessageRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.warn("종료 시 저장하지 못한 대화 기록 {}건을 spool 파일에 기록합니다.", remaining.size());
+            spool(remaining);
+        }
+        log.info("대화 기록 저장기 종료 - 저장: {}건, spool: {}건", persisted.sum(), spooled.sum());
+    }
+
+    /**
+     * 완료된 대화 한 턴(마지막 사용자 메시지 + 응답)을 저장 대기열에 넣습니다.
+     * 오류 응답이나 시뮬레이션 응답은 사용자 메시지만 저장합니다.
+     *
+     * @param conversationId 대화 ID (세션 ID 또는 요청별 ID)
+     * @param userId 사용자 ID
+     * @param orgId 조직 ID
+     * @param model 모델 이름
+     * @param messages Core API로 보낸 메시지 목록
+     * @param response Core API 응답
+     */
+    public void recordTurn(String conversationId, Long userId, Long orgId, String model,
+                           List<ChatMessage> messages, JsonNode response) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<ChatMessageRecord> records = new ArrayList<>(2);
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if ("user".equals(message.getRole())) {
+                records.add(new ChatMessageRecord(UUID.randomUUID().toString(), conversationId, userId, orgId, "user",
+                    message.getContentString() != null ? message.getContentString() : "", model, null, null, null, now));
+                break;
+            }
+        }
+        String responseId = response.path("id").asText(null);
+        JsonNode content = response.path("choices").path(0).path("message").path("content");
+        if (!response.has("error") && content.isTextual() && (responseId == null || !responseId.startsWith("sim_"))) {
+            JsonNode usage = response.path("usage");
+            records.add(new ChatMessageRecord(UUID.randomUUID().toString(), conversationId, userId, orgId,
+                "assistant", content.asText(),
+                model, responseId,
+                usage.has("prompt_tokens") ? usage.get("prompt_tokens").asInt() : null,
+                usage.has("completion_tokens") ? usage.get("completion_tokens").asInt() : null,
+                now));
+        }
+        record(records);
+    }
+
+    /**
+     * 저장할 메시지를 큐에 넣습니다. 요청 처리 스레드에서 DB를 기다리지 않습니다.
+     */
+    public void record(List<ChatMessageRecord> messages) {
+        if (!enabled || messages.isEmpty()) {
+            return;
+        }
+        List<ChatMessageRecord> overflow = null;
+        for (ChatMessageRecord message : messages) {
+            if (offer(message)) {
+                enqueued.increment();
+                continue;
+            }
+            if (backpressure == Backpressure.DROP) {
+                dropped.increment();
+                continue;
+            }
+            if (overflow == null) {
+                overflow = new ArrayList<>();
+            }
+            overflow.add(message);
+        }
+        if (overflow != null) {
+            spool(overflow);
+        }
+    }
+
+    private boolean offer(ChatMessageRecord message) {
+        if (queue.offer(message)) {
+            return true;
+        }
+        if (backpressure != Backpressure.BLOCK) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            return queue.offer(message, blockTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            blockedNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void runFlusher() {
+        List<ChatMessageRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                // 배치가 차거나 flush 간격이 지날 때까지 모음
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    ChatMessageRecord first = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (first == null) {
+                        break;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // 종료 요청 - 큐에 남은 메시지를 모두 저장한 뒤 종료
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                if (!flush(batch)) {
+                    spool(batch);
+                }
+                batch.clear();
+            } else if (running) {
+                replaySpool();
+            }
+        }
+    }
+
+    // 대화 upsert와 메시지 insert를 각각 하나의 JDBC 배치로 실행
+    private boolean flush(List<ChatMessageRecord> batch) {
+        long start = System.nanoTime();
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            ChatTranscriptMapper mapper = session.getMapper(ChatTranscriptMapper.class);
+            Map<String, ChatMessageRecord> conversations = new LinkedHashMap<>();
+            for (ChatMessageRecord message : batch) {
+                conversations.putIfAbsent(message.getConversationId(), message);
+            }
+            for (ChatMessageRecord conversation : conversations.values()) {
+                mapper.upsertConversation(conversation);
+            }
+            for (ChatMessageRecord message : batch) {
+                mapper.insertMessage(message);
+            }
+            session.flushStatements();
+            session.commit();
+        } catch (Exception e) {
+            failedBatches.increment();
+            log.warn("대화 기록 배치 저장 실패 ({}건): {}", batch.size(), e.getMessage());
+            return false;
+        }
+        long elapsed = System.nanoTime() - start;
+        persisted.add(batch.size());
+        batches.increment();
+        flushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+        lastBatchSize = batch.size();
+        lastFlushMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+        return true;
+    }
+
+    private void spool(List<ChatMessageRecord> messages) {
+        synchronized (spoolLock) {
+            Path file = spoolPath.resolve(SPOOL_PREFIX + System.currentTimeMillis() / 60_000 + SPOOL_SUFFIX);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (ChatMessageRecord message : messages) {
+                    writer.write(objectMapper.writeValueAsString(message));
+                    writer.newLine();
+                }
+                spooled.add(messages.size());
+            } catch (IOException e) {
+                dropped.add(messages.size());
+                log.error("대화 기록 spool 저장 실패 - {}건 유실: {}", messages.size(), e.getMessage());
+            }
+        }
+    }
+
+    // 큐가 한가할 때 spool 파일을 오래된 것부터 다시 저장 (실패하면 다음 주기에 재시도)
+    private void replaySpool() {
+        long now = System.currentTimeMillis();
+        if (now - lastReplayAttempt < spoolReplayIntervalMs) {
+            return;
+        }
+        lastReplayAttempt = now;
+        for (Path file : listSpoolFiles()) {
+            try {
+                Path replaying = file;
+                if (file.getFileName().toString().endsWith(SPOOL_SUFFIX)) {
+                    // 재처리 중에 새 메시지가 추가되지 않도록 고유한 이름으로 옮김
+                    // (같은 분에 새 spool 파일이 생겨도 충돌하지 않으며, 실패해도 되돌리지 않고 그대로 재시도)
+                    replaying = file.resolveSibling(file.getFileName() + "." + System.nanoTime() + REPLAY_SUFFIX);
+                    synchronized (spoolLock) {
+                        Files.move(file, replaying);
+                    }
+                }
+                if (!replayFile(replaying)) {
+                    return;
+                }
+                Files.delete(replaying);
+            } catch (IOException e) {
+                log.warn("대화 기록 spool 재처리 실패: {} ({})", file, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private boolean replayFile(Path file) throws IOException {
+        List<ChatMessageRecord> batch = new ArrayList<>(batchSize);
+        String originalName = originalSpoolName(file);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                ChatMessageRecord message;
+                try {
+                    message = objectMapper.readValue(line, ChatMessageRecord.class);
+                } catch (JsonProcessingException e) {
+                    // 기록 도중 종료되어 잘린 줄 등은 건너뜀 (파일 전체가 계속 재처리되지 않도록)
+                    log.warn("대화 기록 spool 줄을 읽을 수 없어 건너뜀: {}:{} ({})", file.getFileName(), lineNumber, e.getMessage());
+                    continue;
+                }
+                if (message.getMessageKey() == null) {
+                    // 키가 없던 이전 형식: 원래 파일 이름과 줄 번호로 고정 키를 만들어 재처리해도 같은 키가 되도록 함
+                    message.setMessageKey(UUID.nameUUIDFromBytes(
+                        (originalName + ":" + lineNumber).getBytes(StandardCharsets.UTF_8)).toString());
+                }
+                batch.add(message);
+                if (batch.size() >= batchSize) {
+                    if (!flush(batch)) {
+                        return false;
+                    }
+                    replayed.add(batch.size());
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            if (!flush(batch)) {
+                return false;
+            }
+            replayed.add(batch.size());
+        }
+        log.info("대화 기록 spool 파일 재처리 완료: {}", file.getFileName());
+        return true;
+    }
+
+    // 재처리용으로 옮기기 전의 spool 파일 이름 (transcript-분.jsonl)
+    private static String originalSpoolName(Path file) {
+        String name = file.getFileName().toString();
+        int end = name.indexOf(SPOOL_SUFFIX);
+        return end >= 0 ? name.substring(0, end + SPOOL_SUFFIX.length()) : name;
+    }
+
+    // 대기 중인 spool 파일과 재처리가 끝나지 않은 파일
+    private List<Path> listSpoolFiles() {
+        synchronized (spoolLock) {
+            try (Stream<Path> files = Files.list(spoolPath)) {
+                return files
+                    .filter(p -> {
+                        String name = p.getFileName().toString();
+                        return name.startsWith(SPOOL_PREFIX)
+                            && (name.endsWith(SPOOL_SUFFIX) || name.endsWith(REPLAY_SUFFIX));
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+            } catch (IOException e) {
+                return new ArrayList<>();
+            }
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        long batchCount = batches.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("backpressure", backpressure);
+        result.put("queueDepth", queue.size());
+        result.put("queueCapacity", queueCapacity);
+        result.put("enqueued", enqueued.sum());
+        result.put("persisted", persisted.sum());
+        result.put("batches", batchCount);
+        result.put("failedBatches", failedBatches.sum());
+        result.put("lastBatchSize", lastBatchSize);
+        result.put("maxBatchSize", maxBatchSize.get());
+        result.put("avgBatchSize", batchCount == 0 ? 0 : persisted.sum() / batchCount);
+        result.put("lastFlushMs", lastFlushMillis);
+        result.put("avgFlushMs", batchCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(flushNanos.sum() / batchCount));
+        result.put("maxFlushMs", TimeUnit.NANOSECONDS.toMillis(maxFlushNanos.get()));
+        result.put("spooled", spooled.sum());
+        result.put("replayed", replayed.sum());
+        result.put("spoolFiles", listSpoolFiles().size());
+        result.put("dropped", dropped.sum());
+        result.put("blockedMs", TimeUnit.NANOSECONDS.toMillis(blockedNanos.sum()));
+        return result;
+    }
+}
@@ -0,0 +1,315 @@
+package com.aihelper.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aihelper.mapper.UsageMapper;
+import com.aihelper.model.UsageRecord;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 토큰 사용량 집계
+ * 요청마다 DB 행을 갱신하지 않고 (날짜, 사용자, 조직, 모델) 키별 LongAdder(스트라이프 카운터)에 누적한 뒤,
+ * 주기적으로 증가분만 chat_usage 테이블에 JDBC 배치로 더합니다.
+ *
+ * 장애 시 동작:
+ * - 증가분은 LongAdder.sumThenReset으로 가져오므로 flush 중 들어온 사용량은 다음 주기로 넘어가며 유실되지 않습니다.
+ * - DB 저장에 실패한 증가분은 카운터에 다시 더해 다음 주기에 재시도합니다.
+ * - 정상 종료 시 마지막 flush를 수행합니다.
+ * - 프로세스가 비정상 종료되면 마지막 flush 이후의 사용량(최대 flush 간격만큼, DB 장애 중이면 그 기간 전체)이 유실됩니다.
+ */
+@Component
+@Slf4j
+public class ChatUsageAccounting {
+
+    private static final String DEFAULT_MODEL = "gpt-3.5-turbo";
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final UsageMapper usageMapper;
+
+    @Value("${aihelper.chat.usage.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aihelper.chat.usage.flush-interval-ms:10000}")
+    private long flushIntervalMs;
+
+    private final ConcurrentHashMap<UsageKey, Counters> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+    // DB에 저장 중인 증가분 (조회 시 합산해 저장 도중 값이 비지 않도록 함)
+    private volatile List<UsageRecord> flushing = Collections.emptyList();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private volatile long lastFlushMillis;
+    private volatile long lastFlushAt;
+
+    public ChatUsageAccounting(SqlSessionFactory sqlSessionFactory, UsageMapper usageMapper) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.usageMapper = usageMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-usage-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("토큰 사용량 집계 초기화 - 사용: {}, flush 간격: {}ms", enabled, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    /**
+     * Core API 응답의 usage 블록을 누적합니다. 시뮬레이션 응답은 제외합니다.
+     *
+     * @param userId 사용자 ID
+     * @param orgId 조직 ID
+     * @param model 요청 모델 (null이면 응답의 model 또는 기본 모델)
+     * @param response Core API 응답
+     */
+    public void record(Long userId, Long orgId, String model, JsonNode response) {
+        JsonNode usage = response.path("usage");
+        if (!usage.isObject() || response.path("id").asText("").startsWith("sim_")) {
+            return;
+        }
+        String resolvedModel = model != null ? model : response.path("model").asText(DEFAULT_MODEL);
+        record(userId, orgId, resolvedModel,
+            usage.path("prompt_tokens").asLong(0), usage.path("completion_tokens").asLong(0));
+    }
+
+    /**
+     * 사용량을 누적합니다 (lock 없음).
+     */
+    public void record(Long userId, Long orgId, String model, long promptTokens, long completionTokens) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        UsageKey key = new UsageKey(LocalDate.now(), userId, orgId != null ? orgId : 0L,
+            model != null ? model : DEFAULT_MODEL);
+        Counters counters = pending.computeIfAbsent(key, k -> new Counters());
+        counters.requests.increment();
+        counters.promptTokens.add(Math.max(0, promptTokens));
+        counters.completionTokens.add(Math.max(0, completionTokens));
+        recorded.increment();
+    }
+
+    /**
+     * 누적된 증가분을 DB에 저장합니다.
+     */
+    public synchronized void flush() {
+        List<UsageRecord> deltas = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<UsageKey, Counters> entry : pending.entrySet()) {
+            UsageKey key = entry.getKey();
+            Counters counters = entry.getValue();
+            long requests = counters.requests.sumThenReset();
+            long prompt = counters.promptTokens.sumThenReset();
+            long completion = counters.completionTokens.sumThenReset();
+            if (requests == 0 && prompt == 0 && completion == 0) {
+                // 이틀 이상 지난 빈 카운터는 제거 (그 날짜로 새로 누적될 수 없음)
+                if (key.date.isBefore(today.minusDays(1))) {
+                    pending.remove(key, counters);
+                }
+                continue;
+            }
+            deltas.add(new UsageRecord(key.date, key.userId, key.orgId, key.model, requests, prompt, completion));
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        flushing = deltas;
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            UsageMapper mapper = session.getMapper(UsageMapper.class);
+            for (UsageRecord delta : deltas) {
+                mapper.addUsage(delta);
+            }
+            session.flushStatements();
+            session.commit();
+        } catch (Exception e) {
+            flushing = Collections.emptyList();
+            // 저장 실패 - 증가분을 되돌려 다음 주기에 재시도
+            failedFlushes.increment();
+            for (UsageRecord delta : deltas) {
+                UsageKey key = new UsageKey(delta.getUsageDate(), delta.getUserId(), delta.getOrgId(), delta.getModel());
+                Counters counters = pending.computeIfAbsent(key, k -> new Counters());
+                counters.requests.add(delta.getRequests());
+                counters.promptTokens.add(delta.getPromptTokens());
+                counters.completionTokens.add(delta.getCompletionTokens());
+            }
+            log.warn("토큰 사용량 저장 실패 ({}건, 다음 주기에 재시도): {}", deltas.size(), e.getMessage());
+            return;
+        }
+        flushing = Collections.emptyList();
+        flushes.increment();
+        flushedRows.add(deltas.size());
+        lastFlushMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastFlushAt = System.currentTimeMillis();
+        log.debug("토큰 사용량 저장 완료 - {}건, {}ms", deltas.size(), lastFlushMillis);
+    }
+
+    /**
+     * 사용자 사용량 합계 (DB 저장분 + 아직 저장되지 않은 증가분)
+     */
+    public Map<String, Object> totalsForUser(Long userId, LocalDate from, LocalDate to) {
+        List<UsageRecord> stored = usageMapper.sumByUser(userId, from, to);
+        return merge(stored, key -> key.userId == userId.longValue(), from, to);
+    }
+
+    /**
+     * 조직 사용량 합계 (DB 저장분 + 아직 저장되지 않은 증가분)
+     */
+    public Map<String, Object> totalsForOrg(Long orgId, LocalDate from, LocalDate to) {
+        List<UsageRecord> stored = usageMapper.sumByOrg(orgId, from, to);
+        return merge(stored, key -> key.orgId == orgId.longValue(), from, to);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("flushIntervalMs", flushIntervalMs);
+        result.put("pendingKeys", pending.size());
+        result.put("recorded", recorded.sum());
+        result.put("flushes", flushes.sum());
+        result.put("failedFlushes", failedFlushes.sum());
+        result.put("flushedRows", flushedRows.sum());
+        result.put("lastFlushMs", lastFlushMillis);
+        result.put("lastFlushAt", lastFlushAt);
+        return result;
+    }
+
+    private Map<String, Object> merge(List<UsageRecord> stored, Predicate<UsageKey> filter,
+                                      LocalDate from, LocalDate to) {
+        Map<String, long[]> byModel = new LinkedHashMap<>();
+        for (UsageRecord record : stored) {
+            long[] totals = byModel.computeIfAbsent(record.getModel(), k -> new long[4]);
+            totals[0] += record.getRequests();
+            totals[1] += record.getPromptTokens();
+            totals[2] += record.getCompletionTokens();
+        }
+        for (UsageRecord delta : flushing) {
+            UsageKey key = new UsageKey(delta.getUsageDate(), delta.getUserId(), delta.getOrgId(), delta.getModel());
+            if (!filter.test(key) || key.date.isBefore(from) || key.date.isAfter(to)) {
+                continue;
+            }
+            long[] totals = byModel.computeIfAbsent(key.model, k -> new long[4]);
+            totals[0] += delta.getRequests();
+            totals[1] += delta.getPromptTokens();
+            totals[2] += delta.getCompletionTokens();
+            totals[3] += delta.getRequests();
+        }
+        for (Map.Entry<UsageKey, Counters> entry : pending.entrySet()) {
+            UsageKey key = entry.getKey();
+            if (!filter.test(key) || key.date.isBefore(from) || key.date.isAfter(to)) {
+                continue;
+            }
+            Counters counters = entry.getValue();
+            long[] totals = byModel.computeIfAbsent(key.model, k -> new long[4]);
+            totals[0] += counters.requests.sum();
+            totals[1] += counters.promptTokens.sum();
+            totals[2] += counters.completionTokens.sum();
+            totals[3] += counters.requests.sum();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        long requests = 0;
+        long prompt = 0;
+        long completion = 0;
+        long pendingRequests = 0;
+        Map<String, Object> models = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : byModel.entrySet()) {
+            long[] totals = entry.getValue();
+            Map<String, Object> model = new LinkedHashMap<>();
+            model.put("requests", totals[0]);
+            model.put("promptTokens", totals[1]);
+            model.put("completionTokens", totals[2]);
+            model.put("totalTokens", totals[1] + totals[2]);
+            models.put(entry.getKey(), model);
+            requests += totals[0];
+            prompt += totals[1];
+            completion += totals[2];
+            pendingRequests += totals[3];
+        }
+        result.put("requests", requests);
+        result.put("promptTokens", prompt);
+        result.put("completionTokens", completion);
+        result.put("totalTokens", prompt + completion);
+        result.put("pendingRequests", pendingRequests);
+        result.put("models", models);
+        return result;
+    }
+
+    private static final class UsageKey {
+        private final LocalDate date;
+        private final long userId;
+        private final long orgId;
+        private final String model;
+        private final int hash;
+
+        UsageKey(LocalDate date, long userId, long orgId, String model) {
+            this.date = date;
+            this.userId = userId;
+            this.orgId = orgId;
+            this.model = model;
+            this.hash = Objects.hash(date, userId, orgId, model);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UsageKey)) {
+                return false;
+            }
+            UsageKey other = (UsageKey) o;
+            return userId == other.userId && orgId == other.orgId
+                && date.equals(other.date) && model.equals(other.model);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+    }
+}
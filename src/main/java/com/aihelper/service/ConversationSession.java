@@ -0,0 +1,197 @@
+package com.aihelper.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.aihelper.model.ChatMessage;
+
+/**
+ * 서버에 보관되는 대화 세션
+ * 메시지마다 JSON 트리 대신 역할 코드(1바이트)와 UTF-8 본문 바이트만 저장해 메모리를 줄입니다.
+ * 메시지 수/바이트 한도를 넘으면 system 메시지를 제외한 가장 오래된 메시지부터 제거합니다.
+ */
+public class ConversationSession {
+
+    private static final String[] ROLES = { "system", "user", "assistant" };
+    // 세션 객체, 배열 헤더 등 부가 비용 추정치
+    private static final int SESSION_OVERHEAD_BYTES = 128;
+    private static final int MESSAGE_OVERHEAD_BYTES = 24;
+
+    private final String id;
+    private final Long userId;
+    private final Long orgId;
+    private final String model;
+    private final long createdAt;
+    private volatile long lastAccessAt;
+
+    private byte[] roles = new byte[8];
+    private byte[][] contents = new byte[8][];
+    private int count;
+    private long contentBytes;
+
+    public ConversationSession(String id, Long userId, Long orgId, String model) {
+        this(id, userId, orgId, model, System.currentTimeMillis());
+    }
+
+    private ConversationSession(String id, Long userId, Long orgId, String model, long createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.orgId = orgId;
+        this.model = model;
+        this.createdAt = createdAt;
+        this.lastAccessAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getOrgId() {
+        return orgId;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public long getLastAccessAt() {
+        return lastAccessAt;
+    }
+
+    void touch() {
+        lastAccessAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 메시지를 추가하고 한도를 넘으면 오래된 메시지를 제거합니다.
+     *
+     * @return 제거된 메시지 수
+     */
+    public synchronized int append(String role, String content, int maxMessages, long maxBytes) {
+        if (count == roles.length) {
+            roles = Arrays.copyOf(roles, count * 2);
+            contents = Arrays.copyOf(contents, count * 2);
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        roles[count] = roleCode(role);
+        contents[count] = bytes;
+        count++;
+        contentBytes += bytes.length;
+
+        int removed = 0;
+        while ((count > maxMessages || contentBytes > maxBytes) && removeOldest()) {
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Core API로 보낼 메시지 목록을 만듭니다.
+     */
+    public synchronized List<ChatMessage> toMessages() {
+        List<ChatMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(new ChatMessage(ROLES[roles[i]], new String(contents[i], StandardCharsets.UTF_8)));
+        }
+        return messages;
+    }
+
+    public synchronized int getMessageCount() {
+        return count;
+    }
+
+    /**
+     * 세션이 차지하는 메모리 추정치 (바이트)
+     */
+    public synchronized long sizeBytes() {
+        return SESSION_OVERHEAD_BYTES + contentBytes + (long) count * MESSAGE_OVERHEAD_BYTES;
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("sessionId", id);
+        map.put("model", model);
+        map.put("messageCount", count);
+        map.put("contentBytes", contentBytes);
+        map.put("estimatedBytes", sizeBytes());
+        map.put("createdAt", createdAt);
+        map.put("lastAccessAt", lastAccessAt);
+        return map;
+    }
+
+    // 맨 앞의 system 메시지는 유지하고 그 다음 메시지부터 제거 (마지막 메시지는 남김)
+    private boolean removeOldest() {
+        int index = 0;
+        while (index < count && roles[index] == 0) {
+            index++;
+        }
+        if (index >= count - 1) {
+            return false;
+        }
+        contentBytes -= contents[index].length;
+        System.arraycopy(roles, index + 1, roles, index, count - index - 1);
+        System.arraycopy(contents, index + 1, contents, index, count - index - 1);
+        count--;
+        contents[count] = null;
+        return true;
+    }
+
+    private static byte roleCode(String role) {
+        for (byte i = 0; i < ROLES.length; i++) {
+            if (ROLES[i].equals(role)) {
+                return i;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * 디스크 저장용 직렬화
+     */
+    synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeUTF(id);
+        out.writeLong(userId != null ? userId : -1L);
+        out.writeLong(orgId != null ? orgId : -1L);
+        out.writeUTF(model != null ? model : "");
+        out.writeLong(createdAt);
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeByte(roles[i]);
+            out.writeInt(contents[i].length);
+            out.write(contents[i]);
+        }
+    }
+
+    static ConversationSession readFrom(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        long userId = in.readLong();
+        long orgId = in.readLong();
+        String model = in.readUTF();
+        long createdAt = in.readLong();
+        ConversationSession session = new ConversationSession(id, userId < 0 ? null : userId,
+            orgId < 0 ? null : orgId, model.isEmpty() ? null : model, createdAt);
+        int count = in.readInt();
+        session.roles = new byte[Math.max(8, count)];
+        session.contents = new byte[Math.max(8, count)][];
+        for (int i = 0; i < count; i++) {
+            session.roles[i] = in.readByte();
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            session.contents[i] = content;
+            session.contentBytes += content.length;
+        }
+        session.count = count;
+        return session;
+    }
+}
@@ -0,0 +1,484 @@
+package com.aihelper.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aihelper.model.ChatMessage;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 대화 세션 저장소
+ * 세션 전체 크기(바이트)와 개수를 제한하며, 한도를 넘으면 가장 오래 사용되지 않은 세션(LRU)부터 내보냅니다.
+ * spill-dir이 설정되어 있으면 내보낸 세션을 디스크에 저장했다가 다시 요청될 때 메모리로 불러옵니다.
+ * 디스크 저장은 lock 밖에서 임시 파일에 쓴 뒤 원자적으로 옮기며, 저장이 끝나기 전에 요청된 세션은 저장 중 목록에서 바로 되돌립니다.
+ * 일정 시간 사용되지 않은 세션은 디스크 사본까지 삭제합니다.
+ * 한 세션에서는 한 번에 한 턴만 처리하도록 세션 ID 기준으로 처리 중 표시를 관리합니다.
+ */
+@Component
+@Slf4j
+public class ConversationSessionStore {
+
+    private static final String SPILL_SUFFIX = ".session";
+    private static final String SPILL_TEMP_SUFFIX = ".tmp";
+    private static final int SPILL_LOCK_STRIPES = 64;
+    // 처리 중 내보내진 세션을 다시 불러와 추가하는 최대 시도 횟수
+    private static final int APPEND_ATTEMPTS = 3;
+
+    @Value("${aihelper.chat.session.max-sessions:10000}")
+    private int maxSessions;
+
+    @Value("${aihelper.chat.session.max-bytes:134217728}")
+    private long maxBytes;
+
+    @Value("${aihelper.chat.session.max-messages-per-session:200}")
+    private int maxMessagesPerSession;
+
+    @Value("${aihelper.chat.session.max-bytes-per-session:262144}")
+    private long maxBytesPerSession;
+
+    @Value("${aihelper.chat.session.idle-expire-minutes:60}")
+    private long idleExpireMinutes;
+
+    // 비어 있으면 디스크 저장 비활성화
+    @Value("${aihelper.chat.session.spill-dir:}")
+    private String spillDir;
+
+    // 접근 순서 LinkedHashMap (lock 으로 보호)
+    private final LinkedHashMap<String, ConversationSession> sessions = new LinkedHashMap<>(256, 0.75f, true);
+    private final Object lock = new Object();
+    private long totalBytes;
+    // 메모리에서 내보냈지만 디스크 저장이 끝나지 않은 세션 (lock 으로 보호)
+    private final Map<String, PendingSpill> spilling = new HashMap<>();
+    // 같은 세션의 디스크 저장을 직렬화 (lock 을 잡은 채로 얻지 않으므로 lock 과 교착되지 않음)
+    private final Object[] spillLocks = new Object[SPILL_LOCK_STRIPES];
+    // 턴을 처리 중인 세션 ID (세션 객체가 내보내졌다 복원되어도 유지되도록 ID 기준)
+    private final Set<String> activeTurns = ConcurrentHashMap.newKeySet();
+
+    private Path spillPath;
+    private ScheduledExecutorService sweeper;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder restored = new LongAdder();
+    private final LongAdder trimmedMessages = new LongAdder();
+    private final LongAdder rejectedTurns = new LongAdder();
+    private final LongAdder lostAppends = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (int i = 0; i < spillLocks.length; i++) {
+            spillLocks[i] = new Object();
+        }
+        if (spillDir != null && !spillDir.trim().isEmpty()) {
+            spillPath = Paths.get(spillDir.trim());
+            Files.createDirectories(spillPath);
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "chat-session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::expireIdle, 1, 1, TimeUnit.MINUTES);
+        log.info("대화 세션 저장소 초기화 - 최대 {}개/{}바이트, 세션당 {}개/{}바이트, 디스크 저장: {}",
+            maxSessions, maxBytes, maxMessagesPerSession, maxBytesPerSession, spillPath != null ? spillPath : "사용 안 함");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * 새 세션을 생성합니다.
+     */
+    public ConversationSession create(Long userId, Long orgId, String model) {
+        ConversationSession session = new ConversationSession(UUID.randomUUID().toString(), userId, orgId, model);
+        created.increment();
+        put(session);
+        return session;
+    }
+
+    /**
+     * 세션을 조회합니다. 메모리에 없으면 디스크 사본을 찾아 불러옵니다.
+     *
+     * @return 세션 (없거나 만료되었으면 null)
+     */
+    public ConversationSession get(String sessionId) {
+        ConversationSession session;
+        synchronized (lock) {
+            session = reclaim(sessionId);
+        }
+        if (session == null) {
+            session = restore(sessionId);
+            if (session == null) {
+                misses.increment();
+                return null;
+            }
+        } else {
+            hits.increment();
+        }
+        session.touch();
+        return session;
+    }
+
+    /**
+     * 세션의 턴 처리를 시작합니다. 이미 처리 중인 턴이 있으면 false를 반환합니다.
+     * 처리가 끝나면 반드시 endTurn을 호출해야 합니다.
+     */
+    public boolean tryBeginTurn(String sessionId) {
+        if (activeTurns.add(sessionId)) {
+            return true;
+        }
+        rejectedTurns.increment();
+        return false;
+    }
+
+    public void endTurn(String sessionId) {
+        activeTurns.remove(sessionId);
+    }
+
+    /**
+     * 세션에 메시지를 추가하고 저장소 크기 계산을 갱신합니다.
+     *
+     * @return 추가되었으면 true (그 사이 세션이 삭제/만료되었으면 false)
+     */
+    public boolean append(ConversationSession session, String role, String content) {
+        return append(session, Collections.singletonList(new ChatMessage(role, content)));
+    }
+
+    /**
+     * 세션에 메시지들을 한 번에 추가합니다 (사용자 메시지 + 응답 한 턴).
+     * 처리 중에 세션이 메모리에서 내보내졌으면 저장소의 현재 세션(디스크 사본 포함)을 다시 불러와 추가합니다.
+     *
+     * @return 추가되었으면 true (그 사이 세션이 삭제/만료되었으면 false)
+     */
+    public boolean append(ConversationSession session, List<ChatMessage> messages) {
+        ConversationSession target = session;
+        for (int attempt = 0; attempt < APPEND_ATTEMPTS; attempt++) {
+            List<PendingSpill> victims = null;
+            boolean appended = false;
+            synchronized (lock) {
+                if (sessions.get(target.getId()) == target) {
+                    long before = target.sizeBytes();
+                    for (ChatMessage message : messages) {
+                        trimmedMessages.add(target.append(message.getRole(), message.getContentString(),
+                            maxMessagesPerSession, maxBytesPerSession));
+                    }
+                    totalBytes += target.sizeBytes() - before;
+                    victims = evictIfNeeded();
+                    appended = true;
+                }
+            }
+            spillAll(victims);
+            if (appended) {
+                return true;
+            }
+            // 내보내진 세션 - 디스크 사본을 불러와 다시 시도
+            target = get(session.getId());
+            if (target == null) {
+                break;
+            }
+        }
+        lostAppends.increment();
+        log.warn("대화 세션에 메시지를 추가하지 못함 (삭제/만료됨): {}", session.getId());
+        return false;
+    }
+
+    /**
+     * 세션을 삭제합니다 (디스크 사본 포함).
+     *
+     * @return 삭제되었으면 true
+     */
+    public boolean remove(String sessionId) {
+        ConversationSession session;
+        synchronized (lock) {
+            session = sessions.remove(sessionId);
+            if (session != null) {
+                totalBytes -= session.sizeBytes();
+            }
+            // 저장 중이면 저장이 끝난 뒤 파일을 지우도록 목록에서 제거
+            PendingSpill pending = spilling.remove(sessionId);
+            if (session == null && pending != null) {
+                session = pending.session;
+            }
+        }
+        boolean deleted = deleteSpill(sessionId);
+        return session != null || deleted;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        synchronized (lock) {
+            result.put("sessions", sessions.size());
+            result.put("estimatedBytes", totalBytes);
+            result.put("averageBytesPerSession", sessions.isEmpty() ? 0 : totalBytes / sessions.size());
+        }
+        result.put("maxSessions", maxSessions);
+        result.put("maxBytes", maxBytes);
+        result.put("spillEnabled", spillPath != null);
+        synchronized (lock) {
+            result.put("spilling", spilling.size());
+        }
+        result.put("created", created.sum());
+        result.put("hits", hits.sum());
+        result.put("misses", misses.sum());
+        result.put("evicted", evicted.sum());
+        result.put("expired", expired.sum());
+        result.put("spilled", spilled.sum());
+        result.put("restored", restored.sum());
+        result.put("trimmedMessages", trimmedMessages.sum());
+        result.put("activeTurns", activeTurns.size());
+        result.put("rejectedTurns", rejectedTurns.sum());
+        result.put("lostAppends", lostAppends.sum());
+        return result;
+    }
+
+    private void put(ConversationSession session) {
+        List<PendingSpill> victims;
+        synchronized (lock) {
+            ConversationSession previous = sessions.put(session.getId(), session);
+            if (previous != null) {
+                totalBytes -= previous.sizeBytes();
+            }
+            totalBytes += session.sizeBytes();
+            victims = evictIfNeeded();
+        }
+        spillAll(victims);
+    }
+
+    // lock 보유 상태에서 호출, 메모리에 있거나 디스크 저장 중인 세션을 반환 (저장 중이면 메모리로 되돌림)
+    private ConversationSession reclaim(String sessionId) {
+        ConversationSession session = sessions.get(sessionId);
+        if (session != null) {
+            return session;
+        }
+        PendingSpill pending = spilling.remove(sessionId);
+        if (pending == null) {
+            return null;
+        }
+        sessions.put(sessionId, pending.session);
+        totalBytes += pending.session.sizeBytes();
+        return pending.session;
+    }
+
+    // lock 보유 상태에서 호출, 내보낸 세션은 저장 중 목록에 올리고 lock 밖에서 디스크에 저장
+    private List<PendingSpill> evictIfNeeded() {
+        List<PendingSpill> victims = null;
+        Iterator<ConversationSession> it = sessions.values().iterator();
+        while ((sessions.size() > maxSessions || totalBytes > maxBytes) && sessions.size() > 1 && it.hasNext()) {
+            ConversationSession eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.sizeBytes();
+            evicted.increment();
+            if (spillPath == null) {
+                continue;
+            }
+            PendingSpill pending = new PendingSpill(eldest);
+            spilling.put(eldest.getId(), pending);
+            if (victims == null) {
+                victims = new ArrayList<>();
+            }
+            victims.add(pending);
+        }
+        return victims;
+    }
+
+    private void spillAll(List<PendingSpill> victims) {
+        if (victims != null) {
+            for (PendingSpill victim : victims) {
+                spill(victim);
+            }
+        }
+    }
+
+    private void expireIdle() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleExpireMinutes);
+        List<String> expiredIds = new ArrayList<>();
+        synchronized (lock) {
+            Iterator<ConversationSession> it = sessions.values().iterator();
+            while (it.hasNext()) {
+                ConversationSession session = it.next();
+                if (session.getLastAccessAt() < cutoff) {
+                    it.remove();
+                    totalBytes -= session.sizeBytes();
+                    expiredIds.add(session.getId());
+                }
+            }
+        }
+        expired.add(expiredIds.size());
+        for (String id : expiredIds) {
+            deleteSpill(id);
+        }
+        if (spillPath != null) {
+            try (Stream<Path> files = Files.list(spillPath)) {
+                files.filter(p -> p.toString().endsWith(SPILL_SUFFIX) || p.toString().endsWith(SPILL_TEMP_SUFFIX))
+                    .filter(p -> p.toFile().lastModified() < cutoff)
+                    .forEach(p -> {
+                        if (p.toFile().delete()) {
+                            expired.increment();
+                        }
+                    });
+            } catch (IOException e) {
+                log.warn("만료된 대화 세션 파일 정리 실패: {}", e.getMessage());
+            }
+        }
+    }
+
+    // 임시 파일에 쓴 뒤 원자적으로 옮겨, 읽는 쪽이 쓰다 만 파일을 보지 않도록 함
+    // 같은 세션의 저장은 세션 ID 단위로 직렬화 (먼저 시작한 저장이 나중 저장의 파일을 덮어쓰지 않도록)
+    private void spill(PendingSpill pending) {
+        ConversationSession session = pending.session;
+        synchronized (spillLocks[Math.floorMod(session.getId().hashCode(), SPILL_LOCK_STRIPES)]) {
+            Path file = spillPath.resolve(session.getId() + SPILL_SUFFIX);
+            Path temp = spillPath.resolve(session.getId() + "." + UUID.randomUUID() + SPILL_TEMP_SUFFIX);
+            boolean written = false;
+            try {
+                try (OutputStream os = Files.newOutputStream(temp);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                    session.writeTo(out);
+                }
+                moveIntoPlace(temp, file);
+                written = true;
+            } catch (IOException e) {
+                log.warn("대화 세션 디스크 저장 실패: {} ({})", session.getId(), e.getMessage());
+                deleteQuietly(temp);
+            }
+            synchronized (lock) {
+                if (spilling.get(session.getId()) == pending) {
+                    spilling.remove(session.getId());
+                    if (written) {
+                        spilled.increment();
+                    } else {
+                        // 저장하지 못했으면 메모리로 되돌림 (한도는 다음 put/append 때 다시 맞춤)
+                        sessions.put(session.getId(), session);
+                        totalBytes += session.sizeBytes();
+                    }
+                } else if (!spilling.containsKey(session.getId())) {
+                    // 저장 중에 다시 요청되어 메모리로 돌아갔거나 삭제됨 - 이 파일은 오래된 사본
+                    deleteSpill(session.getId());
+                }
+            }
+        }
+    }
+
+    private ConversationSession restore(String sessionId) {
+        if (spillPath == null || !isValidId(sessionId)) {
+            return null;
+        }
+        Path file = spillPath.resolve(sessionId + SPILL_SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ConversationSession session;
+        try (InputStream is = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+            session = ConversationSession.readFrom(in);
+        } catch (NoSuchFileException e) {
+            // 그 사이 다른 요청이 먼저 불러갔거나 삭제됨
+            synchronized (lock) {
+                return reclaim(sessionId);
+            }
+        } catch (IOException e) {
+            // 파일은 지우지 않음 (만료 정리에서 삭제)
+            log.warn("대화 세션 복원 실패: {} ({})", sessionId, e.getMessage());
+            return null;
+        }
+        List<PendingSpill> victims;
+        synchronized (lock) {
+            // 읽는 동안 다른 요청이 먼저 불러왔으면 그 세션을 사용
+            ConversationSession current = reclaim(sessionId);
+            if (current != null) {
+                return current;
+            }
+            sessions.put(sessionId, session);
+            totalBytes += session.sizeBytes();
+            // 메모리에 올린 뒤에만 디스크 사본 삭제 (lock 안이므로 새로 저장된 사본을 지우지 않음)
+            deleteSpill(sessionId);
+            victims = evictIfNeeded();
+        }
+        restored.increment();
+        spillAll(victims);
+        return session;
+    }
+
+    private static void moveIntoPlace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // 만료 정리에서 다시 시도
+        }
+    }
+
+    private boolean deleteSpill(String sessionId) {
+        if (spillPath == null || !isValidId(sessionId)) {
+            return false;
+        }
+        try {
+            return Files.deleteIfExists(spillPath.resolve(sessionId + SPILL_SUFFIX));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static final class PendingSpill {
+        private final ConversationSession session;
+
+        PendingSpill(ConversationSession session) {
+            this.session = session;
+        }
+    }
+
+    // 경로 조작 방지 (UUID 형식만 허용)
+    private static boolean isValidId(String sessionId) {
+        try {
+            return UUID.fromString(sessionId).toString().equals(sessionId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,16 +1,43 @@
 package com.aihelper.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.http.Header;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.EntityTemplate;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import com.aihelper.model.ChatMessage;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
@@ -23,147 +50,804 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class CoreApiClient {
 
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private static final String DEFAULT_MODEL = "gpt-3.5-turbo";
+    private static final String CHAT_COMPLETIONS_PATH = "/api/v1/chat/completions";
+    private static final String CHAT_BATCH_PATH = "/api/v1/chat/completions/batch";
     
-    @Value("${aihelper.core.api.url:http://localhost:8000}")
-    private String coreApiUrl;
+    private final CloseableHttpClient httpClient;
+    private final ExecutorService coreIoExecutor;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter streamingWriter;
+    private final ChatResponseCache responseCache;
+    private final CoreSingleFlight singleFlight;
+    private final CoreCircuitBreaker circuitBreaker;
+    private final CoreEndpointPool endpointPool;
+    private final CoreHedgePolicy hedgePolicy;
+    private final CoreBatchCollector batchCollector;
+    private final CoreRetryPolicy retryPolicy;
+    private final CoreCompression compression;
     
     @Value("${aihelper.core.api.key:}")
     private String coreApiKey;
     
+    @Value("${aihelper.core.api.call-timeout-ms:60000}")
+    private long callTimeoutMs;
+    
+    @Value("${aihelper.core.api.stream.buffer-bytes:8192}")
+    private int streamBufferBytes;
+    
     // 인증 사용 여부 플래그 추가 (기본값: false로 설정)
     private boolean useAuthentication = false;
     
-    public CoreApiClient() {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
+    public CoreApiClient(CloseableHttpClient coreHttpClient,
+                         @Qualifier("coreIoExecutor") ExecutorService coreIoExecutor,
+                         ChatResponseCache responseCache,
+                         CoreSingleFlight singleFlight,
+                         CoreCircuitBreaker circuitBreaker,
+                         CoreEndpointPool endpointPool,
+                         CoreHedgePolicy hedgePolicy,
+                         CoreBatchCollector batchCollector,
+                         CoreRetryPolicy retryPolicy,
+                         CoreCompression compression,
+                         ObjectMapper objectMapper) {
+        // 커넥션 풀 기반 HTTP 클라이언트 사용 (CoreHttpClientConfig 참고)
+        this.httpClient = coreHttpClient;
+        this.coreIoExecutor = coreIoExecutor;
+        // 애플리케이션 공용 ObjectMapper 사용 (JacksonConfig 참고)
+        this.objectMapper = objectMapper;
+        // 소켓 스트림에 직접 쓸 때 스트림을 닫지 않도록 설정
+        this.streamingWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.responseCache = responseCache;
+        this.singleFlight = singleFlight;
+        this.circuitBreaker = circuitBreaker;
+        this.endpointPool = endpointPool;
+        this.hedgePolicy = hedgePolicy;
+        this.batchCollector = batchCollector;
+        this.retryPolicy = retryPolicy;
+        this.compression = compression;
+        batchCollector.setSender(this::startBatchCall);
     }
     
     /**
      * Core API에 채팅 요청을 보냅니다.
      * 
-     * @param messages 채팅 메시지 배열
+     * @param messages 채팅 메시지 목록
      * @param model 모델 이름 (기본값: gpt-3.5-turbo)
      * @param userId 사용자 ID
      * @param orgId 조직 ID
      * @return Core API 응답
      */
-    public JsonNode sendChatRequest(ArrayNode messages, String model, Long userId, Long orgId) {
+    public JsonNode sendChatRequest(List<ChatMessage> messages, String model, Long userId, Long orgId) {
+        return sendChatRequest(messages, model, userId, orgId, CoreRequestOptions.defaults());
+    }
+    
+    /**
+     * Core API에 채팅 요청을 보내고 응답을 기다립니다.
+     * 
+     * @param messages 채팅 메시지 목록
+     * @param model 모델 이름 (기본값: gpt-3.5-turbo)
+     * @param userId 사용자 ID
+     * @param orgId 조직 ID
+     * @param options 요청 옵션 (캐시 사용 여부, deadline, 배치 허용 여부 등)
+     * @return Core API 응답 (타임아웃이 아닌 호출 실패 시 시뮬레이션 응답)
+     * @throws CompletionException deadline 또는 호출 타임아웃 초과 시 (원인: TimeoutException)
+     */
+    public JsonNode sendChatRequest(List<ChatMessage> messages, String model, Long userId, Long orgId,
+                                    CoreRequestOptions options) {
+        return sendChatRequestAsync(messages, model, userId, orgId, options).join().getResponse();
+    }
+    
+    /**
+     * Core API에 채팅 요청을 보냅니다. 호출 스레드는 요청을 시작한 뒤 바로 반환되며, 응답을 기다리며 스레드를 점유하지 않습니다.
+     * (Core HTTP 호출 자체는 blocking HttpClient를 쓰므로 호출마다 core-io 스레드 하나를 사용합니다.)
+     * 
+     * @param messages 채팅 메시지 목록
+     * @param model 모델 이름 (기본값: gpt-3.5-turbo)
+     * @param userId 사용자 ID
+     * @param orgId 조직 ID
+     * @param options 요청 옵션 (캐시 사용 여부, deadline, 배치 허용 여부 등)
+     * @return Core API 응답과 출처 future (타임아웃이 아닌 호출 실패 시 시뮬레이션 응답,
+     *         deadline 또는 호출 타임아웃 초과 시 TimeoutException으로 실패).
+     *         캐시 적중/single-flight 합류 응답은 정산 대상이 아님 ({@link CoreChatResult#isBillable()})
+     */
+    public CompletableFuture<CoreChatResult> sendChatRequestAsync(List<ChatMessage> messages, String model, Long userId,
+                                                            Long orgId, CoreRequestOptions options) {
+        String cacheKey = null;
+        CoreChatRequest requestBody;
+        String requestJson;
         try {
             log.info("Core API 요청 준비 중...");
             
+            // 응답 캐시 조회 (동일한 messages + model 요청)
+            if (responseCache.isEnabled()) {
+                if (options.isUseCache()) {
+                    cacheKey = responseCache.keyOf(messages, resolveModel(model), orgId, userId);
+                    JsonNode cached = responseCache.get(cacheKey);
+                    if (cached != null) {
+                        log.info("캐시된 응답 반환 (key: {})", cacheKey);
+                        return CompletableFuture.completedFuture(
+                            new CoreChatResult(cached, CoreChatResult.Source.CACHE));
+                    }
+                } else {
+                    responseCache.recordBypass();
+                }
+            }
+            
             // API 요청 본문 생성
-            ObjectNode requestBody = objectMapper.createObjectNode();
-            requestBody.set("messages", messages);
-            requestBody.put("model", model != null ? model : "gpt-3.5-turbo");
+            requestBody = createRequestBody(messages, model, userId, orgId, null);
             
-            // 사용자 정보 추가
-            if (userId != null) {
-                requestBody.put("user_id", userId);
-                log.debug("사용자 ID: {}", userId);
-            }
-            if (orgId != null) {
-                requestBody.put("org_id", orgId);
-                log.debug("조직 ID: {}", orgId);
-            }
+            // HTTP 요청 본문 직렬화
+            requestJson = objectMapper.writeValueAsString(requestBody);
             
-            // HTTP 헤더 설정
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            // 로깅 (직렬화된 본문을 재사용)
+            logAbbreviated("Core API 요청 본문", requestJson);
             
-            // 인증 헤더는 useAuthentication이 true일 때만 추가 (기본적으로 추가하지 않음)
-            if (useAuthentication && coreApiKey != null && !coreApiKey.isEmpty()) {
-                headers.set("Authorization", "Bearer " + coreApiKey);
-                log.debug("API 키 설정됨");
+        } catch (Exception e) {
+            log.error("Core API 호출 오류: " + e.getMessage(), e);
+            log.error("상세 스택 트레이스: ", e);
+            // 오류 응답 생성
+            ObjectNode errorResponse = objectMapper.createObjectNode();
+            errorResponse.put("error", true);
+            errorResponse.put("message", "AI 서비스 연결 오류: " + e.getMessage());
+            return CompletableFuture.completedFuture(
+                new CoreChatResult(errorResponse, CoreChatResult.Source.SIMULATED));
+        }
+        
+        // 시간 측정 시작
+        long startTime = System.currentTimeMillis();
+        CoreDeadline deadline = options.getDeadline();
+        String storeKey = cacheKey;
+        // 이 요청이 upstream 호출을 직접 시작했는지 (single-flight 합류면 false)
+        AtomicBoolean started = new AtomicBoolean();
+        
+        CompletableFuture<JsonNode> call;
+        if (deadline.isExpired()) {
+            // 이미 deadline이 지났으면 Core API를 호출하지 않음
+            call = new CompletableFuture<>();
+            call.completeExceptionally(new TimeoutException("Core API 호출 전 deadline 초과"));
+        } else {
+            // batchable 요청은 같은 모델 요청과 모아 배치 엔드포인트로 전송
+            boolean batched = options.isBatchable() && batchCollector.isEnabled();
+            Supplier<CompletableFuture<JsonNode>> starter = () -> {
+                started.set(true);
+                return batched
+                    ? batchCollector.submit(resolveModel(model), requestBody, deadline)
+                    : startRetryingCall(requestJson, deadline);
+            };
+            
+            // 같은 사용자의 동일한 요청이 이미 진행 중이면 그 호출에 합류 (single-flight)
+            // 요청 본문에 user_id가 들어가므로 사용자 간에는 합치지 않으며, 합류한 요청은 사용량/한도 정산에서 제외
+            if (singleFlight.isEnabled()) {
+                String flightKey = "u" + userId + ":" + (storeKey != null
+                    ? storeKey
+                    : ChatRequestHasher.hash(messages, resolveModel(model), orgId));
+                call = singleFlight.join(flightKey, starter);
             } else {
-                log.info("API 키 인증 없이 진행합니다.");
+                call = starter.get();
+            }
+        }
+        
+        return withTimeout(call, deadline.capMillis(callTimeoutMs)).handle((responseBody, ex) -> {
+            if (ex == null) {
+                log.info("Core API 호출 완료: {}ms 소요", System.currentTimeMillis() - startTime);
+                
+                // 실제 Core 응답만 캐시에 저장 (시뮬레이션 응답은 저장하지 않음)
+                if (storeKey != null && started.get()) {
+                    responseCache.put(storeKey, resolveModel(model), responseBody);
+                }
+                return new CoreChatResult(responseBody,
+                    started.get() ? CoreChatResult.Source.UPSTREAM : CoreChatResult.Source.COALESCED);
+            }
+            Throwable cause = unwrap(ex);
+            if (cause instanceof TimeoutException) {
+                // deadline/호출 타임아웃은 시뮬레이션 응답으로 바꾸지 않고 그대로 전달 (호출자가 504로 응답)
+                log.warn("Core API 호출 타임아웃: {} ({}ms 경과)", cause.getMessage(), System.currentTimeMillis() - startTime);
+                throw new CompletionException(cause);
             }
             
-            // HTTP 요청 생성
-            HttpEntity<String> request = 
-                new HttpEntity<>(objectMapper.writeValueAsString(requestBody), headers);
-            
-            // 로깅
-            log.debug("Core API 엔드포인트: {}/api/v1/chat/completions", coreApiUrl);
-            String requestBodyStr = objectMapper.writeValueAsString(requestBody);
-            // 긴 메시지는 잘라서 로깅
-            if (requestBodyStr.length() > 1000) {
-                log.debug("Core API 요청 본문(일부): {}...(길이: {})", 
-                    requestBodyStr.substring(0, 1000), requestBodyStr.length());
+            // API 호출 실패 시 시뮬레이션된 응답 생성
+            log.warn("Core API 호출 실패: {}. 시뮬레이션된 응답을 생성합니다.", cause.getMessage());
+            ObjectNode simulatedResponse = createSimulatedResponse(messages);
+            log.info("시뮬레이션 응답 생성 완료: {}ms 소요", System.currentTimeMillis() - startTime);
+            return new CoreChatResult(simulatedResponse, CoreChatResult.Source.SIMULATED);
+        });
+    }
+    
+    /**
+     * 일시적인 오류면 백오프 후 재시도하는 Core API 호출을 시작합니다.
+     * 모든 시도(헤지 포함)에 같은 Idempotency-Key를 붙이며, 반환된 future를 cancel하면 진행 중인 시도와 대기 중인 재시도도 취소됩니다.
+     * 
+     * @param requestJson 요청 본문 JSON
+     * @param deadline 요청 처리 기한
+     * @return Core API 응답 future
+     */
+    private CompletableFuture<JsonNode> startRetryingCall(String requestJson, CoreDeadline deadline) {
+        String idempotencyKey = UUID.randomUUID().toString();
+        if (!retryPolicy.isEnabled()) {
+            return startGuardedCall(requestJson, deadline, idempotencyKey);
+        }
+        retryPolicy.onRequest();
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        startAttempt(result, requestJson, deadline, idempotencyKey, 1);
+        return result;
+    }
+    
+    private void startAttempt(CompletableFuture<JsonNode> result, String requestJson, CoreDeadline deadline,
+                              String idempotencyKey, int attempt) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<JsonNode> call = startGuardedCall(requestJson, deadline, idempotencyKey);
+        result.whenComplete((response, ex) -> call.cancel(true));
+        call.whenComplete((response, ex) -> {
+            if (ex == null) {
+                retryPolicy.recordSuccess(attempt);
+                result.complete(response);
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            long delayMs = retryPolicy.nextDelayMillis(ex, attempt, deadline);
+            if (delayMs < 0) {
+                result.completeExceptionally(ex);
+                return;
+            }
+            log.info("Core API 호출 실패 - {}ms 후 {}번째 시도 (key: {}): {}", delayMs, attempt + 1,
+                idempotencyKey, ex.getMessage());
+            ScheduledFuture<?> timer = retryPolicy.schedule(
+                () -> startAttempt(result, requestJson, deadline, idempotencyKey, attempt + 1), delayMs);
+            result.whenComplete((response2, ex2) -> timer.cancel(false));
+        });
+    }
+    
+    /**
+     * 서킷 브레이커를 거쳐 Core API 호출을 시작합니다.
+     * 회로가 열려 있으면 네트워크를 타지 않고 즉시 실패한 future를 반환합니다.
+     * 
+     * @param requestJson 요청 본문 JSON
+     * @param deadline 요청 처리 기한
+     * @param idempotencyKey 중복 처리 방지 키
+     * @return Core API 응답 future
+     */
+    private CompletableFuture<JsonNode> startGuardedCall(String requestJson, CoreDeadline deadline,
+                                                         String idempotencyKey) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            CompletableFuture<JsonNode> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new CoreCircuitBreaker.OpenException());
+            return rejected;
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<JsonNode> call = startHedgedCall(requestJson, deadline, idempotencyKey);
+        call.whenComplete((response, ex) -> circuitBreaker.onComplete(System.nanoTime() - startNanos, ex));
+        return call;
+    }
+    
+    /**
+     * 모아진 요청을 배치 엔드포인트로 보냅니다 (CoreBatchCollector에서 호출).
+     * 서킷 브레이커는 배치 호출 단위로 적용하며, 헤지는 적용하지 않습니다.
+     * 
+     * @param model 모델 이름
+     * @param requests 배치 항목 배열 ({"custom_id", "body"})
+     * @param deadline 배치 처리 기한
+     * @return 배치 응답 future
+     */
+    private CompletableFuture<JsonNode> startBatchCall(String model, ArrayNode requests, CoreDeadline deadline) {
+        CompletableFuture<JsonNode> call;
+        if (!circuitBreaker.tryAcquirePermission()) {
+            call = new CompletableFuture<>();
+            call.completeExceptionally(new CoreCircuitBreaker.OpenException());
+            return call;
+        }
+        ObjectNode batchBody = objectMapper.createObjectNode();
+        batchBody.put("model", model);
+        batchBody.set("requests", requests);
+        long startNanos = System.nanoTime();
+        try {
+            call = startCoreCall(endpointPool.select(), CHAT_BATCH_PATH,
+                objectMapper.writeValueAsString(batchBody), deadline, null);
+        } catch (IOException e) {
+            call = new CompletableFuture<>();
+            call.completeExceptionally(e);
+        }
+        call.whenComplete((response, ex) -> circuitBreaker.onComplete(System.nanoTime() - startNanos, ex));
+        return call;
+    }
+    
+    /**
+     * Core API 호출을 시작하고, 헤지 지연 시간 안에 응답이 없으면 다른 엔드포인트로 같은 요청을 보냅니다.
+     * 먼저 성공한 응답을 사용하고 나머지 요청은 취소합니다. 모든 요청이 실패하면 마지막 오류로 실패합니다.
+     * 
+     * @param requestJson 요청 본문 JSON
+     * @param deadline 요청 처리 기한
+     * @param idempotencyKey 중복 처리 방지 키 (헤지 요청에도 동일하게 사용)
+     * @return Core API 응답 future
+     */
+    private CompletableFuture<JsonNode> startHedgedCall(String requestJson, CoreDeadline deadline,
+                                                        String idempotencyKey) {
+        CoreEndpoint primaryEndpoint = endpointPool.select();
+        long startNanos = System.nanoTime();
+        CompletableFuture<JsonNode> primary = startCoreCall(primaryEndpoint, requestJson, deadline, idempotencyKey);
+        if (!hedgePolicy.isEnabled()) {
+            return primary;
+        }
+        hedgePolicy.onRequest();
+        
+        long delayMs = hedgePolicy.delayMillis();
+        if (deadline.remainingMillis() <= delayMs) {
+            // 헤지를 보내도 deadline 안에 응답을 받을 수 없음
+            hedgePolicy.recordDeadlineSkip();
+            primary.whenComplete((response, ex) -> {
+                if (ex == null) {
+                    hedgePolicy.recordLatency(System.nanoTime() - startNanos);
+                }
+            });
+            return primary;
+        }
+        
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicBoolean hedged = new AtomicBoolean();
+        
+        primary.whenComplete((response, ex) -> {
+            if (ex == null) {
+                hedgePolicy.recordLatency(System.nanoTime() - startNanos);
+                if (result.complete(response) && hedged.get()) {
+                    hedgePolicy.recordWinner(false);
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(ex);
+            }
+        });
+        
+        ScheduledFuture<?> timer = hedgePolicy.schedule(() -> {
+            if (result.isDone() || deadline.isExpired() || !hedgePolicy.tryAcquireHedge()) {
+                return;
+            }
+            pending.incrementAndGet();
+            hedged.set(true);
+            CoreEndpoint hedgeEndpoint = endpointPool.select(primaryEndpoint);
+            log.info("Core API 응답 지연 ({}ms 초과) - 헤지 요청 전송: {}", delayMs, hedgeEndpoint.getUrl());
+            CompletableFuture<JsonNode> hedge = startCoreCall(hedgeEndpoint, requestJson, deadline, idempotencyKey);
+            hedge.whenComplete((response, ex) -> {
+                if (ex == null) {
+                    if (result.complete(response)) {
+                        hedgePolicy.recordWinner(true);
+                    }
+                } else if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(ex);
+                }
+            });
+            // 결과가 정해지면 남은 요청 취소 (이미 완료된 경우 즉시 실행)
+            result.whenComplete((response, ex) -> hedge.cancel(true));
+        }, delayMs);
+        
+        result.whenComplete((response, ex) -> {
+            timer.cancel(false);
+            primary.cancel(true);
+        });
+        return result;
+    }
+    
+    /**
+     * 선택된 엔드포인트로 Core API 호출을 시작합니다.
+     * 반환된 future를 cancel하면 진행 중인 HTTP 요청도 중단(abort)됩니다.
+     * 
+     * @param endpoint 호출할 엔드포인트
+     * @param requestJson 요청 본문 JSON
+     * @param deadline 요청 처리 기한 (남은 시간을 헤더로 전달)
+     * @param idempotencyKey 중복 처리 방지 키 (null이면 헤더 생략)
+     * @return Core API 응답 future
+     */
+    private CompletableFuture<JsonNode> startCoreCall(CoreEndpoint endpoint, String requestJson,
+                                                      CoreDeadline deadline, String idempotencyKey) {
+        return startCoreCall(endpoint, CHAT_COMPLETIONS_PATH, requestJson, deadline, idempotencyKey);
+    }
+    
+    private CompletableFuture<JsonNode> startCoreCall(CoreEndpoint endpoint, String path, String requestJson,
+                                                      CoreDeadline deadline, String idempotencyKey) {
+        HttpPost post = newCorePost(endpoint, path, MediaType.APPLICATION_JSON_VALUE);
+        if (deadline.isBounded()) {
+            post.setHeader(CoreDeadline.HEADER, String.valueOf(deadline.remainingMillis()));
+        }
+        if (idempotencyKey != null) {
+            post.setHeader(CoreRetryPolicy.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        }
+        byte[] body = requestJson.getBytes(StandardCharsets.UTF_8);
+        post.setEntity(compression.requestEntity(endpoint, body));
+        compression.acceptCompressed(post);
+        log.debug("Core API 엔드포인트: {}", post.getURI());
+        
+        long startNanos = System.nanoTime();
+        endpoint.begin();
+        CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        future.whenComplete((response, ex) -> {
+            if (ex instanceof CancellationException) {
+                post.abort();
+            }
+            endpointPool.onComplete(endpoint, System.nanoTime() - startNanos, ex);
+        });
+        try {
+            coreIoExecutor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                if (deadline.isExpired()) {
+                    future.completeExceptionally(new TimeoutException("Core API 호출 대기 중 deadline 초과"));
+                    return;
+                }
+                try {
+                    future.complete(callCore(endpoint, post, body));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    /**
+     * 호출 타임아웃(호출 타임아웃과 deadline 중 짧은 쪽)이 지나면 TimeoutException으로 완료되고 호출을 취소하는 future를 반환합니다.
+     * 응답을 기다리는 스레드를 두지 않습니다.
+     */
+    private static CompletableFuture<JsonNode> withTimeout(CompletableFuture<JsonNode> call, long timeoutMs) {
+        CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        call.whenComplete((response, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(unwrap(ex));
             } else {
-                log.debug("Core API 요청 본문: {}", requestBodyStr);
+                result.complete(response);
+            }
+        });
+        result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((response, ex) -> {
+            if (ex instanceof TimeoutException) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+    
+    private static Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+    
+    /**
+     * Core API를 호출합니다. 압축된 요청이 415로 거부되면 해당 엔드포인트의 압축 방식을 한 단계 낮추고 원본으로 한 번 더 보냅니다.
+     */
+    private JsonNode callCore(CoreEndpoint endpoint, HttpPost post, byte[] body) throws IOException {
+        try {
+            return callCore(post);
+        } catch (CoreApiException e) {
+            if (e.getStatusCode() != 415 || !CoreCompression.isCompressed(post.getEntity())) {
+                throw e;
+            }
+            compression.markUnsupported(endpoint, post.getEntity());
+            post.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+            return callCore(post);
+        }
+    }
+    
+    /**
+     * Core API를 실제로 호출하고 응답을 파싱합니다.
+     * 실패 시 예외를 그대로 던지며, 대체 응답 처리는 호출자가 담당합니다.
+     * 
+     * @param post HTTP 요청
+     * @return Core API 응답
+     * @throws IOException 네트워크 오류, HTTP 오류 응답, 파싱 실패
+     */
+    private JsonNode callCore(HttpPost post) throws IOException {
+        log.info("Core API 호출 시작: {}", post.getURI());
+        
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            int status = response.getStatusLine().getStatusCode();
+            // gzip 응답이면 해제해서 읽음
+            String body = response.getEntity() != null
+                ? new String(compression.readBody(response.getEntity()), StandardCharsets.UTF_8)
+                : null;
+            if (status >= 300) {
+                throw new CoreApiException(status, body, retryAfterMillis(response));
             }
             
-            // 시간 측정 시작
-            long startTime = System.currentTimeMillis();
+            // 응답 로깅 (수신한 본문을 그대로 사용)
+            logAbbreviated("Core API 응답", body);
             
-            // API 호출
-            String apiUrl = coreApiUrl + "/api/v1/chat/completions";
-            log.info("Core API 호출 시작: {}", apiUrl);
+            // 응답 파싱
+            return objectMapper.readTree(body);
+        }
+    }
+    
+    /**
+     * Core API 응답을 트리로 만들지 않고 클라이언트 출력 스트림으로 그대로 전달합니다 (passthrough).
+     * 요청 본문은 소켓으로 바로 직렬화하고, 응답은 고정 크기 버퍼로 중계하면서
+     * 스트리밍 파서로 id와 usage만 추출합니다. 요청당 할당량이 응답 크기와 무관하게 일정합니다.
+     * 첫 바이트를 보내기 전에 실패하면 시뮬레이션 응답을 대신 씁니다.
+     * 
+     * @param messages 채팅 메시지 목록
+     * @param model 모델 이름
+     * @param userId 사용자 ID
+     * @param orgId 조직 ID
+     * @param out 클라이언트 출력 스트림 (application/json)
+     * @return 추출된 응답 요약 (id, usage, 전송 바이트)
+     * @throws IOException 클라이언트 쓰기 실패 또는 중계 도중 upstream 실패 시
+     */
+    public CoreResponseSniffer passthroughChatRequest(List<ChatMessage> messages, String model, Long userId, Long orgId,
+                                                      OutputStream out) throws IOException {
+        CoreResponseSniffer sniffer = new CoreResponseSniffer(objectMapper.getFactory());
+        if (!circuitBreaker.tryAcquirePermission()) {
+            log.warn("Core API 서킷이 열려 있어 시뮬레이션 응답으로 대체합니다.");
+            writeSimulated(messages, sniffer, out);
+            return sniffer;
+        }
+        
+        CoreChatRequest requestBody = createRequestBody(messages, model, userId, orgId, null);
+        CoreEndpoint endpoint = endpointPool.select();
+        HttpPost post = newCorePost(endpoint, CHAT_COMPLETIONS_PATH, MediaType.APPLICATION_JSON_VALUE);
+        EntityTemplate entity = new EntityTemplate(os -> streamingWriter.writeValue(os, requestBody));
+        entity.setContentType(ContentType.APPLICATION_JSON.toString());
+        post.setEntity(entity);
+        compression.acceptCompressed(post);
+        
+        long startNanos = System.nanoTime();
+        boolean started = false;
+        Throwable failure = null;
+        endpoint.begin();
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            int status = response.getStatusLine().getStatusCode();
+            org.apache.http.HttpEntity responseEntity = response.getEntity();
+            if (status >= 300 || responseEntity == null) {
+                EntityUtils.consumeQuietly(responseEntity);
+                throw new CoreApiException(status, null);
+            }
             
-            try {
-                // API 호출 시도 (실패 시 시뮬레이션된 응답 반환)
-                ResponseEntity<String> response = 
-                    restTemplate.exchange(apiUrl, HttpMethod.POST, request, String.class);
-                
-                // 시간 측정 완료
-                long endTime = System.currentTimeMillis();
-                log.info("Core API 호출 완료: {}ms 소요", (endTime - startTime));
-                
-                // 응답 파싱
-                JsonNode responseBody = objectMapper.readTree(response.getBody());
-                
-                // 응답 로깅 (민감 정보 제외)
-                String responseStr = responseBody.toString();
-                if (responseStr.length() > 1000) {
-                    log.debug("Core API 응답(일부): {}...(길이: {})", 
-                        responseStr.substring(0, 1000), responseStr.length());
-                } else {
-                    log.debug("Core API 응답: {}", responseStr);
+            byte[] buffer = new byte[streamBufferBytes];
+            try (InputStream in = compression.decode(responseEntity)) {
+                int read;
+                while ((read = readUpstream(in, buffer)) != -1) {
+                    sniffer.feed(buffer, 0, read);
+                    try {
+                        out.write(buffer, 0, read);
+                    } catch (IOException e) {
+                        // 클라이언트 연결 종료 - upstream 요청 취소 (Core 장애로 보지 않음)
+                        failure = new CancellationException("클라이언트 연결 종료");
+                        post.abort();
+                        throw e;
+                    }
+                    started = true;
                 }
-                
-                return responseBody;
-                
-            } catch (Exception e) {
-                // API 호출 실패 시 시뮬레이션된 응답 생성
-                log.warn("Core API 호출 실패: {}. 시뮬레이션된 응답을 생성합니다.", e.getMessage());
-                
-                // 시뮬레이션된 응답 생성
-                ObjectNode simulatedResponse = createSimulatedResponse(messages);
-                
-                // 측정 시간 기록 (시뮬레이션이라 빠르게 처리됨)
-                long endTime = System.currentTimeMillis();
-                log.info("시뮬레이션 응답 생성 완료: {}ms 소요", (endTime - startTime));
-                
-                return simulatedResponse;
+            }
+            sniffer.finish();
+            out.flush();
+            log.info("Core API passthrough 완료: {}ms 소요, {}바이트 (id: {})",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), sniffer.getBytes(), sniffer.getId());
+            return sniffer;
+        } catch (UpstreamReadException e) {
+            failure = e.getCause();
+            post.abort();
+            if (started) {
+                throw (IOException) e.getCause();
+            }
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+            if (started || failure instanceof CancellationException) {
+                throw e;
+            }
+        } finally {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            circuitBreaker.onComplete(elapsedNanos, failure);
+            endpointPool.onComplete(endpoint, elapsedNanos, failure);
+        }
+        
+        // 첫 바이트 전송 전 실패 - 시뮬레이션 응답으로 대체
+        log.warn("Core API passthrough 실패: {}. 시뮬레이션된 응답을 생성합니다.", failure.getMessage());
+        writeSimulated(messages, sniffer, out);
+        return sniffer;
+    }
+    
+    private void writeSimulated(List<ChatMessage> messages, CoreResponseSniffer sniffer, OutputStream out) throws IOException {
+        byte[] simulated = objectMapper.writeValueAsBytes(createSimulatedResponse(messages));
+        sniffer.markSimulated();
+        sniffer.feed(simulated, 0, simulated.length);
+        sniffer.finish();
+        out.write(simulated);
+        out.flush();
+    }
+    
+    /**
+     * Core API용 POST 요청을 생성합니다 (Accept, 인증 헤더 설정).
+     */
+    private HttpPost newCorePost(CoreEndpoint endpoint, String path, String accept) {
+        HttpPost post = new HttpPost(endpoint.getUrl() + path);
+        post.setHeader(HttpHeaders.ACCEPT, accept);
+        
+        // 인증 헤더는 useAuthentication이 true일 때만 추가 (기본적으로 추가하지 않음)
+        if (useAuthentication && coreApiKey != null && !coreApiKey.isEmpty()) {
+            post.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + coreApiKey);
+            log.debug("API 키 설정됨");
+        }
+        return post;
+    }
+    
+    // Retry-After 헤더 (초 단위만 지원, 없거나 형식이 다르면 0)
+    private static long retryAfterMillis(CloseableHttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(header.getValue().trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+    
+    // 긴 본문은 잘라서 로깅 (debug 비활성 시 문자열 처리 생략)
+    private void logAbbreviated(String label, String body) {
+        if (!log.isDebugEnabled() || body == null) {
+            return;
+        }
+        if (body.length() > 1000) {
+            log.debug("{}(일부): {}...(길이: {})", label, body.substring(0, 1000), body.length());
+        } else {
+            log.debug("{}: {}", label, body);
+        }
+    }
+    
+    private static String resolveModel(String model) {
+        return model != null ? model : DEFAULT_MODEL;
+    }
+    
+    /**
+     * Core API 요청 본문을 생성합니다.
+     * 
+     * @param messages 채팅 메시지 목록
+     * @param model 모델 이름 (기본값: gpt-3.5-turbo)
+     * @param userId 사용자 ID
+     * @param orgId 조직 ID
+     * @param stream 스트리밍 요청이면 true (아니면 null)
+     * @return 요청 본문
+     */
+    private CoreChatRequest createRequestBody(List<ChatMessage> messages, String model, Long userId, Long orgId,
+                                              Boolean stream) {
+        // 사용자 정보는 null이면 본문에서 제외됨
+        log.debug("사용자 ID: {}, 조직 ID: {}", userId, orgId);
+        return new CoreChatRequest(messages, resolveModel(model), userId, orgId, stream);
+    }
+    
+    /**
+     * Core API 스트리밍 응답을 클라이언트 출력 스트림으로 그대로 중계합니다.
+     * 고정 크기 버퍼 하나만 사용하며, 클라이언트 쓰기가 막히면 upstream 읽기도 멈추므로
+     * 자연스럽게 backpressure가 걸립니다. 클라이언트 연결이 끊기면 upstream 요청을 취소합니다.
+     * 
+     * @param messages 채팅 메시지 목록
+     * @param model 모델 이름
+     * @param userId 사용자 ID
+     * @param orgId 조직 ID
+     * @param out 클라이언트 출력 스트림 (text/event-stream)
+     * @param sniffer 중계한 이벤트에서 토큰 사용량을 추출할 파서
+     * @throws IOException 클라이언트 쓰기 실패 시
+     */
+    public void streamChatRequest(List<ChatMessage> messages, String model, Long userId, Long orgId,
+                                  OutputStream out, CoreStreamSniffer sniffer) throws IOException {
+        CoreChatRequest requestBody = createRequestBody(messages, model, userId, orgId, true);
+        
+        CoreEndpoint endpoint = endpointPool.select();
+        HttpPost post = newCorePost(endpoint, CHAT_COMPLETIONS_PATH + "/stream", MediaType.TEXT_EVENT_STREAM_VALUE);
+        // 응답은 압축을 요청하지 않음 (압축 블록 단위로 묶이면 이벤트가 늦게 전달됨)
+        post.setEntity(compression.requestEntity(endpoint, objectMapper.writeValueAsBytes(requestBody)));
+        
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        log.info("Core API 스트리밍 호출 시작: {}", post.getURI());
+        
+        endpoint.begin();
+        CloseableHttpResponse response;
+        try {
+            response = httpClient.execute(post);
+        } catch (IOException e) {
+            endpointPool.onComplete(endpoint, System.nanoTime() - startNanos, e);
+            log.warn("Core API 스트리밍 연결 실패: {}", e.getMessage());
+            writeSseError(out, "AI 서버와 연결할 수 없습니다.");
+            return;
+        }
+        
+        Throwable failure = null;
+        try {
+            int status = response.getStatusLine().getStatusCode();
+            org.apache.http.HttpEntity entity = response.getEntity();
+            if (status >= 300 || entity == null) {
+                log.warn("Core API 스트리밍 응답 오류: status={}", status);
+                failure = new CoreApiException(status, null);
+                EntityUtils.consumeQuietly(entity);
+                writeSseError(out, "AI 서버 응답 오류: " + status);
+                return;
             }
             
-        } catch (Exception e) {
-            log.error("Core API 호출 오류: " + e.getMessage(), e);
-            log.error("상세 스택 트레이스: ", e);
-            // 오류 응답 생성
-            ObjectNode errorResponse = objectMapper.createObjectNode();
-            errorResponse.put("error", true);
-            errorResponse.put("message", "AI 서비스 연결 오류: " + e.getMessage());
-            return errorResponse;
+            byte[] buffer = new byte[streamBufferBytes];
+            long relayedBytes = 0;
+            boolean firstChunk = true;
+            try (InputStream in = entity.getContent()) {
+                int read;
+                while ((read = readUpstream(in, buffer)) != -1) {
+                    try {
+                        out.write(buffer, 0, read);
+                        out.flush();
+                    } catch (IOException e) {
+                        // 클라이언트 연결 종료 - upstream 요청 취소
+                        log.info("클라이언트 연결 종료로 Core API 스트림 취소 ({}바이트 중계)", relayedBytes);
+                        failure = new CancellationException("클라이언트 연결 종료");
+                        post.abort();
+                        throw e;
+                    }
+                    sniffer.feed(buffer, 0, read);
+                    if (firstChunk) {
+                        log.info("Core API 스트리밍 첫 응답: {}ms 소요", System.currentTimeMillis() - startTime);
+                        firstChunk = false;
+                    }
+                    relayedBytes += read;
+                }
+            } catch (UpstreamReadException e) {
+                log.warn("Core API 스트림 읽기 실패: {}", e.getCause().getMessage());
+                failure = e.getCause();
+                post.abort();
+                writeSseError(out, "AI 서버 스트림이 중단되었습니다.");
+                return;
+            }
+            log.info("Core API 스트리밍 완료: {}ms 소요, {}바이트 중계",
+                System.currentTimeMillis() - startTime, relayedBytes);
+        } finally {
+            sniffer.finish();
+            response.close();
+            endpointPool.onComplete(endpoint, System.nanoTime() - startNanos, failure);
+        }
+    }
+    
+    private static int readUpstream(InputStream in, byte[] buffer) {
+        try {
+            return in.read(buffer);
+        } catch (IOException e) {
+            throw new UpstreamReadException(e);
+        }
+    }
+    
+    private void writeSseError(OutputStream out, String message) throws IOException {
+        ObjectNode error = objectMapper.createObjectNode();
+        error.put("error", true);
+        error.put("message", message);
+        String frame = "event: error\ndata: " + objectMapper.writeValueAsString(error) + "\n\n";
+        out.write(frame.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+    
+    /**
+     * upstream 읽기 실패를 클라이언트 쓰기 실패와 구분하기 위한 예외
+     */
+    private static class UpstreamReadException extends RuntimeException {
+        UpstreamReadException(IOException cause) {
+            super(cause);
         }
     }
     
     /**
      * 시뮬레이션된 채팅 응답을 생성합니다.
      * 
-     * @param messages 사용자 메시지 배열
+     * @param messages 사용자 메시지 목록
      * @return 시뮬레이션된 응답
      */
-    private ObjectNode createSimulatedResponse(ArrayNode messages) {
+    private ObjectNode createSimulatedResponse(List<ChatMessage> messages) {
         try {
             // 마지막 사용자 메시지 추출
             String lastUserMessage = "안녕하세요";
             for (int i = messages.size() - 1; i >= 0; i--) {
-                JsonNode msg = messages.get(i);
-                if (msg.has("role") && "user".equals(msg.get("role").asText()) && msg.has("content")) {
-                    lastUserMessage = msg.get("content").asText();
+                ChatMessage msg = messages.get(i);
+                if ("user".equals(msg.getRole()) && msg.getText() != null) {
+                    lastUserMessage = msg.getText();
                     break;
                 }
             }
@@ -242,7 +926,7 @@ public class CoreApiClient {
      * @return 스트리밍 URL
      */
     public String getChatStreamUrl(Long userId, Long orgId) {
-        return coreApiUrl + "/api/v1/chat/completions/stream" +
+        return endpointPool.primaryUrl() + CHAT_COMPLETIONS_PATH + "/stream" +
                "?user_id=" + userId +
                "&org_id=" + orgId;
     }
@@ -0,0 +1,53 @@
+package com.aihelper.service;
+
+import java.io.IOException;
+
+/**
+ * Core API가 오류 상태 코드로 응답했을 때 발생하는 예외
+ */
+public class CoreApiException extends IOException {
+
+    private final int statusCode;
+    // Retry-After 헤더 값 (없으면 0)
+    private final long retryAfterMillis;
+
+    public CoreApiException(int statusCode, String responseBody) {
+        this(statusCode, responseBody, 0);
+    }
+
+    public CoreApiException(int statusCode, String responseBody, long retryAfterMillis) {
+        super("Core API 오류 응답: " + statusCode + abbreviate(responseBody));
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Core 장애로 볼 실패인지 판단합니다.
+     * 4xx(429 제외)는 요청 자체의 문제이므로 장애로 보지 않습니다.
+     */
+    public static boolean isCoreFailure(Throwable cause) {
+        if (cause == null) {
+            return false;
+        }
+        if (cause instanceof CoreApiException) {
+            int status = ((CoreApiException) cause).getStatusCode();
+            return status >= 500 || status == 429;
+        }
+        return true;
+    }
+
+    private static String abbreviate(String body) {
+        if (body == null || body.isEmpty()) {
+            return "";
+        }
+        return " - " + (body.length() > 200 ? body.substring(0, 200) + "..." : body);
+    }
+}
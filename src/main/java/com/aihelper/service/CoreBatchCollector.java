@@ -0,0 +1,261 @@
+package com.aihelper.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Core API 마이크로 배치 수집기
+ * batchable 요청을 모델별로 최대 max-delay-ms 동안 또는 max-batch-size개까지 모아 배치 엔드포인트로 한 번에 보내고,
+ * 응답의 results를 custom_id로 각 호출자의 future에 나눠 돌려줍니다.
+ *
+ * 배치 요청 형식: {"model": ..., "requests": [{"custom_id": "0", "body": {단건 요청 본문}}, ...]}
+ * 배치 응답 형식: {"results": [{"custom_id": "0", "status": 200, "response": {...}}, {"custom_id": "1", "status": 500, "error": "..."}]}
+ *
+ * 일부 항목만 실패하면 해당 호출자만 CoreApiException으로 실패하고, 배치 호출 자체가 실패하면 모든 호출자가 실패합니다.
+ * (호출자는 단건 호출과 동일하게 시뮬레이션 응답으로 대체합니다)
+ */
+@Component
+@Slf4j
+public class CoreBatchCollector {
+
+    /**
+     * 모은 요청을 배치 엔드포인트로 보내는 함수 (CoreApiClient가 등록)
+     */
+    @FunctionalInterface
+    interface BatchSender {
+        CompletableFuture<JsonNode> send(String model, ArrayNode requests, CoreDeadline deadline);
+    }
+
+    @Value("${aihelper.core.api.batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${aihelper.core.api.batch.max-batch-size:8}")
+    private int maxBatchSize;
+
+    // 첫 요청이 배치를 기다리는 최대 시간 (추가 지연 상한)
+    @Value("${aihelper.core.api.batch.max-delay-ms:20}")
+    private long maxDelayMs;
+
+    private final Map<String, PendingBatch> pending = new HashMap<>();
+    private ScheduledExecutorService timer;
+    private volatile BatchSender sender;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder flushedBySize = new LongAdder();
+    private final LongAdder flushedByTimer = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder failedItems = new LongAdder();
+    private final LongAdder skippedItems = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "core-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Core API 마이크로 배치 초기화 - 사용: {}, 최대 크기: {}, 최대 지연: {}ms",
+            enabled, maxBatchSize, maxDelayMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled && sender != null;
+    }
+
+    void setSender(BatchSender sender) {
+        this.sender = sender;
+    }
+
+    /**
+     * 요청을 모델별 배치에 추가합니다.
+     *
+     * @param model 모델 이름
+     * @param request 단건 요청 본문
+     * @param deadline 요청 처리 기한
+     * @return 이 요청의 응답 future
+     */
+    public CompletableFuture<JsonNode> submit(String model, CoreChatRequest request, CoreDeadline deadline) {
+        CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        submitted.increment();
+        PendingBatch full = null;
+        synchronized (pending) {
+            PendingBatch batch = pending.get(model);
+            if (batch == null) {
+                PendingBatch created = new PendingBatch(model);
+                created.timer = timer.schedule(() -> flushByTimer(created), maxDelayMs, TimeUnit.MILLISECONDS);
+                pending.put(model, created);
+                batch = created;
+            }
+            batch.add(request, deadline, future);
+            if (batch.size() >= maxBatchSize) {
+                pending.remove(model);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            flushedBySize.increment();
+            dispatch(full);
+        }
+        return future;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("maxBatchSize", maxBatchSize);
+        result.put("maxDelayMs", maxDelayMs);
+        synchronized (pending) {
+            result.put("pendingBatches", pending.size());
+        }
+        long batchCount = batches.sum();
+        result.put("submitted", submitted.sum());
+        result.put("batches", batchCount);
+        result.put("averageBatchSize", batchCount == 0 ? 0 : (double) (submitted.sum() - skippedItems.sum()) / batchCount);
+        result.put("flushedBySize", flushedBySize.sum());
+        result.put("flushedByTimer", flushedByTimer.sum());
+        result.put("failedBatches", failedBatches.sum());
+        result.put("failedItems", failedItems.sum());
+        result.put("skippedItems", skippedItems.sum());
+        return result;
+    }
+
+    private void flushByTimer(PendingBatch batch) {
+        synchronized (pending) {
+            // 크기 초과로 이미 보낸 배치면 무시
+            if (pending.get(batch.model) != batch) {
+                return;
+            }
+            pending.remove(batch.model);
+        }
+        flushedByTimer.increment();
+        dispatch(batch);
+    }
+
+    private void dispatch(PendingBatch batch) {
+        batch.timer.cancel(false);
+
+        // 대기 중 타임아웃/취소된 요청은 제외
+        ArrayNode requests = JsonNodeFactory.instance.arrayNode();
+        List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+        long maxRemaining = 0;
+        boolean unbounded = false;
+        for (int i = 0; i < batch.futures.size(); i++) {
+            CompletableFuture<JsonNode> future = batch.futures.get(i);
+            CoreDeadline deadline = batch.deadlines.get(i);
+            if (future.isDone() || deadline.isExpired()) {
+                skippedItems.increment();
+                continue;
+            }
+            ObjectNode item = requests.addObject();
+            item.put("custom_id", String.valueOf(futures.size()));
+            // 단건 요청은 트리로 바꾸지 않고 배치 직렬화 시 그대로 기록
+            item.putPOJO("body", batch.requests.get(i));
+            futures.add(future);
+            if (deadline.isBounded()) {
+                maxRemaining = Math.max(maxRemaining, deadline.remainingMillis());
+            } else {
+                unbounded = true;
+            }
+        }
+        if (futures.isEmpty()) {
+            return;
+        }
+
+        // 배치 기한은 가장 늦은 요청 기준 (각 호출자는 자기 deadline으로 따로 대기)
+        CoreDeadline deadline = unbounded ? CoreDeadline.none() : CoreDeadline.after(maxRemaining);
+        batches.increment();
+        log.debug("Core API 배치 전송 - 모델: {}, 요청 {}건", batch.model, futures.size());
+
+        CompletableFuture<JsonNode> call;
+        try {
+            call = sender.send(batch.model, requests, deadline);
+        } catch (RuntimeException e) {
+            call = new CompletableFuture<>();
+            call.completeExceptionally(e);
+        }
+        call.whenComplete((response, ex) -> {
+            if (ex != null) {
+                failedBatches.increment();
+                log.warn("Core API 배치 호출 실패 ({}건): {}", futures.size(), ex.getMessage());
+                futures.forEach(f -> f.completeExceptionally(ex));
+                return;
+            }
+            demultiplex(response, futures);
+        });
+    }
+
+    // custom_id 기준으로 결과를 각 호출자에게 전달, 결과가 없는 항목은 실패 처리
+    private void demultiplex(JsonNode response, List<CompletableFuture<JsonNode>> futures) {
+        for (JsonNode result : response.path("results")) {
+            int index = result.path("custom_id").asInt(-1);
+            if (index < 0 || index >= futures.size()) {
+                continue;
+            }
+            int status = result.path("status").asInt(200);
+            JsonNode body = result.get("response");
+            if (status < 300 && body != null && body.isObject()) {
+                futures.get(index).complete(body);
+            } else {
+                failedItems.increment();
+                futures.get(index).completeExceptionally(
+                    new CoreApiException(status < 300 ? 502 : status, result.path("error").asText(null)));
+            }
+        }
+        for (CompletableFuture<JsonNode> future : futures) {
+            if (!future.isDone()) {
+                failedItems.increment();
+                future.completeExceptionally(new CoreApiException(502, "배치 응답에 결과가 없습니다."));
+            }
+        }
+    }
+
+    private static final class PendingBatch {
+        private final String model;
+        private final List<CoreChatRequest> requests = new ArrayList<>();
+        private final List<CoreDeadline> deadlines = new ArrayList<>();
+        private final List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
+        private ScheduledFuture<?> timer;
+
+        PendingBatch(String model) {
+            this.model = model;
+        }
+
+        void add(CoreChatRequest request, CoreDeadline deadline, CompletableFuture<JsonNode> future) {
+            requests.add(request);
+            deadlines.add(deadline);
+            futures.add(future);
+        }
+
+        int size() {
+            return futures.size();
+        }
+    }
+}
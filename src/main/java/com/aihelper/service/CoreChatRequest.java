@@ -0,0 +1,27 @@
+package com.aihelper.service;
+
+import java.util.List;
+
+import com.aihelper.model.ChatMessage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Core API 채팅 요청 본문 (트리를 만들지 않고 바로 직렬화)
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CoreChatRequest {
+    private final List<ChatMessage> messages;
+    private final String model;
+    @JsonProperty("user_id")
+    private final Long userId;
+    @JsonProperty("org_id")
+    private final Long orgId;
+    // 스트리밍 요청일 때만 true
+    private final Boolean stream;
+}
@@ -0,0 +1,36 @@
+package com.aihelper.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Core API 채팅 호출 결과 (응답과 응답 출처)
+ * 캐시 적중이나 진행 중인 동일 요청에 합류해 받은 응답은 upstream 토큰을 새로 쓰지 않았으므로 한도 정산/사용량 집계에서 제외합니다.
+ */
+@Getter
+@AllArgsConstructor
+public class CoreChatResult {
+
+    public enum Source {
+        // 이 요청이 직접 Core API를 호출해 받은 응답
+        UPSTREAM,
+        // 응답 캐시 적중
+        CACHE,
+        // 같은 사용자의 진행 중인 동일 요청에 합류 (single-flight)
+        COALESCED,
+        // 호출 실패 시 시뮬레이션/오류 응답
+        SIMULATED
+    }
+
+    private final JsonNode response;
+    private final Source source;
+
+    /**
+     * 한도 정산과 사용량 집계 대상인지 (직접 Core API를 호출한 응답만 해당)
+     */
+    public boolean isBillable() {
+        return source == Source.UPSTREAM;
+    }
+}
@@ -0,0 +1,266 @@
+package com.aihelper.service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Core API 호출용 서킷 브레이커
+ * 최근 N건의 호출 결과(실패율, 느린 호출 비율)를 보고 회로를 열며,
+ * 열린 동안에는 네트워크를 타지 않고 즉시 대체 응답을 사용하게 합니다.
+ * 대기 시간이 지나면 half-open 상태에서 소수의 요청으로 복구 여부를 확인합니다.
+ */
+@Component
+@Slf4j
+public class CoreCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int MAX_TRANSITION_HISTORY = 20;
+
+    private static final byte OUTCOME_SUCCESS = 0;
+    private static final byte OUTCOME_FAILURE = 1;
+    private static final byte OUTCOME_SLOW = 2;
+    private static final byte OUTCOME_SLOW_FAILURE = 3;
+
+    @Value("${aihelper.core.api.breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aihelper.core.api.breaker.window-size:50}")
+    private int windowSize;
+
+    @Value("${aihelper.core.api.breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${aihelper.core.api.breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${aihelper.core.api.breaker.slow-call-rate-threshold:80}")
+    private int slowCallRateThreshold;
+
+    @Value("${aihelper.core.api.breaker.slow-call-ms:20000}")
+    private long slowCallMs;
+
+    @Value("${aihelper.core.api.breaker.open-wait-ms:10000}")
+    private long openWaitMs;
+
+    @Value("${aihelper.core.api.breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    // 슬라이딩 윈도우 (링 버퍼)
+    private byte[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int failureCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAtMillis;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+
+    private long notPermittedCalls;
+    private final Map<State, Long> transitionCounts = new EnumMap<>(State.class);
+    private final Deque<Map<String, Object>> transitions = new ArrayDeque<>();
+
+    @PostConstruct
+    public void init() {
+        window = new byte[windowSize];
+        log.info("Core API 서킷 브레이커 초기화 - 사용: {}, 윈도우: {}, 실패율: {}%, 느린 호출: {}ms/{}%",
+            enabled, windowSize, failureRateThreshold, slowCallMs, slowCallRateThreshold);
+    }
+
+    /**
+     * 호출 허용 여부를 확인합니다. 허용되면 반드시 {@link #onComplete}로 결과를 알려야 합니다.
+     *
+     * @return 호출 가능하면 true
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (!enabled) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAtMillis < openWaitMs) {
+                notPermittedCalls++;
+                return false;
+            }
+            transitionTo(State.HALF_OPEN, "대기 시간 경과, 복구 확인 시작");
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenCalls) {
+                notPermittedCalls++;
+                return false;
+            }
+            halfOpenInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * 허용된 호출의 결과를 기록합니다.
+     *
+     * @param elapsedNanos 소요 시간
+     * @param error 실패 원인 (성공이면 null, 취소면 결과에서 제외)
+     */
+    public synchronized void onComplete(long elapsedNanos, Throwable error) {
+        if (!enabled) {
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            // 취소된 호출은 결과로 보지 않고 half-open 허용량만 반환
+            if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+                halfOpenInFlight--;
+            }
+            return;
+        }
+
+        boolean failure = CoreApiException.isCoreFailure(cause);
+        boolean slow = TimeUnit.NANOSECONDS.toMillis(elapsedNanos) >= slowCallMs;
+
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight > 0) {
+                halfOpenInFlight--;
+            }
+            if (failure || slow) {
+                transitionTo(State.OPEN, failure ? "half-open 호출 실패" : "half-open 호출 지연");
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED, "half-open 호출 " + halfOpenSuccesses + "건 성공");
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            return;
+        }
+
+        record(failure, slow);
+        if (windowCount >= minimumCalls) {
+            int failureRate = failureCount * 100 / windowCount;
+            int slowRate = slowCount * 100 / windowCount;
+            if (failureRate >= failureRateThreshold) {
+                transitionTo(State.OPEN, "실패율 " + failureRate + "%");
+            } else if (slowRate >= slowCallRateThreshold) {
+                transitionTo(State.OPEN, "느린 호출 비율 " + slowRate + "%");
+            }
+        }
+    }
+
+    /**
+     * 회로를 강제로 닫고 윈도우를 초기화합니다.
+     */
+    public synchronized void reset() {
+        transitionTo(State.CLOSED, "관리자 초기화");
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 서킷 브레이커 상태 스냅샷을 반환합니다.
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("state", state);
+        result.put("windowCalls", windowCount);
+        result.put("failureRate", windowCount == 0 ? 0 : failureCount * 100 / windowCount);
+        result.put("slowCallRate", windowCount == 0 ? 0 : slowCount * 100 / windowCount);
+        result.put("notPermittedCalls", notPermittedCalls);
+        if (state == State.OPEN) {
+            result.put("retryInMs", Math.max(0, openWaitMs - (System.currentTimeMillis() - openedAtMillis)));
+        }
+        Map<String, Object> counts = new LinkedHashMap<>();
+        for (State s : State.values()) {
+            counts.put(s.name(), transitionCounts.getOrDefault(s, 0L));
+        }
+        result.put("transitionsTo", counts);
+        List<Map<String, Object>> recent = new ArrayList<>(transitions);
+        result.put("recentTransitions", recent);
+        return result;
+    }
+
+    private void record(boolean failure, boolean slow) {
+        if (windowCount == windowSize) {
+            byte evicted = window[windowIndex];
+            if (evicted == OUTCOME_FAILURE || evicted == OUTCOME_SLOW_FAILURE) {
+                failureCount--;
+            }
+            if (evicted == OUTCOME_SLOW || evicted == OUTCOME_SLOW_FAILURE) {
+                slowCount--;
+            }
+        } else {
+            windowCount++;
+        }
+        byte outcome = failure
+            ? (slow ? OUTCOME_SLOW_FAILURE : OUTCOME_FAILURE)
+            : (slow ? OUTCOME_SLOW : OUTCOME_SUCCESS);
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % windowSize;
+        if (failure) {
+            failureCount++;
+        }
+        if (slow) {
+            slowCount++;
+        }
+    }
+
+    private void transitionTo(State next, String reason) {
+        State previous = state;
+        state = next;
+        if (next == State.OPEN) {
+            openedAtMillis = System.currentTimeMillis();
+        }
+        if (next == State.HALF_OPEN) {
+            halfOpenInFlight = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (next == State.CLOSED || next == State.OPEN) {
+            windowIndex = 0;
+            windowCount = 0;
+            failureCount = 0;
+            slowCount = 0;
+        }
+        transitionCounts.merge(next, 1L, Long::sum);
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("at", Instant.now().toString());
+        event.put("from", previous);
+        event.put("to", next);
+        event.put("reason", reason);
+        transitions.addFirst(event);
+        if (transitions.size() > MAX_TRANSITION_HISTORY) {
+            transitions.removeLast();
+        }
+
+        if (next == State.OPEN) {
+            log.warn("Core API 서킷 OPEN ({} -> {}): {}", previous, next, reason);
+        } else {
+            log.info("Core API 서킷 상태 변경 ({} -> {}): {}", previous, next, reason);
+        }
+    }
+
+    /**
+     * 회로가 열려 호출이 차단되었을 때 발생하는 예외
+     */
+    public static class OpenException extends RuntimeException {
+        public OpenException() {
+            super("Core API 서킷이 열려 있어 호출하지 않습니다.");
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.aihelper.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.util.Native;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Core API 요청/응답 압축
+ * 요청 본문이 임계값 이상이면 설정한 방식(gzip 또는 zstd)으로 압축해 보내고, 응답은 Accept-Encoding으로 받을 수 있는 방식을 알린 뒤
+ * Core가 고른 Content-Encoding에 따라 직접 해제합니다.
+ * Core가 압축된 요청을 지원하지 않으면(415) 해당 엔드포인트는 이후 zstd -> gzip -> 압축 없음 순서로 한 단계씩 낮춰 보냅니다.
+ * zstd 네이티브 라이브러리를 불러올 수 없는 환경에서는 gzip만 사용합니다.
+ * 압축률과 압축/해제에 쓴 CPU 시간을 집계해 임계값 조정에 사용할 수 있게 합니다.
+ */
+@Component
+@Slf4j
+public class CoreCompression {
+
+    private static final String GZIP = "gzip";
+    private static final String ZSTD = "zstd";
+
+    @Value("${aihelper.core.api.compression.request-enabled:false}")
+    private boolean requestEnabled;
+
+    @Value("${aihelper.core.api.compression.request-threshold-bytes:2048}")
+    private int requestThresholdBytes;
+
+    // gzip 또는 zstd
+    @Value("${aihelper.core.api.compression.request-encoding:gzip}")
+    private String requestEncoding;
+
+    // gzip: 1(BEST_SPEED) ~ 9(BEST_COMPRESSION), zstd: 1 ~ 22 (gzip은 9를 넘으면 9로 제한)
+    @Value("${aihelper.core.api.compression.request-level:1}")
+    private int requestLevel;
+
+    @Value("${aihelper.core.api.compression.response-enabled:true}")
+    private boolean responseEnabled;
+
+    // 응답에 zstd도 받겠다고 알림 (Accept-Encoding: zstd, gzip)
+    @Value("${aihelper.core.api.compression.response-zstd-enabled:false}")
+    private boolean responseZstdEnabled;
+
+    private boolean zstdAvailable;
+    private String acceptEncoding;
+    private final Set<String> unsupportedEndpoints = ConcurrentHashMap.newKeySet();
+    // zstd 요청만 거부한 엔드포인트 (gzip으로 보냄)
+    private final Set<String> zstdUnsupportedEndpoints = ConcurrentHashMap.newKeySet();
+    private ThreadMXBean threadMXBean;
+
+    private final LongAdder requestsCompressed = new LongAdder();
+    private final LongAdder requestsBelowThreshold = new LongAdder();
+    private final LongAdder requestBytesIn = new LongAdder();
+    private final LongAdder requestBytesOut = new LongAdder();
+    private final LongAdder requestCpuNanos = new LongAdder();
+    private final LongAdder responsesCompressed = new LongAdder();
+    private final LongAdder responsesZstd = new LongAdder();
+    private final LongAdder responseWireBytes = new LongAdder();
+    private final LongAdder responseDecodedBytes = new LongAdder();
+    private final LongAdder responseCpuNanos = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        threadMXBean = bean.isCurrentThreadCpuTimeSupported() ? bean : null;
+        requestEncoding = ZSTD.equalsIgnoreCase(requestEncoding) ? ZSTD : GZIP;
+        zstdAvailable = loadZstd();
+        if (ZSTD.equals(requestEncoding) && !zstdAvailable) {
+            requestEncoding = GZIP;
+        }
+        acceptEncoding = responseZstdEnabled && zstdAvailable ? ZSTD + ", " + GZIP : GZIP;
+        log.info("Core API 압축 초기화 - 요청 압축: {} ({}, {}바이트 이상, 레벨 {}), 응답 압축: {} (Accept-Encoding: {})",
+            requestEnabled, requestEncoding, requestThresholdBytes, requestLevel, responseEnabled, acceptEncoding);
+    }
+
+    /**
+     * 요청 본문 엔티티를 만듭니다. 조건을 만족하면 엔드포인트가 받는 방식(zstd 또는 gzip)으로 압축합니다.
+     *
+     * @param endpoint 요청을 보낼 엔드포인트
+     * @param body JSON 본문
+     */
+    public HttpEntity requestEntity(CoreEndpoint endpoint, byte[] body) {
+        if (!requestEnabled || unsupportedEndpoints.contains(endpoint.getUrl())) {
+            return new ByteArrayEntity(body, ContentType.APPLICATION_JSON);
+        }
+        if (body.length < requestThresholdBytes) {
+            requestsBelowThreshold.increment();
+            return new ByteArrayEntity(body, ContentType.APPLICATION_JSON);
+        }
+        String encoding = ZSTD.equals(requestEncoding) && !zstdUnsupportedEndpoints.contains(endpoint.getUrl())
+            ? ZSTD : GZIP;
+        long cpuStart = cpuNanos();
+        byte[] compressed = ZSTD.equals(encoding) ? Zstd.compress(body, requestLevel) : gzip(body);
+        if (compressed == null) {
+            return new ByteArrayEntity(body, ContentType.APPLICATION_JSON);
+        }
+        requestCpuNanos.add(cpuNanos() - cpuStart);
+        requestsCompressed.increment();
+        requestBytesIn.add(body.length);
+        requestBytesOut.add(compressed.length);
+
+        ByteArrayEntity entity = new ByteArrayEntity(compressed, ContentType.APPLICATION_JSON);
+        entity.setContentEncoding(encoding);
+        return entity;
+    }
+
+    public static boolean isCompressed(HttpEntity entity) {
+        return encodingOf(entity) != null;
+    }
+
+    /**
+     * 엔드포인트가 이 압축 방식의 요청을 지원하지 않는다고 기록합니다 (415 응답).
+     * zstd가 거부되면 이후 gzip으로, gzip이 거부되면 압축 없이 보냅니다.
+     *
+     * @param endpoint 요청을 보낸 엔드포인트
+     * @param entity 거부된 요청 본문 엔티티
+     */
+    public void markUnsupported(CoreEndpoint endpoint, HttpEntity entity) {
+        if (ZSTD.equals(encodingOf(entity))) {
+            if (zstdUnsupportedEndpoints.add(endpoint.getUrl())) {
+                log.warn("Core 엔드포인트가 zstd 요청을 지원하지 않아 gzip으로 보냅니다: {}", endpoint.getUrl());
+            }
+            return;
+        }
+        if (unsupportedEndpoints.add(endpoint.getUrl())) {
+            log.warn("Core 엔드포인트가 압축된 요청을 지원하지 않아 압축을 끕니다: {}", endpoint.getUrl());
+        }
+    }
+
+    /**
+     * 압축된 응답을 받을 수 있음을 알립니다 (zstd 사용 시 zstd 우선, Core가 방식을 고름).
+     */
+    public void acceptCompressed(HttpPost post) {
+        if (responseEnabled) {
+            post.setHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+    }
+
+    /**
+     * 응답 본문을 모두 읽습니다 (gzip/zstd면 해제).
+     */
+    public byte[] readBody(HttpEntity entity) throws IOException {
+        if (!isCompressed(entity)) {
+            return EntityUtils.toByteArray(entity);
+        }
+        long cpuStart = cpuNanos();
+        try (InputStream in = decode(entity)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            responseCpuNanos.add(cpuNanos() - cpuStart);
+        }
+    }
+
+    /**
+     * 응답 본문 스트림을 반환합니다 (gzip/zstd면 해제하는 스트림, 닫을 때 바이트 수 집계).
+     */
+    public InputStream decode(HttpEntity entity) throws IOException {
+        String encoding = encodingOf(entity);
+        if (encoding == null) {
+            return entity.getContent();
+        }
+        boolean zstd = ZSTD.equals(encoding);
+        CountingInputStream wire = new CountingInputStream(entity.getContent());
+        InputStream decoder = zstd ? new ZstdInputStream(wire) : new GZIPInputStream(wire, 8192);
+        CountingInputStream decoded = new CountingInputStream(decoder) {
+            private boolean recorded;
+
+            @Override
+            public void close() throws IOException {
+                if (!recorded) {
+                    recorded = true;
+                    responsesCompressed.increment();
+                    if (zstd) {
+                        responsesZstd.increment();
+                    }
+                    responseWireBytes.add(wire.count);
+                    responseDecodedBytes.add(count);
+                }
+                super.close();
+            }
+        };
+        return decoded;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long compressedRequests = requestsCompressed.sum();
+        long bytesIn = requestBytesIn.sum();
+        long compressedResponses = responsesCompressed.sum();
+        long decodedBytes = responseDecodedBytes.sum();
+        result.put("requestEnabled", requestEnabled);
+        result.put("requestEncoding", requestEncoding);
+        result.put("zstdAvailable", zstdAvailable);
+        result.put("requestThresholdBytes", requestThresholdBytes);
+        result.put("requestLevel", requestLevel);
+        result.put("responseEnabled", responseEnabled);
+        result.put("acceptEncoding", acceptEncoding);
+        result.put("cpuTimeMeasured", threadMXBean != null);
+        result.put("requestsCompressed", compressedRequests);
+        result.put("requestsBelowThreshold", requestsBelowThreshold.sum());
+        result.put("requestBytesIn", bytesIn);
+        result.put("requestBytesOut", requestBytesOut.sum());
+        result.put("requestRatio", bytesIn == 0 ? 0.0 : (double) requestBytesOut.sum() / bytesIn);
+        result.put("requestCpuMicrosPerRequest", compressedRequests == 0 ? 0
+            : TimeUnit.NANOSECONDS.toMicros(requestCpuNanos.sum() / compressedRequests));
+        result.put("responsesCompressed", compressedResponses);
+        result.put("responsesZstd", responsesZstd.sum());
+        result.put("responseWireBytes", responseWireBytes.sum());
+        result.put("responseDecodedBytes", decodedBytes);
+        result.put("responseRatio", decodedBytes == 0 ? 0.0 : (double) responseWireBytes.sum() / decodedBytes);
+        result.put("responseCpuMicrosPerResponse", compressedResponses == 0 ? 0
+            : TimeUnit.NANOSECONDS.toMicros(responseCpuNanos.sum() / compressedResponses));
+        result.put("unsupportedEndpoints", unsupportedEndpoints);
+        result.put("zstdUnsupportedEndpoints", zstdUnsupportedEndpoints);
+        return result;
+    }
+
+    // 압축 방식 (gzip/zstd가 아니면 null)
+    private static String encodingOf(HttpEntity entity) {
+        Header encoding = entity != null ? entity.getContentEncoding() : null;
+        if (encoding == null) {
+            return null;
+        }
+        String value = encoding.getValue().trim();
+        if (GZIP.equalsIgnoreCase(value)) {
+            return GZIP;
+        }
+        return ZSTD.equalsIgnoreCase(value) ? ZSTD : null;
+    }
+
+    private byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 8192) {
+            {
+                def.setLevel(Math.min(Deflater.BEST_COMPRESSION, requestLevel));
+            }
+        }) {
+            gzip.write(body);
+        } catch (IOException e) {
+            // 메모리 스트림이므로 발생하지 않음
+            return null;
+        }
+        return compressed.toByteArray();
+    }
+
+    // zstd 네이티브 라이브러리 로드 (지원하지 않는 플랫폼이면 gzip만 사용)
+    private static boolean loadZstd() {
+        try {
+            Native.load();
+            return true;
+        } catch (LinkageError e) {
+            log.warn("zstd 네이티브 라이브러리를 불러올 수 없어 gzip만 사용합니다: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // 현재 스레드 CPU 시간 (지원하지 않으면 경과 시간으로 대체)
+    private long cpuNanos() {
+        return threadMXBean != null ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        protected long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
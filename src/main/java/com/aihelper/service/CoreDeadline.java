@@ -0,0 +1,68 @@
+package com.aihelper.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 단위 처리 기한(deadline)
+ * 컨트롤러에서 생성되어 실행 풀, Core API 호출까지 그대로 전달되며,
+ * Core API에는 남은 시간(ms)을 {@link #HEADER} 헤더로 전달합니다.
+ * 서버 간 시계 차이의 영향을 받지 않도록 절대 시각이 아닌 남은 시간을 사용합니다.
+ */
+public final class CoreDeadline {
+
+    public static final String HEADER = "X-Request-Deadline-Ms";
+
+    private static final CoreDeadline NONE = new CoreDeadline(Long.MAX_VALUE, false);
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+
+    private CoreDeadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    /**
+     * 지금부터 주어진 시간 뒤에 만료되는 deadline
+     */
+    public static CoreDeadline after(long millis) {
+        return new CoreDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis)), true);
+    }
+
+    /**
+     * 기한 없음
+     */
+    public static CoreDeadline none() {
+        return NONE;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+     * 남은 시간 (기한이 없으면 Long.MAX_VALUE, 만료되었으면 0)
+     */
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return bounded && deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * 기본 타임아웃과 남은 시간 중 짧은 쪽을 반환합니다.
+     */
+    public long capMillis(long timeoutMillis) {
+        return Math.min(timeoutMillis, remainingMillis());
+    }
+
+    @Override
+    public String toString() {
+        return bounded ? remainingMillis() + "ms" : "none";
+    }
+}
@@ -0,0 +1,140 @@
+package com.aihelper.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ai-helper-core 엔드포인트 하나의 상태
+ * 진행 중 요청 수, peak-EWMA 지연 시간, 헬스 체크 결과, 이상치 제외(ejection) 상태를 관리합니다.
+ */
+public class CoreEndpoint {
+
+    private final String url;
+    private final long decayNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    // peak-EWMA 상태 (synchronized 로 보호)
+    private double ewmaNanos;
+    private long lastSampleNanos;
+
+    private volatile boolean healthy = true;
+    private volatile long ejectedUntilMillis;
+    private int consecutiveFailures;
+    private int ejectionCount;
+
+    public CoreEndpoint(String url, long decayMillis) {
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMillis);
+        this.lastSampleNanos = System.nanoTime();
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 요청 시작을 기록합니다.
+     */
+    public void begin() {
+        inFlight.incrementAndGet();
+        requests.increment();
+    }
+
+    /**
+     * 요청 종료를 기록합니다.
+     *
+     * @param elapsedNanos 소요 시간
+     * @param failure Core 장애로 볼 실패 여부
+     * @param cancelled 취소된 요청이면 지연 시간/실패 통계에서 제외
+     * @return 연속 실패 횟수
+     */
+    public synchronized int end(long elapsedNanos, boolean failure, boolean cancelled) {
+        inFlight.decrementAndGet();
+        if (cancelled) {
+            return consecutiveFailures;
+        }
+        recordLatency(elapsedNanos);
+        if (failure) {
+            failures.increment();
+            return ++consecutiveFailures;
+        }
+        consecutiveFailures = 0;
+        return 0;
+    }
+
+    /**
+     * 부하 점수 (peak-EWMA 지연 시간 x (진행 중 요청 + 1))
+     */
+    public synchronized double peakEwmaScore() {
+        long now = System.nanoTime();
+        double decayed = ewmaNanos * Math.exp(-(now - lastSampleNanos) / (double) decayNanos);
+        return Math.max(decayed, 1.0) * (inFlight.get() + 1);
+    }
+
+    // 새 샘플이 현재 값보다 크면 즉시 반영(peak), 작으면 시간 가중 평균으로 천천히 감소
+    private void recordLatency(long sampleNanos) {
+        long now = System.nanoTime();
+        if (sampleNanos > ewmaNanos) {
+            ewmaNanos = sampleNanos;
+        } else {
+            double weight = Math.exp(-(now - lastSampleNanos) / (double) decayNanos);
+            ewmaNanos = ewmaNanos * weight + sampleNanos * (1 - weight);
+        }
+        lastSampleNanos = now;
+    }
+
+    public boolean isAvailable(long nowMillis) {
+        return healthy && nowMillis >= ejectedUntilMillis;
+    }
+
+    public void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * 이상치로 판단된 엔드포인트를 일정 시간 동안 선택 대상에서 제외합니다.
+     * 제외될 때마다 제외 시간이 늘어납니다 (최대값 제한).
+     */
+    public synchronized void eject(long baseMillis, long maxMillis) {
+        ejectionCount++;
+        long duration = Math.min(maxMillis, baseMillis * ejectionCount);
+        ejectedUntilMillis = System.currentTimeMillis() + duration;
+        consecutiveFailures = 0;
+    }
+
+    public boolean isEjected(long nowMillis) {
+        return nowMillis < ejectedUntilMillis;
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        long nowMillis = System.currentTimeMillis();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("url", url);
+        map.put("healthy", healthy);
+        map.put("ejected", isEjected(nowMillis));
+        if (isEjected(nowMillis)) {
+            map.put("ejectedForMs", ejectedUntilMillis - nowMillis);
+        }
+        map.put("inFlight", inFlight.get());
+        map.put("ewmaLatencyMs", ewmaNanos / 1_000_000.0);
+        map.put("requests", requests.sum());
+        map.put("failures", failures.sum());
+        map.put("consecutiveFailures", consecutiveFailures);
+        map.put("ejections", ejectionCount);
+        return map;
+    }
+}
@@ -0,0 +1,265 @@
+package com.aihelper.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ai-helper-core 엔드포인트 목록과 부하 분산
+ * 사용 가능한 엔드포인트 중 무작위 두 개를 골라 부하 점수가 낮은 쪽을 선택합니다 (power of two choices).
+ * 주기적인 헬스 체크(active)와 연속 실패 기반 제외(passive outlier ejection)를 함께 사용합니다.
+ */
+@Component
+@Slf4j
+public class CoreEndpointPool {
+
+    public enum Strategy { LEAST_OUTSTANDING, PEAK_EWMA }
+
+    private final CloseableHttpClient httpClient;
+
+    @Value("${aihelper.core.api.url:http://localhost:8000}")
+    private String primaryUrl;
+
+    // 쉼표로 구분된 엔드포인트 목록 (비어 있으면 aihelper.core.api.url 하나만 사용)
+    @Value("${aihelper.core.api.urls:}")
+    private String urls;
+
+    @Value("${aihelper.core.api.lb.strategy:PEAK_EWMA}")
+    private Strategy strategy;
+
+    @Value("${aihelper.core.api.lb.ewma-decay-ms:10000}")
+    private long ewmaDecayMs;
+
+    @Value("${aihelper.core.api.health.path:/health}")
+    private String healthPath;
+
+    @Value("${aihelper.core.api.health.interval-ms:5000}")
+    private long healthIntervalMs;
+
+    @Value("${aihelper.core.api.health.timeout-ms:1000}")
+    private int healthTimeoutMs;
+
+    @Value("${aihelper.core.api.outlier.consecutive-failures:5}")
+    private int ejectAfterFailures;
+
+    @Value("${aihelper.core.api.outlier.base-ejection-ms:30000}")
+    private long baseEjectionMs;
+
+    @Value("${aihelper.core.api.outlier.max-ejection-ms:300000}")
+    private long maxEjectionMs;
+
+    @Value("${aihelper.core.api.outlier.max-ejection-percent:50}")
+    private int maxEjectionPercent;
+
+    private final List<CoreEndpoint> endpoints = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService healthChecker;
+
+    public CoreEndpointPool(CloseableHttpClient coreHttpClient) {
+        this.httpClient = coreHttpClient;
+    }
+
+    @PostConstruct
+    public void init() {
+        String spec = urls == null || urls.trim().isEmpty() ? primaryUrl : urls;
+        for (String url : spec.split(",")) {
+            if (!url.trim().isEmpty()) {
+                endpoints.add(new CoreEndpoint(url.trim(), ewmaDecayMs));
+            }
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "core-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (healthIntervalMs > 0) {
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, healthIntervalMs, healthIntervalMs,
+                TimeUnit.MILLISECONDS);
+        }
+        log.info("Core API 엔드포인트 초기화 - {}개, 전략: {}", endpoints.size(), strategy);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        healthChecker.shutdownNow();
+    }
+
+    /**
+     * 요청을 보낼 엔드포인트를 선택합니다.
+     * 사용 가능한 엔드포인트가 없으면 전체 중에서 선택합니다 (모두 제외되어 요청이 끊기는 것을 방지).
+     *
+     * @param exclude 제외할 엔드포인트 (없으면 null)
+     */
+    public CoreEndpoint select(CoreEndpoint exclude) {
+        List<CoreEndpoint> snapshot = new ArrayList<>(endpoints);
+        if (snapshot.isEmpty()) {
+            throw new IllegalStateException("등록된 Core API 엔드포인트가 없습니다.");
+        }
+        long nowMillis = System.currentTimeMillis();
+        List<CoreEndpoint> candidates = new ArrayList<>(snapshot.size());
+        for (CoreEndpoint endpoint : snapshot) {
+            if (endpoint != exclude && endpoint.isAvailable(nowMillis)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            for (CoreEndpoint endpoint : snapshot) {
+                if (endpoint != exclude) {
+                    candidates.add(endpoint);
+                }
+            }
+            if (candidates.isEmpty()) {
+                candidates = snapshot;
+            }
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        CoreEndpoint a = candidates.get(first);
+        CoreEndpoint b = candidates.get(second);
+        return score(a) <= score(b) ? a : b;
+    }
+
+    public CoreEndpoint select() {
+        return select(null);
+    }
+
+    /**
+     * 요청 결과를 기록하고, 연속 실패가 기준을 넘으면 엔드포인트를 일시 제외합니다.
+     */
+    public void onComplete(CoreEndpoint endpoint, long elapsedNanos, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        boolean cancelled = cause instanceof CancellationException;
+        boolean failure = !cancelled && CoreApiException.isCoreFailure(cause);
+        int consecutive = endpoint.end(elapsedNanos, failure, cancelled);
+        if (failure && consecutive >= ejectAfterFailures && canEject()) {
+            endpoint.eject(baseEjectionMs, maxEjectionMs);
+            log.warn("Core API 엔드포인트 일시 제외: {} (연속 실패 {}회)", endpoint.getUrl(), consecutive);
+        }
+    }
+
+    /**
+     * 엔드포인트를 추가합니다.
+     *
+     * @return 추가되었으면 true, 이미 있으면 false
+     */
+    public synchronized boolean add(String url) {
+        CoreEndpoint endpoint = new CoreEndpoint(url, ewmaDecayMs);
+        if (find(endpoint.getUrl()) != null) {
+            return false;
+        }
+        endpoints.add(endpoint);
+        log.info("Core API 엔드포인트 추가: {}", endpoint.getUrl());
+        return true;
+    }
+
+    /**
+     * 엔드포인트를 제거합니다. 진행 중인 요청은 그대로 완료됩니다.
+     *
+     * @return 제거되었으면 true
+     */
+    public synchronized boolean remove(String url) {
+        CoreEndpoint endpoint = find(new CoreEndpoint(url, ewmaDecayMs).getUrl());
+        if (endpoint == null) {
+            return false;
+        }
+        endpoints.remove(endpoint);
+        log.info("Core API 엔드포인트 제거: {}", endpoint.getUrl());
+        return true;
+    }
+
+    /**
+     * 스트리밍 URL 등 고정 주소가 필요한 경우 사용할 엔드포인트 주소
+     */
+    public String primaryUrl() {
+        return select().getUrl();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("strategy", strategy);
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (CoreEndpoint endpoint : endpoints) {
+            list.add(endpoint.toMap());
+        }
+        result.put("endpoints", list);
+        return result;
+    }
+
+    private double score(CoreEndpoint endpoint) {
+        return strategy == Strategy.PEAK_EWMA ? endpoint.peakEwmaScore() : endpoint.getInFlight();
+    }
+
+    // 전체 중 일정 비율 이상은 제외하지 않음
+    private boolean canEject() {
+        long nowMillis = System.currentTimeMillis();
+        int total = endpoints.size();
+        int ejected = 0;
+        for (CoreEndpoint endpoint : endpoints) {
+            if (endpoint.isEjected(nowMillis)) {
+                ejected++;
+            }
+        }
+        return (ejected + 1) * 100 <= total * maxEjectionPercent;
+    }
+
+    private CoreEndpoint find(String normalizedUrl) {
+        for (CoreEndpoint endpoint : endpoints) {
+            if (endpoint.getUrl().equals(normalizedUrl)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    private void checkHealth() {
+        RequestConfig config = RequestConfig.custom()
+            .setConnectTimeout(healthTimeoutMs)
+            .setSocketTimeout(healthTimeoutMs)
+            .setConnectionRequestTimeout(healthTimeoutMs)
+            .build();
+        for (CoreEndpoint endpoint : endpoints) {
+            boolean healthy;
+            HttpGet get = new HttpGet(endpoint.getUrl() + healthPath);
+            get.setConfig(config);
+            try (CloseableHttpResponse response = httpClient.execute(get)) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                int status = response.getStatusLine().getStatusCode();
+                healthy = status >= 200 && status < 300;
+            } catch (Exception e) {
+                healthy = false;
+            }
+            if (healthy != endpoint.isHealthy()) {
+                log.warn("Core API 엔드포인트 상태 변경: {} -> {}", endpoint.getUrl(), healthy ? "정상" : "비정상");
+            }
+            endpoint.setHealthy(healthy);
+        }
+    }
+}
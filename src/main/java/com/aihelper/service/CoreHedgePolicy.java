@@ -0,0 +1,197 @@
+package com.aihelper.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Core API 헤지(hedged request) 정책
+ * 최근 응답 시간의 백분위수만큼 기다려도 응답이 없으면 다른 엔드포인트로 같은 요청을 한 번 더 보냅니다.
+ * 헤지 요청은 전체 요청 대비 일정 비율(budget) 이내로만 허용합니다.
+ */
+@Component
+@Slf4j
+public class CoreHedgePolicy {
+
+    // 예산 단위 (요청 1건당 budgetPercent * 10 적립, 헤지 1건당 1000 차감)
+    private static final long UNITS_PER_HEDGE = 1000;
+    private static final int RECOMPUTE_EVERY = 50;
+
+    @Value("${aihelper.core.api.hedge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${aihelper.core.api.hedge.percentile:95}")
+    private double percentile;
+
+    @Value("${aihelper.core.api.hedge.initial-delay-ms:3000}")
+    private long initialDelayMs;
+
+    @Value("${aihelper.core.api.hedge.min-delay-ms:200}")
+    private long minDelayMs;
+
+    @Value("${aihelper.core.api.hedge.min-samples:100}")
+    private int minSamples;
+
+    @Value("${aihelper.core.api.hedge.window-size:1000}")
+    private int windowSize;
+
+    @Value("${aihelper.core.api.hedge.budget-percent:5}")
+    private int budgetPercent;
+
+    // 적립 가능한 최대 헤지 수 (트래픽이 적을 때 예산이 무한히 쌓이지 않도록 제한)
+    @Value("${aihelper.core.api.hedge.max-burst:10}")
+    private int maxBurst;
+
+    // 최근 응답 시간 (링 버퍼, synchronized 로 보호)
+    private long[] samples;
+    private int sampleIndex;
+    private int sampleCount;
+    private int sinceRecompute;
+    private volatile long delayMs;
+
+    private final AtomicLong budget = new AtomicLong();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder primaryWins = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+    private final LongAdder deadlineSkipped = new LongAdder();
+
+    private ScheduledExecutorService timer;
+
+    @PostConstruct
+    public void init() {
+        samples = new long[windowSize];
+        delayMs = initialDelayMs;
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "core-hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Core API 헤지 초기화 - 사용: {}, p{} 지연 후 헤지, 예산: {}%", enabled, percentile, budgetPercent);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 헤지 대상 요청 1건을 기록하고 예산을 적립합니다.
+     */
+    public void onRequest() {
+        requests.increment();
+        long max = maxBurst * UNITS_PER_HEDGE;
+        long earned = budgetPercent * UNITS_PER_HEDGE / 100;
+        while (true) {
+            long current = budget.get();
+            long next = Math.min(max, current + earned);
+            if (current == next || budget.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 헤지 요청을 보낼 예산이 남아 있으면 차감하고 true를 반환합니다.
+     */
+    public boolean tryAcquireHedge() {
+        while (true) {
+            long current = budget.get();
+            if (current < UNITS_PER_HEDGE) {
+                budgetDenied.increment();
+                return false;
+            }
+            if (budget.compareAndSet(current, current - UNITS_PER_HEDGE)) {
+                hedgesSent.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 헤지를 보내기 전까지 기다릴 시간
+     */
+    public long delayMillis() {
+        return delayMs;
+    }
+
+    /**
+     * 남은 시간이 헤지 지연보다 짧아 헤지를 생략한 경우를 기록합니다.
+     */
+    public void recordDeadlineSkip() {
+        deadlineSkipped.increment();
+    }
+
+    /**
+     * 헤지 없이 끝난 호출 또는 첫 번째 요청의 응답 시간을 기록합니다.
+     */
+    public synchronized void recordLatency(long elapsedNanos) {
+        samples[sampleIndex] = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        sampleIndex = (sampleIndex + 1) % samples.length;
+        if (sampleCount < samples.length) {
+            sampleCount++;
+        }
+        if (++sinceRecompute >= RECOMPUTE_EVERY && sampleCount >= minSamples) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100.0 * sorted.length) - 1);
+            delayMs = Math.max(minDelayMs, sorted[Math.max(0, index)]);
+        }
+    }
+
+    /**
+     * 헤지가 전송된 요청에서 어느 쪽 응답이 먼저 도착했는지 기록합니다.
+     */
+    public void recordWinner(boolean hedgeWon) {
+        if (hedgeWon) {
+            hedgeWins.increment();
+        } else {
+            primaryWins.increment();
+        }
+    }
+
+    ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return timer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, Object> snapshot() {
+        long sent = hedgesSent.sum();
+        long total = requests.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("percentile", percentile);
+        result.put("delayMs", delayMs);
+        result.put("budgetPercent", budgetPercent);
+        result.put("availableHedges", budget.get() / UNITS_PER_HEDGE);
+        result.put("requests", total);
+        result.put("hedgesSent", sent);
+        result.put("hedgeRate", total == 0 ? 0.0 : (double) sent / total);
+        result.put("hedgeWins", hedgeWins.sum());
+        result.put("primaryWins", primaryWins.sum());
+        result.put("hedgeWinRate", sent == 0 ? 0.0 : (double) hedgeWins.sum() / sent);
+        result.put("budgetDenied", budgetDenied.sum());
+        result.put("deadlineSkipped", deadlineSkipped.sum());
+        return result;
+    }
+}
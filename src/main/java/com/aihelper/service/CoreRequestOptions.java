@@ -0,0 +1,30 @@
+package com.aihelper.service;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Core API 요청별 옵션
+ */
+@Getter
+@Builder
+public class CoreRequestOptions {
+
+    private static final CoreRequestOptions DEFAULTS = CoreRequestOptions.builder().build();
+
+    // 응답 캐시 사용 여부 (요청 본문의 "cache": false 로 우회)
+    @Builder.Default
+    private final boolean useCache = true;
+
+    // 요청 처리 기한 (컨트롤러에서 시작되어 Core API 호출까지 전달)
+    @Builder.Default
+    private final CoreDeadline deadline = CoreDeadline.none();
+
+    // 다른 요청과 모아 배치 엔드포인트로 보내도 되는지 (비대화형 요청)
+    @Builder.Default
+    private final boolean batchable = false;
+
+    public static CoreRequestOptions defaults() {
+        return DEFAULTS;
+    }
+}
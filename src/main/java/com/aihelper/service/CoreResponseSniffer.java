@@ -0,0 +1,164 @@
+package com.aihelper.service;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+/**
+ * Core API 응답을 그대로 중계하면서 필요한 필드(id, usage)만 추출하는 스트리밍 파서
+ * 응답 트리를 만들지 않으므로 응답 크기와 관계없이 메모리 사용량이 일정합니다.
+ * 전달된 바이트 배열은 feed 호출 안에서만 읽으므로 호출자가 버퍼를 재사용해도 됩니다.
+ */
+public class CoreResponseSniffer {
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private int depth;
+    private String currentField;
+    private boolean inUsage;
+    private boolean failed;
+
+    private String id;
+    private long promptTokens = -1;
+    private long completionTokens = -1;
+    private long totalTokens = -1;
+    private long bytes;
+    private boolean simulated;
+
+    public CoreResponseSniffer(JsonFactory jsonFactory) throws IOException {
+        this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * 응답 조각을 파서에 전달합니다. 파싱 오류가 나면 이후 추출만 중단하고 중계는 계속됩니다.
+     */
+    public void feed(byte[] buffer, int offset, int length) {
+        bytes += length;
+        if (failed || length == 0) {
+            return;
+        }
+        try {
+            if (!feeder.needMoreInput()) {
+                return; // 최상위 JSON 이후의 데이터는 무시
+            }
+            feeder.feedInput(buffer, offset, offset + length);
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token);
+            }
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    /**
+     * 입력이 끝났음을 알립니다.
+     */
+    public void finish() {
+        feeder.endOfInput();
+        try {
+            parser.close();
+        } catch (IOException e) {
+            failed = true;
+        }
+    }
+
+    void markSimulated() {
+        this.simulated = true;
+    }
+
+    private void handle(JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                if (depth == 1 && "usage".equals(currentField)) {
+                    inUsage = true;
+                }
+                depth++;
+                currentField = null;
+                break;
+            case START_ARRAY:
+                depth++;
+                currentField = null;
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                depth--;
+                if (depth <= 1) {
+                    inUsage = false;
+                }
+                break;
+            case FIELD_NAME:
+                currentField = parser.getCurrentName();
+                break;
+            case VALUE_STRING:
+                if (depth == 1 && "id".equals(currentField)) {
+                    id = parser.getText();
+                }
+                break;
+            case VALUE_NUMBER_INT:
+                if (inUsage && depth == 2 && currentField != null) {
+                    switch (currentField) {
+                        case "prompt_tokens":
+                            promptTokens = parser.getLongValue();
+                            break;
+                        case "completion_tokens":
+                            completionTokens = parser.getLongValue();
+                            break;
+                        case "total_tokens":
+                            totalTokens = parser.getLongValue();
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getPromptTokens() {
+        return promptTokens;
+    }
+
+    public long getCompletionTokens() {
+        return completionTokens;
+    }
+
+    /**
+     * 전체 토큰 수 (total_tokens가 없으면 prompt_tokens + completion_tokens, usage가 없으면 -1)
+     */
+    public long getTotalTokens() {
+        if (totalTokens >= 0) {
+            return totalTokens;
+        }
+        if (promptTokens < 0 && completionTokens < 0) {
+            return -1;
+        }
+        return Math.max(0, promptTokens) + Math.max(0, completionTokens);
+    }
+
+    /**
+     * Core가 usage 토큰 수를 하나라도 보냈는지 여부
+     */
+    public boolean hasUsage() {
+        return promptTokens >= 0 || completionTokens >= 0 || totalTokens >= 0;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public boolean isSimulated() {
+        return simulated;
+    }
+}
@@ -0,0 +1,256 @@
+package com.aihelper.service;
+
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Core API 재시도 정책
+ * 일시적인 오류(연결 실패, 5xx, 429, 읽기 타임아웃)만 지수 백오프 + full jitter로 재시도합니다.
+ * 재시도는 전체 요청 대비 일정 비율(budget) 이내로만 허용해 장애 시 재시도가 부하를 키우지 않도록 합니다.
+ * 같은 요청의 모든 시도에는 동일한 Idempotency-Key 헤더를 붙여 Core에서 중복 처리를 막을 수 있게 합니다.
+ */
+@Component
+@Slf4j
+public class CoreRetryPolicy {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    // 예산 단위 (요청 1건당 budgetPercent * 10 적립, 재시도 1건당 1000 차감)
+    private static final long UNITS_PER_RETRY = 1000;
+
+    /**
+     * 실패 원인 분류
+     */
+    public enum Reason { CONNECT_FAILURE, SERVER_ERROR, RATE_LIMITED, READ_TIMEOUT, NOT_RETRYABLE }
+
+    /**
+     * 요청 최종 결과 분류
+     */
+    public enum Outcome { SUCCESS_FIRST_ATTEMPT, SUCCESS_AFTER_RETRY, NOT_RETRYABLE, EXHAUSTED, BUDGET_DENIED, DEADLINE }
+
+    @Value("${aihelper.core.api.retry.enabled:true}")
+    private boolean enabled;
+
+    // 첫 시도를 포함한 최대 시도 횟수
+    @Value("${aihelper.core.api.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${aihelper.core.api.retry.base-delay-ms:100}")
+    private long baseDelayMs;
+
+    @Value("${aihelper.core.api.retry.max-delay-ms:2000}")
+    private long maxDelayMs;
+
+    // 읽기 타임아웃은 Core가 이미 처리 중일 수 있으므로 별도로 끌 수 있음
+    @Value("${aihelper.core.api.retry.retry-read-timeout:true}")
+    private boolean retryReadTimeout;
+
+    @Value("${aihelper.core.api.retry.budget-percent:10}")
+    private int budgetPercent;
+
+    // 적립 가능한 최대 재시도 수
+    @Value("${aihelper.core.api.retry.max-burst:20}")
+    private int maxBurst;
+
+    private final AtomicLong budget = new AtomicLong();
+    private ScheduledExecutorService timer;
+
+    private final LongAdder requests = new LongAdder();
+    private final Map<Reason, LongAdder> retriesByReason = new EnumMap<>(Reason.class);
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+
+    @PostConstruct
+    public void init() {
+        for (Reason reason : Reason.values()) {
+            retriesByReason.put(reason, new LongAdder());
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+        // 시작 직후 장애에도 최소한의 재시도는 가능하도록 절반을 미리 적립
+        budget.set(maxBurst * UNITS_PER_RETRY / 2);
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "core-retry-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Core API 재시도 초기화 - 사용: {}, 최대 시도: {}, 백오프: {}~{}ms, 예산: {}%",
+            enabled, maxAttempts, baseDelayMs, maxDelayMs, budgetPercent);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled && maxAttempts > 1;
+    }
+
+    /**
+     * 재시도 대상 요청 1건을 기록하고 예산을 적립합니다.
+     */
+    public void onRequest() {
+        requests.increment();
+        long max = maxBurst * UNITS_PER_RETRY;
+        long earned = budgetPercent * UNITS_PER_RETRY / 100;
+        while (true) {
+            long current = budget.get();
+            long next = Math.min(max, current + earned);
+            if (current == next || budget.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 성공한 요청의 결과를 기록합니다.
+     *
+     * @param attempt 성공한 시도 번호 (1부터)
+     */
+    public void recordSuccess(int attempt) {
+        outcomes.get(attempt == 1 ? Outcome.SUCCESS_FIRST_ATTEMPT : Outcome.SUCCESS_AFTER_RETRY).increment();
+    }
+
+    /**
+     * 실패한 시도를 재시도할지 판단하고, 재시도한다면 기다릴 시간을 반환합니다.
+     * 재시도하지 않으면 최종 결과를 기록하고 -1을 반환합니다.
+     *
+     * @param failure 실패 원인
+     * @param attempt 실패한 시도 번호 (1부터)
+     * @param deadline 요청 처리 기한
+     * @return 재시도 전 대기 시간 (ms), 재시도하지 않으면 -1
+     */
+    public long nextDelayMillis(Throwable failure, int attempt, CoreDeadline deadline) {
+        Throwable cause = unwrap(failure);
+        Reason reason = classify(cause);
+        if (reason == Reason.NOT_RETRYABLE) {
+            return giveUp(Outcome.NOT_RETRYABLE);
+        }
+        if (attempt >= maxAttempts) {
+            return giveUp(Outcome.EXHAUSTED);
+        }
+
+        // full jitter: [0, min(max, base * 2^(attempt-1))]
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (reason == Reason.RATE_LIMITED && cause instanceof CoreApiException) {
+            // Retry-After가 있으면 그보다 먼저 보내지 않음
+            delay = Math.max(delay, ((CoreApiException) cause).getRetryAfterMillis());
+        }
+        if (deadline.remainingMillis() <= delay) {
+            return giveUp(Outcome.DEADLINE);
+        }
+        if (!tryAcquireRetry()) {
+            return giveUp(Outcome.BUDGET_DENIED);
+        }
+        retriesByReason.get(reason).increment();
+        return delay;
+    }
+
+    /**
+     * 실패 원인을 분류합니다.
+     */
+    public Reason classify(Throwable cause) {
+        if (cause instanceof CoreApiException) {
+            int status = ((CoreApiException) cause).getStatusCode();
+            if (status == 429) {
+                return Reason.RATE_LIMITED;
+            }
+            return status == 500 || status == 502 || status == 503 || status == 504
+                ? Reason.SERVER_ERROR
+                : Reason.NOT_RETRYABLE;
+        }
+        // 커넥션 풀 대기 초과는 로컬 포화이므로 재시도하지 않음 (ConnectTimeoutException의 하위 클래스)
+        if (cause instanceof ConnectionPoolTimeoutException) {
+            return Reason.NOT_RETRYABLE;
+        }
+        if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException
+            || cause instanceof NoHttpResponseException) {
+            return Reason.CONNECT_FAILURE;
+        }
+        if (cause instanceof SocketTimeoutException) {
+            return retryReadTimeout ? Reason.READ_TIMEOUT : Reason.NOT_RETRYABLE;
+        }
+        // connection reset 등
+        if (cause instanceof SocketException) {
+            return Reason.CONNECT_FAILURE;
+        }
+        return Reason.NOT_RETRYABLE;
+    }
+
+    ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return timer.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("maxAttempts", maxAttempts);
+        result.put("baseDelayMs", baseDelayMs);
+        result.put("maxDelayMs", maxDelayMs);
+        result.put("budgetPercent", budgetPercent);
+        result.put("availableRetries", budget.get() / UNITS_PER_RETRY);
+        result.put("requests", requests.sum());
+        Map<String, Long> retries = new LinkedHashMap<>();
+        retriesByReason.forEach((reason, count) -> {
+            if (reason != Reason.NOT_RETRYABLE) {
+                retries.put(reason.name(), count.sum());
+            }
+        });
+        result.put("retriesByReason", retries);
+        Map<String, Long> byOutcome = new LinkedHashMap<>();
+        outcomes.forEach((outcome, count) -> byOutcome.put(outcome.name(), count.sum()));
+        result.put("outcomes", byOutcome);
+        return result;
+    }
+
+    private boolean tryAcquireRetry() {
+        while (true) {
+            long current = budget.get();
+            if (current < UNITS_PER_RETRY) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - UNITS_PER_RETRY)) {
+                return true;
+            }
+        }
+    }
+
+    private long giveUp(Outcome outcome) {
+        outcomes.get(outcome).increment();
+        return -1;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
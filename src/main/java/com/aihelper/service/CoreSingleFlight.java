@@ -0,0 +1,157 @@
+package com.aihelper.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 동일한 Core API 요청이 동시에 진행 중이면 upstream 호출을 하나로 합치는 컴포넌트 (single-flight)
+ * 캐시와 달리 "진행 중인" 요청만 중복 제거하며, 결과는 모든 대기자에게 공유됩니다.
+ * 대기자가 모두 취소(타임아웃)하면 upstream 호출도 취소합니다.
+ * 공유되는 응답 트리는 읽기 전용으로 다뤄야 합니다.
+ */
+@Component
+@Slf4j
+public class CoreSingleFlight {
+
+    @Value("${aihelper.core.api.single-flight.enabled:true}")
+    private boolean enabled;
+
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder cancelledUpstream = new LongAdder();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 진행 중인 동일 요청에 합류하거나, 없으면 새 upstream 호출을 시작합니다.
+     *
+     * @param key 정규화된 요청 키
+     * @param starter upstream 호출 시작 함수 (반환된 future를 cancel하면 호출이 중단되어야 함)
+     * @return 이 호출자 전용 future (cancel 시 대기자에서 빠짐)
+     */
+    public CompletableFuture<JsonNode> join(String key, Supplier<CompletableFuture<JsonNode>> starter) {
+        while (true) {
+            Flight flight = flights.get(key);
+            if (flight == null) {
+                Flight created = new Flight();
+                flight = flights.putIfAbsent(key, created);
+                if (flight == null) {
+                    // 리더: upstream 호출 시작
+                    upstreamCalls.increment();
+                    CompletableFuture<JsonNode> waiter = created.newWaiter(key);
+                    created.start(key, starter);
+                    return waiter;
+                }
+            }
+            if (flight.tryAddWaiter()) {
+                coalesced.increment();
+                log.debug("진행 중인 Core API 요청에 합류 (key: {}, 대기자: {})", key, flight.waiters.get());
+                return flight.newWaiter(key);
+            }
+            // 종료 중인 flight - 제거될 때까지 재시도
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * single-flight 통계 스냅샷을 반환합니다.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("inFlight", flights.size());
+        result.put("upstreamCalls", upstreamCalls.sum());
+        result.put("savedUpstreamCalls", coalesced.sum());
+        result.put("cancelledUpstream", cancelledUpstream.sum());
+        return result;
+    }
+
+    private final class Flight {
+        // 대기자 수, -1이면 종료되어 더 이상 합류 불가
+        private final AtomicInteger waiters = new AtomicInteger(1);
+        private final CompletableFuture<JsonNode> result = new CompletableFuture<>();
+        private volatile CompletableFuture<JsonNode> upstream;
+
+        void start(String key, Supplier<CompletableFuture<JsonNode>> starter) {
+            CompletableFuture<JsonNode> call;
+            try {
+                call = starter.get();
+            } catch (Throwable t) {
+                call = new CompletableFuture<>();
+                call.completeExceptionally(t);
+            }
+            upstream = call;
+            call.whenComplete((response, ex) -> {
+                flights.remove(key, this);
+                if (ex != null) {
+                    result.completeExceptionally(ex);
+                } else {
+                    result.complete(response);
+                }
+            });
+            // 시작 전에 모든 대기자가 떠났다면 바로 취소
+            if (waiters.get() <= 0) {
+                call.cancel(true);
+            }
+        }
+
+        boolean tryAddWaiter() {
+            while (true) {
+                int current = waiters.get();
+                if (current <= 0 || result.isDone()) {
+                    return false;
+                }
+                if (waiters.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        CompletableFuture<JsonNode> newWaiter(String key) {
+            CompletableFuture<JsonNode> waiter = new CompletableFuture<>();
+            result.whenComplete((response, ex) -> {
+                if (ex != null) {
+                    waiter.completeExceptionally(ex);
+                } else {
+                    waiter.complete(response);
+                }
+            });
+            waiter.whenComplete((response, ex) -> {
+                if (ex instanceof CancellationException) {
+                    leave(key);
+                }
+            });
+            return waiter;
+        }
+
+        private void leave(String key) {
+            if (waiters.decrementAndGet() == 0 && !result.isDone()) {
+                // 마지막 대기자가 떠남 - upstream 취소
+                waiters.set(-1);
+                flights.remove(key, this);
+                CompletableFuture<JsonNode> call = upstream;
+                if (call != null && call.cancel(true)) {
+                    cancelledUpstream.increment();
+                    log.debug("대기자가 없어 Core API 호출 취소 (key: {})", key);
+                }
+            }
+        }
+    }
+}
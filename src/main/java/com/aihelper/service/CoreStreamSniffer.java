@@ -0,0 +1,129 @@
+package com.aihelper.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Core API SSE 스트림을 그대로 중계하면서 토큰 사용량을 추출하는 파서
+ * usage가 담긴 청크(보통 마지막 청크)가 있으면 그 값을 쓰고, 없으면 중계한 delta content로 응답 토큰을 추정합니다.
+ * 전달된 바이트 배열은 feed 호출 안에서만 읽으므로 호출자가 버퍼를 재사용해도 됩니다.
+ */
+public class CoreStreamSniffer {
+
+    private static final byte[] DATA_PREFIX = "data:".getBytes(StandardCharsets.US_ASCII);
+    // 이보다 긴 이벤트 줄은 해석하지 않음 (중계는 계속)
+    private static final int MAX_LINE_BYTES = 1024 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final ChatTokenEstimator estimator;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+    private boolean lineTooLong;
+
+    private long bytes;
+    private long chunks;
+    private long promptTokens = -1;
+    private long completionTokens = -1;
+    private long estimatedCompletionTokens;
+
+    public CoreStreamSniffer(ObjectMapper objectMapper, ChatTokenEstimator estimator) {
+        this.objectMapper = objectMapper;
+        this.estimator = estimator;
+    }
+
+    /**
+     * 중계한 스트림 조각을 전달합니다.
+     */
+    public void feed(byte[] buffer, int offset, int length) {
+        bytes += length;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            byte b = buffer[i];
+            if (b == '\n') {
+                handleLine();
+            } else if (b != '\r') {
+                if (line.size() < MAX_LINE_BYTES) {
+                    line.write(b);
+                } else {
+                    lineTooLong = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 스트림이 끝났음을 알립니다 (줄바꿈 없이 끝난 마지막 줄 처리).
+     */
+    public void finish() {
+        handleLine();
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Core가 usage를 보냈는지 여부
+     */
+    public boolean hasUsage() {
+        return promptTokens >= 0 && completionTokens >= 0;
+    }
+
+    public long getPromptTokens() {
+        return promptTokens;
+    }
+
+    public long getCompletionTokens() {
+        return completionTokens;
+    }
+
+    /**
+     * 중계한 delta content로 추정한 응답 토큰 수
+     */
+    public long getEstimatedCompletionTokens() {
+        return estimatedCompletionTokens;
+    }
+
+    private void handleLine() {
+        try {
+            if (lineTooLong || line.size() <= DATA_PREFIX.length) {
+                return;
+            }
+            byte[] data = line.toByteArray();
+            for (int i = 0; i < DATA_PREFIX.length; i++) {
+                if (data[i] != DATA_PREFIX[i]) {
+                    return; // event:, id:, 주석 등
+                }
+            }
+            int start = DATA_PREFIX.length;
+            while (start < data.length && data[start] == ' ') {
+                start++;
+            }
+            if (data.length - start == 0 || data[start] != '{') {
+                return; // [DONE] 등 JSON이 아닌 데이터
+            }
+            JsonNode chunk = objectMapper.readTree(data, start, data.length - start);
+            chunks++;
+            JsonNode usage = chunk.path("usage");
+            if (usage.isObject()) {
+                promptTokens = usage.path("prompt_tokens").asLong(-1);
+                completionTokens = usage.path("completion_tokens").asLong(-1);
+            }
+            JsonNode content = chunk.path("choices").path(0).path("delta").path("content");
+            if (content.isTextual()) {
+                estimatedCompletionTokens += estimator.estimate(content.asText());
+            }
+        } catch (IOException e) {
+            // 해석할 수 없는 청크는 무시
+        } finally {
+            line.reset();
+            lineTooLong = false;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.aihelper.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.aihelper.mapper.OrgQuotaMapper;
+import com.aihelper.mapper.UsageMapper;
+import com.aihelper.model.OrgQuota;
+import com.aihelper.model.UsageRecord;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 조직별 월간 토큰 한도 적용
+ * 요청마다 DB를 조회하지 않고 조직별 남은 토큰(AtomicLong)에서 추정 토큰을 CAS로 먼저 예약한 뒤,
+ * 응답의 usage로 실제 사용량과의 차이를 정산합니다. 한도가 설정되지 않은 조직은 검사하지 않습니다.
+ *
+ * 여러 노드 간 동기화:
+ * - 주기적으로 사용량을 flush한 뒤 org_token_quotas 한도와 이번 달 chat_usage 합계를 읽어 남은 토큰을 다시 계산합니다.
+ * - 각 노드는 동기화 시점 남은 토큰의 1/node-count만 사용할 수 있으므로,
+ *   동기화 사이에 전체 노드가 한도를 넘는 양은 추정치와 실제 사용량의 차이 정도로 제한됩니다.
+ * - DB 동기화에 실패하면 마지막으로 읽은 값으로 계속 판단합니다.
+ */
+@Component
+@Slf4j
+public class OrgTokenQuotaService {
+
+    private final OrgQuotaMapper orgQuotaMapper;
+    private final UsageMapper usageMapper;
+    private final ChatUsageAccounting chatUsageAccounting;
+
+    @Value("${aihelper.chat.quota.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aihelper.chat.quota.sync-interval-ms:10000}")
+    private long syncIntervalMs;
+
+    // 한도를 나눠 쓰는 백엔드 노드 수
+    @Value("${aihelper.chat.quota.node-count:1}")
+    private int nodeCount;
+
+    // 응답 토큰 예약량 (요청 시점에는 알 수 없으므로 고정값 사용)
+    @Value("${aihelper.chat.quota.completion-reserve-tokens:500}")
+    private long completionReserveTokens;
+
+    private final ConcurrentHashMap<Long, OrgState> orgs = new ConcurrentHashMap<>();
+    private ScheduledExecutorService syncer;
+
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder reservedTokens = new LongAdder();
+    private final LongAdder actualTokens = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder failedSyncs = new LongAdder();
+    private volatile long lastSyncAt;
+
+    public OrgTokenQuotaService(OrgQuotaMapper orgQuotaMapper, UsageMapper usageMapper,
+                                ChatUsageAccounting chatUsageAccounting) {
+        this.orgQuotaMapper = orgQuotaMapper;
+        this.usageMapper = usageMapper;
+        this.chatUsageAccounting = chatUsageAccounting;
+    }
+
+    @PostConstruct
+    public void init() {
+        syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "org-quota-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::sync, 0, syncIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("조직 토큰 한도 초기화 - 사용: {}, 동기화 간격: {}ms, 노드 수: {}, 응답 예약: {} 토큰",
+            enabled, syncIntervalMs, nodeCount, completionReserveTokens);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncer.shutdownNow();
+    }
+
+    /**
+     * 요청 전에 추정 토큰을 예약합니다.
+     *
+     * @param orgId 조직 ID (null이면 검사하지 않음)
+     * @param promptTokens 요청 메시지 추정 토큰 수
+     * @return 예약 (완료 후 reconcile 또는 release 호출)
+     * @throws ChatRejectedException 조직 한도를 모두 사용한 경우 (429)
+     */
+    public Reservation reserve(Long orgId, long promptTokens) {
+        OrgState state = (enabled && orgId != null) ? orgs.get(orgId) : null;
+        if (state == null) {
+            return Reservation.NONE;
+        }
+        long tokens = promptTokens + completionReserveTokens;
+        state.reserved.addAndGet(tokens);
+        long current;
+        do {
+            current = state.available.get();
+            if (current < tokens) {
+                state.reserved.addAndGet(-tokens);
+                rejections.increment();
+                throw rejected(orgId, state);
+            }
+        } while (!state.available.compareAndSet(current, current - tokens));
+        reservations.increment();
+        reservedTokens.add(tokens);
+        return new Reservation(state, tokens, actualTokens);
+    }
+
+    /**
+     * 응답 usage 기준으로 예약을 정산합니다. usage가 없거나 시뮬레이션 응답이면 예약을 해제합니다.
+     */
+    public void reconcile(Reservation reservation, JsonNode response) {
+        JsonNode usage = response != null ? response.path("usage") : null;
+        if (usage == null || !usage.isObject() || response.path("id").asText("").startsWith("sim_")) {
+            reservation.release();
+            return;
+        }
+        reservation.reconcile(usage.path("prompt_tokens").asLong(0) + usage.path("completion_tokens").asLong(0));
+    }
+
+    /**
+     * DB의 한도와 이번 달 사용량으로 조직별 남은 토큰을 다시 계산합니다.
+     */
+    public synchronized void sync() {
+        try {
+            // 이 노드의 사용량을 먼저 DB에 반영
+            chatUsageAccounting.flush();
+
+            List<OrgQuota> quotas = orgQuotaMapper.findAll();
+            Map<Long, Long> used = new HashMap<>();
+            for (UsageRecord record : usageMapper.sumAllOrgsSince(LocalDate.now().withDayOfMonth(1))) {
+                used.put(record.getOrgId(), record.getPromptTokens() + record.getCompletionTokens());
+            }
+
+            Map<Long, OrgState> next = new HashMap<>();
+            for (OrgQuota quota : quotas) {
+                OrgState state = orgs.getOrDefault(quota.getOrgId(), new OrgState());
+                long usedTokens = used.getOrDefault(quota.getOrgId(), 0L);
+                long remaining = quota.getMonthlyTokenLimit() - usedTokens;
+                state.limit = quota.getMonthlyTokenLimit();
+                state.used = usedTokens;
+                state.available.set(Math.max(0, remaining) / Math.max(1, nodeCount) - state.reserved.get());
+                next.put(quota.getOrgId(), state);
+            }
+            // 값을 모두 계산한 뒤 등록해 새 조직이 남은 토큰 0으로 보이지 않도록 함
+            orgs.putAll(next);
+            orgs.keySet().retainAll(next.keySet());
+            syncs.increment();
+            lastSyncAt = System.currentTimeMillis();
+            log.debug("조직 토큰 한도 동기화 완료 - 조직 {}곳", next.size());
+        } catch (Exception e) {
+            failedSyncs.increment();
+            log.warn("조직 토큰 한도 동기화 실패 (이전 값 유지): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 조직 월간 한도를 설정하고 바로 동기화합니다.
+     */
+    public void setQuota(Long orgId, long monthlyTokenLimit) {
+        orgQuotaMapper.upsert(new OrgQuota(orgId, monthlyTokenLimit));
+        log.info("조직 월간 토큰 한도 설정 - 조직 ID: {}, 한도: {}", orgId, monthlyTokenLimit);
+        sync();
+    }
+
+    /**
+     * 조직 월간 한도를 삭제합니다 (제한 없음).
+     *
+     * @return 삭제되었으면 true
+     */
+    public boolean removeQuota(Long orgId) {
+        boolean removed = orgQuotaMapper.deleteByOrgId(orgId) > 0;
+        log.info("조직 월간 토큰 한도 삭제 - 조직 ID: {}, 결과: {}", orgId, removed);
+        sync();
+        return removed;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("nodeCount", nodeCount);
+        result.put("syncIntervalMs", syncIntervalMs);
+        result.put("completionReserveTokens", completionReserveTokens);
+        result.put("reservations", reservations.sum());
+        result.put("rejections", rejections.sum());
+        result.put("reservedTokens", reservedTokens.sum());
+        result.put("actualTokens", actualTokens.sum());
+        result.put("syncs", syncs.sum());
+        result.put("failedSyncs", failedSyncs.sum());
+        result.put("lastSyncAt", lastSyncAt);
+        Map<Long, Object> byOrg = new LinkedHashMap<>();
+        orgs.forEach((orgId, state) -> {
+            Map<String, Object> org = new LinkedHashMap<>();
+            org.put("monthlyTokenLimit", state.limit);
+            org.put("usedTokens", state.used);
+            org.put("localAvailableTokens", state.available.get());
+            org.put("inFlightTokens", state.reserved.get());
+            byOrg.put(orgId, org);
+        });
+        result.put("orgs", byOrg);
+        return result;
+    }
+
+    private ChatRejectedException rejected(Long orgId, OrgState state) {
+        if (state.used >= state.limit) {
+            long untilNextMonth = Duration.between(LocalDateTime.now(),
+                LocalDate.now().withDayOfMonth(1).plusMonths(1).atStartOfDay()).getSeconds();
+            log.warn("조직 월간 토큰 한도 초과 - 조직 ID: {}, 한도: {}", orgId, state.limit);
+            return new ChatRejectedException(HttpStatus.TOO_MANY_REQUESTS, Math.max(1, untilNextMonth),
+                "조직의 월간 토큰 한도를 모두 사용했습니다.");
+        }
+        // 이 노드의 몫만 소진된 경우 다음 동기화 후 다시 시도
+        return new ChatRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+            Math.max(1, TimeUnit.MILLISECONDS.toSeconds(syncIntervalMs)),
+            "조직의 토큰 한도에 거의 도달했습니다. 잠시 후 다시 시도해주세요.");
+    }
+
+    private static class OrgState {
+        // 이 노드가 더 예약할 수 있는 토큰
+        private final AtomicLong available = new AtomicLong();
+        // 정산되지 않은 예약 토큰 (동기화 시 남은 토큰에서 제외)
+        private final AtomicLong reserved = new AtomicLong();
+        private volatile long limit;
+        private volatile long used;
+    }
+
+    /**
+     * 토큰 예약 (한 번만 정산/해제됨)
+     */
+    public static final class Reservation {
+
+        // 한도가 없는 조직용 (정산하지 않음)
+        static final Reservation NONE = new Reservation(null, 0, null);
+
+        private final OrgState state;
+        private final long tokens;
+        private final LongAdder actualTokens;
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Reservation(OrgState state, long tokens, LongAdder actualTokens) {
+            this.state = state;
+            this.tokens = tokens;
+            this.actualTokens = actualTokens;
+        }
+
+        public long getTokens() {
+            return tokens;
+        }
+
+        /**
+         * 실제 사용 토큰으로 정산합니다 (예약과의 차이를 남은 토큰에 반영).
+         */
+        public void reconcile(long actual) {
+            if (state != null && settled.compareAndSet(false, true)) {
+                state.available.addAndGet(tokens - actual);
+                state.reserved.addAndGet(-tokens);
+                actualTokens.add(actual);
+            }
+        }
+
+        /**
+         * 예약을 해제합니다 (요청 실패, 시뮬레이션 응답 등).
+         */
+        public void release() {
+            reconcile(0);
+        }
+    }
+}
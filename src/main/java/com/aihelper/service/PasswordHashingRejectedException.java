@@ -0,0 +1,19 @@
+package com.aihelper.service;
+
+/**
+ * 비밀번호 해싱 풀이 포화되어 요청이 처리 전에 거부되었을 때 발생하는 예외
+ * 컨트롤러는 503과 Retry-After 값으로 응답합니다.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(long retryAfterSeconds, String message) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
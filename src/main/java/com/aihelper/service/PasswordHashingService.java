@@ -0,0 +1,343 @@
+package com.aihelper.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 비밀번호 해싱 전용 실행기 (애플리케이션의 PasswordEncoder)
+ * BCrypt 해싱은 CPU를 오래 점유하므로 Tomcat 스레드가 아닌 고정 크기 풀에서만 실행하고,
+ * 대기열이 가득 차면 PasswordHashingRejectedException으로 즉시 거부해 로그인 폭주가 채팅 처리를 막지 않도록 합니다.
+ * strength를 지정하지 않으면 시작 시 현재 하드웨어에서 해시 1회가 target-ms 이내가 되는 최대 cost를 측정해 사용하고,
+ * 저장된 해시의 cost가 그보다 낮거나 BCrypt가 아니면 upgradeEncoding이 true를 반환해 로그인 시 재해싱할 수 있게 합니다.
+ * 암호화되지 않은 기존 비밀번호 비교는 plaintext-fallback-enabled로 켜고 끄며, 마이그레이션이 끝나면 꺼야 합니다.
+ * 인코딩된 값처럼 보이지만({ 또는 $2로 시작) BCrypt 형식이 아닌 값은 평문으로 비교하지 않고 항상 불일치로 처리합니다.
+ */
+@Component
+@Slf4j
+public class PasswordHashingService implements PasswordEncoder {
+
+    // $2a$10$ + salt/hash 53자
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    // 평문이 아닌 인코딩 값의 시작 ({bcrypt}, {noop} 같은 id 접두사, $2로 시작하는 BCrypt 계열)
+    private static final Pattern ENCODED_PREFIX_PATTERN = Pattern.compile("\\A(\\{|\\$2)");
+
+    // 0이면 CPU 코어 수의 절반 (나머지는 채팅 처리에 남겨 둠)
+    @Value("${aihelper.auth.password.threads:0}")
+    private int threads;
+
+    @Value("${aihelper.auth.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    // 호출자가 해싱 결과를 기다리는 최대 시간 (대기열 대기 포함)
+    @Value("${aihelper.auth.password.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${aihelper.auth.password.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    // BCrypt cost (0이면 시작 시 target-ms 기준으로 자동 측정)
+    @Value("${aihelper.auth.password.strength:0}")
+    private int strength;
+
+    @Value("${aihelper.auth.password.target-ms:250}")
+    private long targetMs;
+
+    @Value("${aihelper.auth.password.min-strength:10}")
+    private int minStrength;
+
+    @Value("${aihelper.auth.password.max-strength:14}")
+    private int maxStrength;
+
+    // 암호화되지 않은 기존 비밀번호와의 비교 허용 (모든 계정이 재해싱되면 false)
+    @Value("${aihelper.auth.password.plaintext-fallback-enabled:true}")
+    private boolean plaintextFallbackEnabled;
+
+    private ThreadPoolExecutor executor;
+    private BCryptPasswordEncoder encoder;
+    private int poolSize;
+    private boolean calibrated;
+    private long estimatedHashMillis;
+
+    private final AtomicInteger peakQueued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder plaintextMatches = new LongAdder();
+    private final LongAdder plaintextRejected = new LongAdder();
+    private final LongAdder malformedHashes = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram encodeLatency = new LatencyHistogram();
+    private final LatencyHistogram matchLatency = new LatencyHistogram();
+
+    @PostConstruct
+    public void init() {
+        minStrength = Math.max(4, minStrength);
+        maxStrength = Math.min(31, Math.max(minStrength, maxStrength));
+        if (strength <= 0) {
+            strength = calibrate();
+            calibrated = true;
+        }
+        encoder = new BCryptPasswordEncoder(strength);
+
+        poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            poolSize, poolSize,
+            60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            r -> {
+                Thread thread = new Thread(r, "password-hash-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        log.info("비밀번호 해싱 풀 초기화 - 스레드: {}, 대기열: {}, BCrypt cost: {} ({}, 해시 1회 약 {}ms), 평문 비교 허용: {}",
+            poolSize, queueCapacity, strength, calibrated ? "자동 측정" : "설정값", estimatedHashMillis,
+            plaintextFallbackEnabled);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 비밀번호를 해싱 풀에서 암호화하고 결과를 기다립니다.
+     *
+     * @throws PasswordHashingRejectedException 대기열이 가득 찼거나 timeout-ms 안에 끝나지 않은 경우
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    /**
+     * 비밀번호를 해싱 풀에서 암호화합니다 (결과를 기다리지 않음).
+     *
+     * @throws PasswordHashingRejectedException 대기열이 가득 찬 경우
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> encoder.encode(rawPassword), encodeLatency);
+    }
+
+    /**
+     * 비밀번호를 해싱 풀에서 확인하고 결과를 기다립니다.
+     * BCrypt 형식이 아닌 값은 암호화되지 않은 기존 비밀번호로 보고 해싱 없이 비교합니다 (plaintext-fallback-enabled일 때만).
+     * 인코딩된 값처럼 보이는데 BCrypt 형식이 아니면 손상된 해시로 보고 불일치로 처리합니다.
+     *
+     * @throws PasswordHashingRejectedException 대기열이 가득 찼거나 timeout-ms 안에 끝나지 않은 경우
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        if (!BCRYPT_PATTERN.matcher(encodedPassword).matches()) {
+            if (ENCODED_PREFIX_PATTERN.matcher(encodedPassword).find()) {
+                // 해시 문자열을 그대로 입력하면 통과하는 일이 없도록 평문 비교하지 않음
+                malformedHashes.increment();
+                log.warn("BCrypt 형식이 아닌 인코딩된 비밀번호 값 - 불일치로 처리 (길이: {})", encodedPassword.length());
+                return false;
+            }
+            if (!plaintextFallbackEnabled) {
+                plaintextRejected.increment();
+                return false;
+            }
+            plaintextMatches.increment();
+            return MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                encodedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return await(submit(() -> encoder.matches(rawPassword, encodedPassword), matchLatency));
+    }
+
+    /**
+     * 저장된 해시를 현재 cost로 다시 만들어야 하는지 확인합니다 (cost가 낮거나 BCrypt가 아닌 경우).
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return true;
+        }
+        return Integer.parseInt(matcher.group(2)) < strength;
+    }
+
+    /**
+     * 로그인 시 재해싱한 건수를 기록합니다.
+     */
+    public void recordRehash() {
+        rehashed.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("strength", strength);
+        result.put("calibrated", calibrated);
+        result.put("targetMs", targetMs);
+        result.put("estimatedHashMs", estimatedHashMillis);
+        result.put("threads", poolSize);
+        result.put("active", executor.getActiveCount());
+        result.put("queued", executor.getQueue().size());
+        result.put("peakQueued", peakQueued.get());
+        result.put("queueCapacity", queueCapacity);
+        result.put("completed", executor.getCompletedTaskCount());
+        result.put("rejected", rejected.sum());
+        result.put("timedOut", timedOut.sum());
+        result.put("plaintextFallbackEnabled", plaintextFallbackEnabled);
+        result.put("plaintextMatches", plaintextMatches.sum());
+        result.put("plaintextRejected", plaintextRejected.sum());
+        result.put("malformedHashes", malformedHashes.sum());
+        result.put("rehashed", rehashed.sum());
+        result.put("queueWaitMs", queueWait.snapshot());
+        result.put("encodeMs", encodeLatency.snapshot());
+        result.put("matchMs", matchLatency.snapshot());
+        return result;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task, LatencyHistogram latency) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - queuedAt);
+                if (future.isDone()) {
+                    return; // 호출자가 이미 타임아웃으로 포기
+                }
+                try {
+                    future.complete(task.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    latency.record(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("비밀번호 해싱 대기열 초과 - 대기: {}, 실행 중: {}", executor.getQueue().size(), executor.getActiveCount());
+            throw new PasswordHashingRejectedException(retryAfterSeconds, "요청이 많아 잠시 후 다시 시도해 주세요.");
+        }
+        peakQueued.accumulateAndGet(executor.getQueue().size(), Math::max);
+        return future;
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            future.cancel(false);
+            throw new PasswordHashingRejectedException(retryAfterSeconds, "비밀번호 확인이 지연되고 있습니다. 잠시 후 다시 시도해 주세요.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("비밀번호 해싱 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // min-strength로 측정한 시간을 기준으로 cost가 1 오를 때마다 2배가 된다고 보고 target-ms 이내인 최대 cost를 선택
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        String sample = "calibration-" + System.nanoTime();
+        probe.encode(sample); // 워밍업
+        long elapsed = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode(sample);
+            elapsed = Math.min(elapsed, System.nanoTime() - start);
+        }
+
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMs);
+        int chosen = minStrength;
+        long predicted = elapsed;
+        while (chosen < maxStrength && predicted * 2 <= targetNanos) {
+            predicted *= 2;
+            chosen++;
+        }
+        estimatedHashMillis = TimeUnit.NANOSECONDS.toMillis(predicted);
+        if (predicted > targetNanos) {
+            log.warn("최소 BCrypt cost {}에서도 해시 1회가 목표 {}ms를 넘습니다 ({}ms)", minStrength, targetMs, estimatedHashMillis);
+        }
+        return chosen;
+    }
+
+    /**
+     * 고정 구간 지연 히스토그램 (ms)
+     */
+    static final class LatencyHistogram {
+        private static final long[] BOUNDS_MS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+        private final LongAdder[] buckets = new LongAdder[BOUNDS_MS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int index = 0;
+            while (index < BOUNDS_MS.length && millis > BOUNDS_MS[index]) {
+                index++;
+            }
+            buckets[index].increment();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        Map<String, Object> snapshot() {
+            long total = count.sum();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", total);
+            result.put("avg", total == 0 ? 0.0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / total) / 1000.0);
+            result.put("max", TimeUnit.NANOSECONDS.toMicros(maxNanos.get()) / 1000.0);
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BOUNDS_MS.length; i++) {
+                histogram.put("<=" + BOUNDS_MS[i], buckets[i].sum());
+            }
+            histogram.put(">" + BOUNDS_MS[BOUNDS_MS.length - 1], buckets[BOUNDS_MS.length].sum());
+            result.put("buckets", histogram);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.aihelper.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aihelper.mapper.RevokedTokenMapper;
+import com.aihelper.model.RevokedToken;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JWT 폐기 목록 (로그아웃 등)
+ * 요청마다 확인하므로 DB를 조회하지 않고 메모리에서만 판단합니다.
+ * Bloom 필터로 폐기되지 않은 토큰(대부분의 요청)을 바로 통과시키고, 필터에 걸린 경우에만 jti -> 만료 시각 맵을 확인합니다.
+ * 엔트리는 토큰이 만료되면 필요 없으므로 주기적으로 제거하고, 그때 Bloom 필터도 남은 엔트리로 다시 만듭니다.
+ * 폐기 내역은 revoked_tokens 테이블에 기록하고 각 노드가 주기적으로 읽어 반영합니다 (다른 노드 반영은 sync 간격만큼 지연).
+ */
+@Component
+@Slf4j
+public class TokenRevocationStore {
+
+    // 엔트리당 맵 노드, 문자열, Long 등 부가 비용 추정치
+    private static final int ENTRY_OVERHEAD_BYTES = 120;
+
+    private final RevokedTokenMapper revokedTokenMapper;
+
+    @Value("${aihelper.auth.revocation.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${aihelper.auth.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${aihelper.auth.revocation.sync-interval-ms:5000}")
+    private long syncIntervalMs;
+
+    @Value("${aihelper.auth.revocation.cleanup-interval-ms:60000}")
+    private long cleanupIntervalMs;
+
+    // jti -> 토큰 만료 시각 (epoch ms)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloom;
+    private ScheduledExecutorService syncer;
+    // 다음 동기화 기준 시각 (DB revoked_at 기준, 처음에는 전체 조회)
+    private LocalDateTime syncedUntil;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder bloomPassed = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+    private final LongAdder rejectedTokens = new LongAdder();
+    private final LongAdder revocations = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder failedSyncs = new LongAdder();
+    private final LongAdder expiredRemoved = new LongAdder();
+
+    public TokenRevocationStore(RevokedTokenMapper revokedTokenMapper) {
+        this.revokedTokenMapper = revokedTokenMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        bloom = new BloomFilter(maxEntries, falsePositiveRate);
+        syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-revocation-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::sync, 0, syncIntervalMs, TimeUnit.MILLISECONDS);
+        syncer.scheduleWithFixedDelay(this::cleanup, cleanupIntervalMs, cleanupIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("토큰 폐기 목록 초기화 - 최대 {}건, Bloom 필터: {}비트/해시 {}개, 동기화 간격: {}ms",
+            maxEntries, bloom.bitCount(), bloom.hashCount, syncIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncer.shutdownNow();
+    }
+
+    /**
+     * 토큰이 폐기되었는지 확인합니다 (DB 조회 없음).
+     *
+     * @param jti 토큰 ID (없으면 폐기 대상이 아님)
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        checks.increment();
+        if (!bloom.mightContain(jti)) {
+            bloomPassed.increment();
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        if (expiresAt == null || expiresAt <= System.currentTimeMillis()) {
+            bloomFalsePositives.increment();
+            return false;
+        }
+        rejectedTokens.increment();
+        return true;
+    }
+
+    /**
+     * 토큰을 폐기합니다. 메모리에 바로 반영하고 DB에 기록해 다른 노드에도 전파합니다.
+     *
+     * @param jti 토큰 ID
+     * @param userId 사용자 ID (없으면 null)
+     * @param expiresAtMillis 토큰 만료 시각 (이 시각이 지나면 엔트리 제거)
+     * @return 폐기 목록이 가득 차서 추가하지 못했으면 false (호출자는 사용자 토큰 전체 폐기로 대체)
+     */
+    public boolean revoke(String jti, Long userId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return true;
+        }
+        if (!addLocal(jti, expiresAtMillis)) {
+            overflows.increment();
+            log.warn("토큰 폐기 목록이 가득 참 ({}건), jti: {}", revoked.size(), jti);
+            return false;
+        }
+        revocations.increment();
+        try {
+            revokedTokenMapper.insert(new RevokedToken(jti, userId, toLocalDateTime(expiresAtMillis), null));
+        } catch (Exception e) {
+            // 이 노드에는 반영되었으므로 요청은 성공 처리 (다른 노드에는 전파되지 않음)
+            log.warn("토큰 폐기 기록 실패 (이 노드에만 반영): {}", e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * DB에 새로 기록된 폐기 토큰을 메모리에 반영합니다.
+     */
+    public void sync() {
+        try {
+            LocalDateTime since = syncedUntil;
+            List<RevokedToken> tokens = revokedTokenMapper.findActiveSince(since, LocalDateTime.now());
+            LocalDateTime latest = since;
+            for (RevokedToken token : tokens) {
+                long expiresAt = token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                if (!revoked.containsKey(token.getJti()) && !addLocal(token.getJti(), expiresAt)) {
+                    overflows.increment();
+                }
+                if (token.getRevokedAt() != null && (latest == null || token.getRevokedAt().isAfter(latest))) {
+                    latest = token.getRevokedAt();
+                }
+            }
+            // 늦게 커밋된 행을 놓치지 않도록 동기화 간격의 두 배만큼 겹쳐서 다시 읽음
+            if (latest != null) {
+                LocalDateTime overlapped = latest.minusNanos(TimeUnit.MILLISECONDS.toNanos(syncIntervalMs * 2));
+                syncedUntil = since == null || overlapped.isAfter(since) ? overlapped : since;
+            }
+            syncs.increment();
+        } catch (Exception e) {
+            failedSyncs.increment();
+            log.warn("토큰 폐기 목록 동기화 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 만료된 엔트리를 제거하고 Bloom 필터를 다시 만듭니다. DB의 만료된 행도 삭제합니다.
+     */
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        synchronized (this) {
+            for (Map.Entry<String, Long> entry : revoked.entrySet()) {
+                if (entry.getValue() <= now && revoked.remove(entry.getKey(), entry.getValue())) {
+                    removed++;
+                }
+            }
+            if (removed > 0) {
+                BloomFilter rebuilt = new BloomFilter(maxEntries, falsePositiveRate);
+                revoked.keySet().forEach(rebuilt::add);
+                bloom = rebuilt;
+            }
+        }
+        expiredRemoved.add(removed);
+        try {
+            int deleted = revokedTokenMapper.deleteExpired(LocalDateTime.now());
+            log.debug("만료된 폐기 토큰 정리 - 메모리: {}건, DB: {}건", removed, deleted);
+        } catch (Exception e) {
+            log.warn("만료된 폐기 토큰 삭제 실패: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        long checkCount = checks.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", revoked.size());
+        result.put("maxEntries", maxEntries);
+        result.put("bloomBits", bloom.bitCount());
+        result.put("bloomHashes", bloom.hashCount);
+        result.put("estimatedBytes", estimatedBytes());
+        result.put("checks", checkCount);
+        result.put("bloomPassRate", checkCount == 0 ? 0.0 : (double) bloomPassed.sum() / checkCount);
+        result.put("bloomFalsePositives", bloomFalsePositives.sum());
+        result.put("rejectedTokens", rejectedTokens.sum());
+        result.put("revocations", revocations.sum());
+        result.put("overflows", overflows.sum());
+        result.put("expiredRemoved", expiredRemoved.sum());
+        result.put("syncs", syncs.sum());
+        result.put("failedSyncs", failedSyncs.sum());
+        result.put("syncedUntil", syncedUntil);
+        return result;
+    }
+
+    // Bloom 필터 재구성과 겹치지 않도록 추가는 동기화 (조회는 잠금 없음)
+    private synchronized boolean addLocal(String jti, long expiresAtMillis) {
+        if (revoked.size() >= maxEntries && !revoked.containsKey(jti)) {
+            return false;
+        }
+        revoked.put(jti, expiresAtMillis);
+        bloom.add(jti);
+        return true;
+    }
+
+    private long estimatedBytes() {
+        long bytes = bloom.bitCount() / 8;
+        for (String jti : revoked.keySet()) {
+            bytes += ENTRY_OVERHEAD_BYTES + jti.length() * 2L;
+        }
+        return bytes;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 문자열용 Bloom 필터 (64비트 해시 하나를 둘로 나눠 double hashing)
+     * 추가는 AtomicLongArray로 비트를 세우므로 조회와 동시에 실행해도 안전합니다.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashCount;
+
+        BloomFilter(int expectedEntries, double falsePositiveRate) {
+            int n = Math.max(1, expectedEntries);
+            double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+            long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (m + 63) / 64);
+            this.words = new AtomicLongArray(words);
+            this.bits = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        }
+
+        void add(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bits;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bits;
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long bitCount() {
+            return bits;
+        }
+
+        // FNV-1a 64비트 + murmur3 fmix64
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0, length = value.length(); i < length; i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
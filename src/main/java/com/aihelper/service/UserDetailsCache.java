@@ -0,0 +1,104 @@
+package com.aihelper.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 인증 사용자 정보(UserDetails) 캐시
+ * JwtAuthFilter가 요청마다 사용자를 조회하므로, username 기준으로 크기와 TTL을 제한해 메모리에 보관합니다.
+ * 사용자 정보 수정, 비밀번호 변경, 삭제 시 UserServiceImpl이 해당 엔트리를 무효화합니다.
+ * 노드별 로컬 캐시이므로 다른 노드에서 변경된 내용은 TTL이 지나야 반영됩니다.
+ */
+@Component
+@Slf4j
+public class UserDetailsCache {
+
+    @Value("${aihelper.auth.user-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${aihelper.auth.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${aihelper.auth.user-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<String, UserDetails> cache;
+    private final LongAdder invalidations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+        log.info("사용자 인증 정보 캐시 초기화 - 사용: {}, 최대 {}명, TTL: {}초", enabled, maxSize, ttlSeconds);
+    }
+
+    /**
+     * 캐시된 사용자 정보를 반환하고, 없으면 loader로 조회해 저장합니다.
+     * 인증 후 credential 삭제(eraseCredentials)가 캐시 엔트리에 영향을 주지 않도록 매번 복사본을 반환합니다.
+     *
+     * @param username 사용자명
+     * @param loader 캐시에 없을 때 사용할 조회 함수 (사용자가 없으면 UsernameNotFoundException, 캐시하지 않음)
+     * @return 사용자 정보
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        UserDetails cached = cache.get(username, loader);
+        return User.withUserDetails(cached).build();
+    }
+
+    /**
+     * 사용자 정보가 바뀌었을 때 캐시 엔트리를 제거합니다.
+     */
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        cache.invalidate(username);
+        invalidations.increment();
+        log.debug("사용자 인증 정보 캐시 무효화: {}", username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        invalidations.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("maxSize", maxSize);
+        result.put("ttlSeconds", ttlSeconds);
+        result.put("entries", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("loads", stats.loadCount());
+        result.put("loadFailures", stats.loadFailureCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        result.put("evictions", stats.evictionCount());
+        result.put("invalidations", invalidations.sum());
+        return result;
+    }
+}
@@ -33,6 +33,9 @@ public interface UserService {
     // 비밀번호 변경
     boolean changePassword(Long id, String newPassword);
     
+    // 사용자의 발급된 토큰 전체 폐기 (토큰 버전 증가)
+    boolean revokeAllTokens(Long id);
+    
     // 사용자 삭제
     boolean deleteUser(Long id);
     
@@ -0,0 +1,100 @@
+package com.aihelper.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aihelper.mapper.UserMapper;
+import com.aihelper.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 사용자별 현재 토큰 버전 캐시
+ * JWT에 담긴 버전이 현재 버전과 다르거나 사용자가 비활성/삭제 상태면 토큰을 거부합니다.
+ * 사용자당 TTL 동안 한 번만 DB를 조회하며, 이 노드에서 사용자를 수정하면 UserServiceImpl이 즉시 무효화합니다.
+ * 다른 노드에서 변경된 내용은 최대 TTL만큼 늦게 반영됩니다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserTokenVersionCache {
+
+    // 사용자가 없거나 비활성 상태
+    private static final int REVOKED = -1;
+
+    private final UserMapper userMapper;
+
+    @Value("${aihelper.auth.token-version.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${aihelper.auth.token-version.max-size:100000}")
+    private long maxSize;
+
+    private Cache<Long, Integer> versions;
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+        log.info("토큰 버전 캐시 초기화 - 최대 {}명, TTL: {}초", maxSize, ttlSeconds);
+    }
+
+    /**
+     * 토큰의 버전이 사용자의 현재 버전과 같은지 확인합니다.
+     *
+     * @param userId 사용자 ID
+     * @param tokenVersion 토큰에 담긴 버전
+     * @return 현재 버전이고 활성 사용자면 true
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        int current = versions.get(userId, this::loadVersion);
+        if (current == REVOKED || current != tokenVersion) {
+            rejected.increment();
+            log.debug("토큰 버전 불일치 - 사용자 ID: {}, 토큰: {}, 현재: {}", userId, tokenVersion, current);
+            return false;
+        }
+        return true;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            versions.invalidate(userId);
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        CacheStats stats = versions.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ttlSeconds", ttlSeconds);
+        result.put("entries", versions.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        result.put("rejected", rejected.sum());
+        return result;
+    }
+
+    private Integer loadVersion(Long userId) {
+        User user = userMapper.findAuthState(userId);
+        if (user == null || "INACTIVE".equals(user.getStatus())) {
+            return REVOKED;
+        }
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+    }
+}
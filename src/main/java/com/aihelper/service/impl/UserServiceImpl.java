@@ -5,11 +5,15 @@ import com.aihelper.mapper.UserMapper;
 import com.aihelper.model.LoginRequest;
 import com.aihelper.model.LoginResponse;
 import com.aihelper.model.User;
+import com.aihelper.service.PasswordHashingRejectedException;
+import com.aihelper.service.PasswordHashingService;
+import com.aihelper.service.UserDetailsCache;
 import com.aihelper.service.UserService;
+import com.aihelper.service.UserTokenVersionCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,24 +30,30 @@ public class UserServiceImpl implements UserService {
     private UserMapper userMapper;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordEncoder;
     
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
     
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+    
+    @Autowired
+    private UserTokenVersionCache tokenVersionCache;
+    
+    // 로그인 성공 시 오래된 cost의 비밀번호 해시를 현재 cost로 재해싱
+    @Value("${aihelper.auth.password.rehash-on-login:true}")
+    private boolean rehashOnLogin;
+    
     @Override
     public LoginResponse login(LoginRequest loginRequest) throws Exception {
         User user = userMapper.findByUsername(loginRequest.getUsername());
         
-        System.out.println("user: " + user.getPassword());
-        System.out.println("loginRequest: " + loginRequest.getPassword());
-        System.out.println("user: " + user.getUsername());
-        System.out.println("loginRequest: " + loginRequest.getUsername());
-        
         if (user == null) {
             throw new Exception("사용자를 찾을 수 없습니다.");
         }
-        if (!loginRequest.getPassword().equals(user.getPassword())) {
+        // 해싱 풀에서 확인 (포화 시 PasswordHashingRejectedException)
+        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
             throw new Exception("비밀번호가 일치하지 않습니다.");
         }
 
@@ -51,11 +61,15 @@ public class UserServiceImpl implements UserService {
             throw new Exception("비활성화된 계정입니다.");
         }
         
+        if (rehashOnLogin && passwordEncoder.upgradeEncoding(user.getPassword())) {
+            rehashPassword(user, loginRequest.getPassword());
+        }
+        
         // 마지막 로그인 시간 업데이트
         userMapper.updateLastLogin(user.getUserId());
         
-        // JWT 토큰 생성
-        String token = jwtTokenUtil.generateToken(user.getUsername());
+        // JWT 토큰 생성 (userId, orgId, role, 토큰 버전 포함)
+        String token = jwtTokenUtil.generateToken(user);
         
         // 로그인 응답 생성
         LoginResponse response = new LoginResponse();
@@ -133,20 +147,75 @@ public class UserServiceImpl implements UserService {
         }
         
         userMapper.update(user);
-        return userMapper.findById(user.getUserId());
+        User updated = userMapper.findById(user.getUserId());
+        // 역할/상태/조직이 바뀌었을 수 있으므로 인증 캐시에서 제거 (바뀐 경우 토큰 버전이 올라가 기존 토큰은 거부됨)
+        tokenVersionCache.invalidate(user.getUserId());
+        if (updated != null) {
+            userDetailsCache.invalidate(updated.getUsername());
+        }
+        return updated;
     }
     
     @Override
     @Transactional
     public boolean changePassword(Long id, String newPassword) {
         String encodedPassword = passwordEncoder.encode(newPassword);
-        return userMapper.updatePassword(id, encodedPassword) > 0;
+        boolean updated = userMapper.updatePassword(id, encodedPassword) > 0;
+        if (updated) {
+            evictCachedUser(id);
+        }
+        return updated;
+    }
+    
+    @Override
+    @Transactional
+    public boolean revokeAllTokens(Long id) {
+        boolean updated = userMapper.incrementTokenVersion(id) > 0;
+        tokenVersionCache.invalidate(id);
+        return updated;
     }
     
     @Override
     @Transactional
     public boolean deleteUser(Long id) {
-        return userMapper.deleteById(id) > 0;
+        // 삭제 후에는 username을 알 수 없으므로 먼저 조회
+        User existing = userMapper.findById(id);
+        boolean deleted = userMapper.deleteById(id) > 0;
+        tokenVersionCache.invalidate(id);
+        if (deleted && existing != null) {
+            userDetailsCache.invalidate(existing.getUsername());
+        }
+        return deleted;
+    }
+    
+    // cost가 낮거나 암호화되지 않은 비밀번호를 현재 cost로 다시 저장 (로그인 응답은 기다리지 않음)
+    // 비밀번호 자체는 그대로이므로 토큰 버전은 올리지 않으며, 그 사이 비밀번호가 바뀌었으면 덮어쓰지 않음
+    private void rehashPassword(User user, String rawPassword) {
+        try {
+            passwordEncoder.encodeAsync(rawPassword).whenComplete((encoded, ex) -> {
+                if (ex != null) {
+                    logger.warn("비밀번호 재해싱 실패: userId={}, 에러={}", user.getUserId(), ex.getMessage());
+                    return;
+                }
+                if (userMapper.updatePasswordHash(user.getUserId(), user.getPassword(), encoded) > 0) {
+                    passwordEncoder.recordRehash();
+                    userDetailsCache.invalidate(user.getUsername());
+                    logger.info("비밀번호 재해싱 완료: userId={}", user.getUserId());
+                }
+            });
+        } catch (PasswordHashingRejectedException e) {
+            // 해싱 풀이 포화 상태면 다음 로그인 때 다시 시도
+            logger.debug("비밀번호 재해싱 보류: userId={}", user.getUserId());
+        }
+    }
+    
+    // 인증 캐시에서 사용자 정보 제거 (username 기준)
+    private void evictCachedUser(Long id) {
+        tokenVersionCache.invalidate(id);
+        User user = userMapper.findById(id);
+        if (user != null) {
+            userDetailsCache.invalidate(user.getUsername());
+        }
     }
     
     @Override
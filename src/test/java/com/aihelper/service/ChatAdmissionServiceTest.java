@@ -0,0 +1,101 @@
+package com.aihelper.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 요청 허용 제어(GCRA 속도 제한, 동시 실행 제한, 거부 시 토큰 반환) 테스트
+ * 속도는 충분히 낮게 잡아 테스트 중에는 토큰이 다시 채워지지 않습니다.
+ */
+class ChatAdmissionServiceTest {
+
+    private static final double SLOW_RATE = 0.001;
+
+    @Test
+    void allowsBurstThenRejectsWithRetryAfter() {
+        ChatAdmissionService service = newService(3, 10, 100, 100);
+
+        for (int i = 0; i < 3; i++) {
+            service.acquire(1L, null, "USER").release();
+        }
+
+        assertThatThrownBy(() -> service.acquire(1L, null, "USER"))
+            .isInstanceOfSatisfying(ChatRejectedException.class, e -> {
+                assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                assertThat(e.getRetryAfterSeconds()).isGreaterThan(1);
+            });
+        // 다른 사용자는 영향 없음
+        service.acquire(2L, null, "USER").release();
+    }
+
+    @Test
+    void orgRateRejectionRefundsUserToken() {
+        ChatAdmissionService service = newService(2, 10, 1, 10);
+
+        service.acquire(1L, 10L, "USER").release();
+        // 조직 10은 버스트 1을 다 썼으므로 거부 - 사용자 토큰은 돌려받아야 함
+        assertThatThrownBy(() -> service.acquire(1L, 10L, "USER"))
+            .isInstanceOf(ChatRejectedException.class)
+            .hasMessageContaining("조직");
+
+        // 사용자 버스트 2 중 1건만 허용되었으므로 다른 조직으로는 한 번 더 허용
+        service.acquire(1L, 20L, "USER").release();
+        assertThatThrownBy(() -> service.acquire(1L, 30L, "USER"))
+            .isInstanceOf(ChatRejectedException.class)
+            .hasMessageContaining("사용자 요청 한도");
+    }
+
+    @Test
+    void concurrencyRejectionRefundsRateTokens() {
+        ChatAdmissionService service = newService(2, 1, 100, 100);
+
+        ChatAdmissionService.Permit first = service.acquire(1L, 10L, "USER");
+        assertThatThrownBy(() -> service.acquire(1L, 10L, "USER"))
+            .isInstanceOf(ChatRejectedException.class)
+            .hasMessageContaining("동시");
+        first.release();
+        // 중복 release는 무시
+        first.release();
+
+        // 동시 실행 거부로 소비한 토큰은 돌려받았으므로 버스트 2의 두 번째 요청이 허용됨
+        ChatAdmissionService.Permit second = service.acquire(1L, 10L, "USER");
+        second.release();
+        assertThatThrownBy(() -> service.acquire(1L, 10L, "USER"))
+            .isInstanceOf(ChatRejectedException.class)
+            .hasMessageContaining("사용자 요청 한도");
+    }
+
+    @Test
+    void roleOverrideAppliesPerRole() {
+        ChatAdmissionService service = newService(1, 10, 100, 100);
+        ReflectionTestUtils.setField(service, "roleOverrideSpec", "ADMIN:0.001/3/10");
+        service.init();
+
+        for (int i = 0; i < 3; i++) {
+            service.acquire(1L, null, "admin").release();
+        }
+        assertThatThrownBy(() -> service.acquire(1L, null, "admin"))
+            .isInstanceOf(ChatRejectedException.class);
+    }
+
+    private static ChatAdmissionService newService(int userBurst, int userMaxConcurrent,
+                                                   int orgBurst, int orgMaxConcurrent) {
+        ChatAdmissionService service = new ChatAdmissionService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "userRatePerSecond", SLOW_RATE);
+        ReflectionTestUtils.setField(service, "userBurst", userBurst);
+        ReflectionTestUtils.setField(service, "userMaxConcurrent", userMaxConcurrent);
+        ReflectionTestUtils.setField(service, "orgRatePerSecond", SLOW_RATE);
+        ReflectionTestUtils.setField(service, "orgBurst", orgBurst);
+        ReflectionTestUtils.setField(service, "orgMaxConcurrent", orgMaxConcurrent);
+        ReflectionTestUtils.setField(service, "roleOverrideSpec", "");
+        ReflectionTestUtils.setField(service, "orgOverrideSpec", "");
+        ReflectionTestUtils.setField(service, "idleExpireMinutes", 30L);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,148 @@
+package com.aihelper.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aihelper.model.ChatMessage;
+
+/**
+ * 토큰 예산에 맞춘 대화 이력 정리(system/마지막 메시지 유지, 오래된 메시지 제외/요약) 테스트
+ * 메시지 토큰: 4(메시지당) + role + content ("abcd" 한 단어 = 1토큰)
+ * system 10단어 = 16, user 10단어 = 15, assistant 10단어 = 17, 요청당 3 -> 아래 대화 전체 130토큰
+ */
+class ChatContextManagerTest {
+
+    private static final String TEN_WORDS = String.join(" ", Collections.nCopies(10, "abcd"));
+
+    private final ChatMessage system = new ChatMessage("system", TEN_WORDS);
+    private final ChatMessage u1 = new ChatMessage("user", TEN_WORDS);
+    private final ChatMessage a1 = new ChatMessage("assistant", TEN_WORDS);
+    private final ChatMessage u2 = new ChatMessage("user", TEN_WORDS);
+    private final ChatMessage a2 = new ChatMessage("assistant", TEN_WORDS);
+    private final ChatMessage u3 = new ChatMessage("user", TEN_WORDS);
+    private final ChatMessage a3 = new ChatMessage("assistant", TEN_WORDS);
+    private final ChatMessage u4 = new ChatMessage("user", TEN_WORDS);
+    private final List<ChatMessage> conversation = Arrays.asList(system, u1, a1, u2, a2, u3, a3, u4);
+
+    @Test
+    void withinBudgetReturnsOriginalList() {
+        ChatContextManager manager = newManager(130, 10, ChatContextManager.Policy.DROP);
+
+        ChatContextManager.Result result = manager.prepare(conversation, null);
+
+        assertThat(result.getMessages()).isSameAs(conversation);
+        assertThat(result.getOriginalTokens()).isEqualTo(130);
+        assertThat(result.getFinalTokens()).isEqualTo(130);
+        assertThat(result.getDroppedMessages()).isZero();
+    }
+
+    @Test
+    void dropKeepsSystemAndRecentMessagesWithinBudget() {
+        ChatContextManager manager = newManager(70, 10, ChatContextManager.Policy.DROP);
+
+        ChatContextManager.Result result = manager.prepare(conversation, null);
+
+        // 3 + system 16 + u4 15 + a3 17 + u3 15 = 66, a2(17)를 더하면 예산 70 초과
+        assertThat(result.getMessages()).containsExactly(system, u3, a3, u4);
+        assertThat(result.getDroppedMessages()).isEqualTo(4);
+        assertThat(result.getFinalTokens()).isEqualTo(66);
+        assertThat(result.getTokensSaved()).isEqualTo(130 - 66);
+        assertThat(manager.snapshot()).containsEntry("trimmedRequests", 1L).containsEntry("droppedMessages", 4L);
+    }
+
+    @Test
+    void keepRecentTurnsLimitsKeptMessages() {
+        ChatContextManager manager = newManager(129, 1, ChatContextManager.Policy.DROP);
+
+        ChatContextManager.Result result = manager.prepare(conversation, null);
+
+        // 예산은 거의 충분하지만 최근 1턴(2개)만 유지
+        assertThat(result.getMessages()).containsExactly(system, a3, u4);
+        assertThat(result.getDroppedMessages()).isEqualTo(5);
+    }
+
+    @Test
+    void systemAndLastMessageAreKeptEvenOverBudget() {
+        ChatContextManager manager = newManager(10, 10, ChatContextManager.Policy.DROP);
+
+        ChatContextManager.Result result = manager.prepare(conversation, null);
+
+        assertThat(result.getMessages()).containsExactly(system, u4);
+        assertThat(result.getFinalTokens()).isEqualTo(34);
+    }
+
+    @Test
+    void summarizeInsertsSummaryAtFirstDroppedPosition() {
+        ChatContextManager manager = newManager(129, 1, ChatContextManager.Policy.SUMMARIZE);
+        ReflectionTestUtils.setField(manager, "summarySnippetChars", 20);
+
+        ChatContextManager.Result result = manager.prepare(conversation, null);
+
+        List<ChatMessage> messages = result.getMessages();
+        assertThat(messages).hasSize(4);
+        assertThat(messages.get(0)).isSameAs(system);
+        assertThat(messages.get(1).getRole()).isEqualTo("system");
+        assertThat(messages.get(1).getText())
+            .startsWith("[이전 대화 요약]")
+            .contains("\nuser: abcd abcd abcd abcd ...")
+            .contains("\nassistant: ");
+        assertThat(messages.subList(2, 4)).containsExactly(a3, u4);
+        assertThat(result.getDroppedMessages()).isEqualTo(5);
+        assertThat(result.getFinalTokens()).isGreaterThan(51).isLessThanOrEqualTo(129);
+    }
+
+    @Test
+    void summarizeFallsBackToDropWhenNoBudgetLeft() {
+        ChatContextManager manager = newManager(70, 10, ChatContextManager.Policy.SUMMARIZE);
+
+        ChatContextManager.Result result = manager.prepare(conversation, null);
+
+        // 남은 예산 70 - 66 - 4 = 0 이므로 요약 없이 제외만
+        assertThat(result.getMessages()).containsExactly(system, u3, a3, u4);
+    }
+
+    @Test
+    void modelBudgetOverridesDefault() {
+        ChatContextManager manager = newManager(1000, 10, ChatContextManager.Policy.DROP);
+        ReflectionTestUtils.setField(manager, "modelBudgetSpec", "small-model:70");
+        manager.init();
+
+        assertThat(manager.prepare(conversation, "other-model").getMessages()).isSameAs(conversation);
+        assertThat(manager.prepare(conversation, "small-model").getMessages()).containsExactly(system, u3, a3, u4);
+    }
+
+    @Test
+    void disabledNeverTrims() {
+        ChatContextManager manager = newManager(10, 10, ChatContextManager.Policy.DROP);
+        ReflectionTestUtils.setField(manager, "enabled", false);
+
+        List<ChatMessage> messages = new ArrayList<>(conversation);
+        ChatContextManager.Result result = manager.prepare(messages, null);
+
+        assertThat(result.getMessages()).isSameAs(messages);
+        assertThat(result.getOriginalTokens()).isEqualTo(130);
+    }
+
+    private static ChatContextManager newManager(int budget, int keepRecentTurns, ChatContextManager.Policy policy) {
+        ChatContextManager manager = new ChatContextManager();
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "defaultBudgetTokens", budget);
+        ReflectionTestUtils.setField(manager, "modelBudgetSpec", "");
+        ReflectionTestUtils.setField(manager, "defaultCharsPerToken", 4.0);
+        ReflectionTestUtils.setField(manager, "modelCharsPerTokenSpec", "");
+        ReflectionTestUtils.setField(manager, "nonAsciiTokensPerChar", 1.0);
+        ReflectionTestUtils.setField(manager, "keepRecentTurns", keepRecentTurns);
+        ReflectionTestUtils.setField(manager, "policy", policy);
+        ReflectionTestUtils.setField(manager, "summaryMaxTokens", 300);
+        ReflectionTestUtils.setField(manager, "summarySnippetChars", 100);
+        manager.init();
+        return manager;
+    }
+}
@@ -0,0 +1,119 @@
+package com.aihelper.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.aihelper.service.ChatFairQueue.Priority;
+
+/**
+ * 조직별 DRR 순서, 가중치/비용 반영, interactive/batch 우선순위 테스트
+ * 작업은 실행 시 자기 이름을 order에 기록합니다.
+ */
+class ChatFairQueueTest {
+
+    private final List<String> order = new ArrayList<>();
+
+    @Test
+    void equalWeightsAlternateBetweenOrgs() {
+        ChatFairQueue queue = new ChatFairQueue(100, 100, 0, Collections.emptyMap());
+        offer(queue, 1L, Priority.INTERACTIVE, 100, "A", 6);
+        offer(queue, 2L, Priority.INTERACTIVE, 100, "B", 2);
+
+        drain(queue);
+
+        // 조직 1이 먼저 6건을 넣었어도 조직 2는 번갈아 처리됨
+        assertThat(order).containsExactly("A", "B", "A", "B", "A", "A", "A", "A");
+    }
+
+    @Test
+    void weightsSetShareOfDispatches() {
+        Map<Long, Integer> weights = new HashMap<>();
+        weights.put(1L, 3);
+        ChatFairQueue queue = new ChatFairQueue(100, 100, 0, weights);
+        offer(queue, 1L, Priority.INTERACTIVE, 100, "A", 8);
+        offer(queue, 2L, Priority.INTERACTIVE, 100, "B", 8);
+
+        drain(queue);
+
+        assertThat(order.subList(0, 8)).containsExactly("A", "A", "A", "B", "A", "A", "A", "B");
+    }
+
+    @Test
+    void costIsChargedAgainstDeficit() {
+        ChatFairQueue queue = new ChatFairQueue(100, 100, 0, Collections.emptyMap());
+        offer(queue, 1L, Priority.INTERACTIVE, 400, "big", 2);
+        offer(queue, 2L, Priority.INTERACTIVE, 100, "small", 8);
+
+        drain(queue);
+
+        // 400토큰 요청 하나에 100토큰 요청 여러 건이 처리됨
+        assertThat(order.subList(0, 4)).containsExactly("small", "small", "small", "big");
+    }
+
+    @Test
+    void interactiveFirstButBatchEveryNth() {
+        ChatFairQueue queue = new ChatFairQueue(100, 100, 3, Collections.emptyMap());
+        offer(queue, 1L, Priority.BATCH, 100, "B", 2);
+        offer(queue, 1L, Priority.INTERACTIVE, 100, "I", 5);
+
+        drain(queue);
+
+        assertThat(order).containsExactly("I", "I", "B", "I", "I", "B", "I");
+    }
+
+    @Test
+    void batchWaitsForInteractiveWhenBatchEveryDisabled() {
+        ChatFairQueue queue = new ChatFairQueue(100, 100, 0, Collections.emptyMap());
+        offer(queue, 1L, Priority.BATCH, 100, "B", 2);
+        offer(queue, 2L, Priority.INTERACTIVE, 100, "I", 3);
+
+        drain(queue);
+
+        assertThat(order).containsExactly("I", "I", "I", "B", "B");
+    }
+
+    @Test
+    void rejectsWhenFullAndTracksStatsPerOrg() {
+        ChatFairQueue queue = new ChatFairQueue(3, 100, 0, Collections.emptyMap());
+        offer(queue, null, Priority.INTERACTIVE, 100, "none", 2);
+        offer(queue, 5L, Priority.BATCH, 100, "five", 1);
+
+        assertThat(queue.offer(5L, Priority.INTERACTIVE, 100, () -> order.add("rejected"))).isFalse();
+        assertThat(queue.size()).isEqualTo(3);
+
+        queue.poll().run();
+        assertThat(queue.size()).isEqualTo(2);
+
+        @SuppressWarnings("unchecked")
+        Map<Long, Map<String, Object>> orgs = (Map<Long, Map<String, Object>>) queue.snapshot().get("orgs");
+        assertThat(orgs.get(ChatFairQueue.NO_ORG))
+            .containsEntry("enqueued", 2L)
+            .containsEntry("dispatched", 1L)
+            .containsEntry("queuedInteractive", 1);
+        assertThat(orgs.get(5L)).containsEntry("queuedBatch", 1).containsEntry("dispatched", 0L);
+
+        drain(queue);
+        assertThat(queue.poll()).isNull();
+        assertThat(order).containsExactly("none", "none", "five");
+    }
+
+    private void offer(ChatFairQueue queue, Long orgId, Priority priority, long cost, String name, int count) {
+        for (int i = 0; i < count; i++) {
+            assertThat(queue.offer(orgId, priority, cost, () -> order.add(name))).isTrue();
+        }
+    }
+
+    private void drain(ChatFairQueue queue) {
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            task.run();
+        }
+    }
+}
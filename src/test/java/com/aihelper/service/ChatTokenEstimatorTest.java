@@ -0,0 +1,59 @@
+package com.aihelper.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 로컬 토큰 수 추정 규칙 테스트 (영문 4글자당 1토큰, 문장 부호 1토큰, 비 ASCII 1글자당 설정값)
+ */
+class ChatTokenEstimatorTest {
+
+    private final ChatTokenEstimator estimator = new ChatTokenEstimator(4.0, 1.0);
+
+    @Test
+    void emptyTextHasNoTokens() {
+        assertThat(estimator.estimate(null)).isZero();
+        assertThat(estimator.estimate("")).isZero();
+    }
+
+    @Test
+    void wordRunsArePerCharsPerTokenRoundedUp() {
+        assertThat(estimator.estimate("abcd")).isEqualTo(1);
+        assertThat(estimator.estimate("hello")).isEqualTo(2);
+        assertThat(estimator.estimate("hello world")).isEqualTo(4);
+        assertThat(estimator.estimate("abc123")).isEqualTo(2);
+    }
+
+    @Test
+    void punctuationCountsAndWhitespaceDoesNot() {
+        assertThat(estimator.estimate("Hi!")).isEqualTo(2);
+        assertThat(estimator.estimate("a, b.")).isEqualTo(4);
+        assertThat(estimator.estimate("abcd \n\t abcd")).isEqualTo(2);
+        // 공백만 있어도 최소 1토큰
+        assertThat(estimator.estimate("   ")).isEqualTo(1);
+    }
+
+    @Test
+    void nonAsciiCharactersUseConfiguredRatio() {
+        assertThat(estimator.estimate("안녕하세요")).isEqualTo(5);
+        assertThat(estimator.estimate("안녕 hello")).isEqualTo(4);
+        // 서로게이트 쌍(이모지)은 한 글자로 계산
+        assertThat(estimator.estimate("😀")).isEqualTo(1);
+        assertThat(new ChatTokenEstimator(4.0, 1.5).estimate("안녕")).isEqualTo(3);
+    }
+
+    @Test
+    void messageAddsRoleAndPerMessageOverhead() {
+        assertThat(estimator.estimateMessage("user", "hello"))
+            .isEqualTo(ChatTokenEstimator.TOKENS_PER_MESSAGE + 1 + 2);
+        assertThat(estimator.estimateMessage("assistant", null))
+            .isEqualTo(ChatTokenEstimator.TOKENS_PER_MESSAGE + 3);
+    }
+
+    @Test
+    void invalidRatiosFallBackToDefaults() {
+        ChatTokenEstimator fallback = new ChatTokenEstimator(0, -1);
+        assertThat(fallback.estimate("hello 안녕")).isEqualTo(estimator.estimate("hello 안녕"));
+    }
+}
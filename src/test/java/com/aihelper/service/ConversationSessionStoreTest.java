@@ -0,0 +1,129 @@
+package com.aihelper.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 대화 세션 저장소의 디스크 저장/복원 테스트
+ * 메모리에는 세션 1개만 두어 조회할 때마다 다른 세션이 디스크로 내보내지도록 합니다.
+ */
+class ConversationSessionStoreTest {
+
+    @TempDir
+    Path spillDir;
+
+    private ConversationSessionStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void evictedSessionIsSpilledAndRestored() throws IOException {
+        store = newStore(1);
+        ConversationSession first = store.create(1L, null, "model");
+        store.append(first, "user", "hello");
+        ConversationSession second = store.create(1L, null, "model");
+
+        assertThat(spillFiles()).containsExactly(first.getId() + ".session");
+
+        ConversationSession restored = store.get(first.getId());
+
+        assertThat(restored).isNotNull();
+        assertThat(restored.toMessages()).extracting("role").containsExactly("user");
+        // 복원한 세션의 사본은 지우고, 대신 내보내진 세션이 저장됨
+        assertThat(spillFiles()).containsExactly(second.getId() + ".session");
+        assertThat(store.snapshot()).containsEntry("restored", 1L).containsEntry("spilling", 0);
+    }
+
+    @Test
+    void removeDeletesSpilledCopy() throws IOException {
+        store = newStore(1);
+        ConversationSession first = store.create(1L, null, "model");
+        store.create(1L, null, "model");
+
+        assertThat(store.remove(first.getId())).isTrue();
+
+        assertThat(spillFiles()).isEmpty();
+        assertThat(store.get(first.getId())).isNull();
+    }
+
+    @Test
+    void concurrentGetsNeverLoseSessionsWhileSpilling() throws Exception {
+        store = newStore(1);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ConversationSession session = store.create(1L, null, "model");
+            store.append(session, "user", "message-" + i);
+            ids.add(session.getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                results.add(pool.submit(() -> {
+                    int missing = 0;
+                    for (int i = 0; i < 300; i++) {
+                        String id = ids.get((offset + i) % ids.size());
+                        ConversationSession session = store.get(id);
+                        if (session == null || session.getMessageCount() != 1) {
+                            missing++;
+                        }
+                    }
+                    return missing;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isZero();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // 끝난 뒤에도 모든 세션이 메모리나 디스크에 남아 있고, 쓰다 만 임시 파일은 없음
+        for (String id : ids) {
+            assertThat(store.get(id)).as(id).isNotNull();
+        }
+        assertThat(spillFiles()).noneMatch(name -> name.endsWith(".tmp"));
+        assertThat(store.snapshot()).containsEntry("misses", 0L);
+    }
+
+    private ConversationSessionStore newStore(int maxSessions) throws IOException {
+        ConversationSessionStore sessionStore = new ConversationSessionStore();
+        ReflectionTestUtils.setField(sessionStore, "maxSessions", maxSessions);
+        ReflectionTestUtils.setField(sessionStore, "maxBytes", 1L << 20);
+        ReflectionTestUtils.setField(sessionStore, "maxMessagesPerSession", 200);
+        ReflectionTestUtils.setField(sessionStore, "maxBytesPerSession", 1L << 16);
+        ReflectionTestUtils.setField(sessionStore, "idleExpireMinutes", 60L);
+        ReflectionTestUtils.setField(sessionStore, "spillDir", spillDir.toString());
+        sessionStore.init();
+        return sessionStore;
+    }
+
+    private List<String> spillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spillDir)) {
+            return files.map(p -> p.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.aihelper.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aihelper.controller.CoreStubController;
+import com.aihelper.model.ChatMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Core API 대역(CoreStubController)을 배치 엔드포인트로 사용해 마이크로 배치 동작을 확인합니다.
+ */
+class CoreBatchCollectorTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withBean(ObjectMapper.class)
+        .withUserConfiguration(CoreStubController.class)
+        .withPropertyValues("aihelper.core.stub.latency-ms=0");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> sentBatches = Collections.synchronizedList(new ArrayList<>());
+    private final List<JsonNode> batchResponses = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private CoreBatchCollector collector;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (collector != null) {
+            collector.shutdown();
+        }
+    }
+
+    @Test
+    void stubIsRegisteredOnlyWhenEnabled() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(CoreStubController.class));
+        contextRunner.withPropertyValues("aihelper.core.stub.enabled=true")
+            .run(context -> assertThat(context).hasSingleBean(CoreStubController.class));
+    }
+
+    @Test
+    void concurrentSubmitsAreGroupedByModelAndRoutedByCustomId() {
+        contextRunner.withPropertyValues("aihelper.core.stub.enabled=true").run(context -> {
+            collector = newCollector(context.getBean(CoreStubController.class), 4);
+
+            Map<String, CompletableFuture<JsonNode>> results =
+                submitConcurrently(new String[] {"model-a", "model-b"}, 4);
+
+            for (Map.Entry<String, CompletableFuture<JsonNode>> entry : results.entrySet()) {
+                JsonNode response = entry.getValue().get(5, TimeUnit.SECONDS);
+                String[] key = entry.getKey().split("/");
+                assertThat(response.path("model").asText()).isEqualTo(key[0]);
+                assertThat(response.path("choices").path(0).path("message").path("content").asText())
+                    .isEqualTo("[stub] " + key[1]);
+            }
+
+            // 모델별로 4건씩 한 배치 (크기 도달로 전송), 한 배치에는 한 모델의 요청만 포함
+            assertThat(sentBatches).hasSize(2);
+            for (JsonNode batch : sentBatches) {
+                assertThat(batch.path("requests")).hasSize(4);
+                for (JsonNode item : batch.path("requests")) {
+                    assertThat(item.path("body").path("model").asText()).isEqualTo(batch.path("model").asText());
+                }
+            }
+            assertThat(collector.snapshot()).containsEntry("batches", 2L).containsEntry("failedItems", 0L);
+        });
+    }
+
+    @Test
+    void partialFailureFailsOnlyAffectedCallers() {
+        contextRunner.withPropertyValues("aihelper.core.stub.enabled=true", "aihelper.core.stub.failure-rate=0.5")
+            .run(context -> {
+                collector = newCollector(context.getBean(CoreStubController.class), 8);
+
+                // 무작위 실패이므로 성공/실패가 섞인 배치가 나올 때까지 반복
+                for (int attempt = 0; attempt < 20; attempt++) {
+                    sentBatches.clear();
+                    batchResponses.clear();
+                    Map<String, CompletableFuture<JsonNode>> results =
+                        submitConcurrently(new String[] {"model-a"}, 8);
+                    CompletableFuture.allOf(results.values().toArray(new CompletableFuture[0]))
+                        .handle((ignored, ex) -> null)
+                        .get(5, TimeUnit.SECONDS);
+
+                    assertThat(sentBatches).hasSize(1);
+                    Map<String, String> messageById = new HashMap<>();
+                    for (JsonNode item : sentBatches.get(0).path("requests")) {
+                        messageById.put(item.path("custom_id").asText(),
+                            item.path("body").path("messages").path(0).path("content").asText());
+                    }
+                    int failed = 0;
+                    for (JsonNode result : batchResponses.get(0).path("results")) {
+                        String message = messageById.get(result.path("custom_id").asText());
+                        CompletableFuture<JsonNode> future = results.get("model-a/" + message);
+                        if (result.path("status").asInt() >= 300) {
+                            failed++;
+                            assertThatThrownBy(future::get)
+                                .isInstanceOf(ExecutionException.class)
+                                .hasCauseInstanceOf(CoreApiException.class);
+                        } else {
+                            assertThat(future.get().path("choices").path(0).path("message").path("content").asText())
+                                .isEqualTo("[stub] " + message);
+                        }
+                    }
+                    if (failed > 0 && failed < 8) {
+                        assertThat(collector.snapshot()).containsEntry("failedBatches", 0L);
+                        return;
+                    }
+                }
+                throw new AssertionError("성공/실패가 섞인 배치를 만들지 못했습니다.");
+            });
+    }
+
+    private CoreBatchCollector newCollector(CoreStubController stub, int maxBatchSize) {
+        CoreBatchCollector batchCollector = new CoreBatchCollector();
+        ReflectionTestUtils.setField(batchCollector, "enabled", true);
+        ReflectionTestUtils.setField(batchCollector, "maxBatchSize", maxBatchSize);
+        // 크기 도달로만 전송되도록 충분히 길게
+        ReflectionTestUtils.setField(batchCollector, "maxDelayMs", 2000L);
+        batchCollector.init();
+        // CoreApiClient.startBatchCall과 같은 본문을 만들어 직렬화를 거쳐 대역에 전달
+        batchCollector.setSender((model, requests, deadline) -> {
+            CompletableFuture<JsonNode> call = new CompletableFuture<>();
+            try {
+                ObjectNode batchBody = objectMapper.createObjectNode();
+                batchBody.put("model", model);
+                batchBody.set("requests", requests);
+                JsonNode wire = objectMapper.readTree(objectMapper.writeValueAsString(batchBody));
+                sentBatches.add(wire);
+                JsonNode response = stub.batch(wire).getBody();
+                batchResponses.add(response);
+                call.complete(response);
+            } catch (Exception e) {
+                call.completeExceptionally(e);
+            }
+            return call;
+        });
+        return batchCollector;
+    }
+
+    /**
+     * 모델마다 perModel건의 요청을 여러 스레드에서 동시에 제출합니다.
+     *
+     * @return "모델/메시지" -> 응답 future
+     */
+    private Map<String, CompletableFuture<JsonNode>> submitConcurrently(String[] models, int perModel)
+            throws InterruptedException {
+        Map<String, CompletableFuture<JsonNode>> results = Collections.synchronizedMap(new HashMap<>());
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch submitted = new CountDownLatch(models.length * perModel);
+        for (String model : models) {
+            for (int i = 0; i < perModel; i++) {
+                String message = model + "-message-" + i + "-" + System.nanoTime();
+                callers.execute(() -> {
+                    try {
+                        start.await();
+                        CoreChatRequest request = new CoreChatRequest(
+                            Collections.singletonList(new ChatMessage("user", message)), model, 1L, null, null);
+                        results.put(model + "/" + message,
+                            collector.submit(model, request, CoreDeadline.after(5000)));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        submitted.countDown();
+                    }
+                });
+            }
+        }
+        start.countDown();
+        assertThat(submitted.await(5, TimeUnit.SECONDS)).isTrue();
+        return results;
+    }
+}
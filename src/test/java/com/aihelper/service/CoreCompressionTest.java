@@ -0,0 +1,102 @@
+package com.aihelper.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.luben.zstd.Zstd;
+
+/**
+ * Core API 요청/응답 압축 (gzip/zstd 선택, 415 시 단계적 해제, Content-Encoding에 따른 응답 해제) 테스트
+ */
+class CoreCompressionTest {
+
+    private static final byte[] BODY = String.join(",", Collections.nCopies(200, "{\"role\":\"user\"}"))
+        .getBytes(StandardCharsets.UTF_8);
+
+    private final CoreEndpoint endpoint = new CoreEndpoint("http://core-1", 10_000);
+
+    @Test
+    void zstdRequestFallsBackToGzipThenPlainOn415() throws IOException {
+        CoreCompression compression = newCompression("zstd", true);
+
+        HttpEntity zstd = compression.requestEntity(endpoint, BODY);
+        assertThat(zstd.getContentEncoding().getValue()).isEqualTo("zstd");
+        assertThat(Zstd.decompress(EntityUtils.toByteArray(zstd), BODY.length)).isEqualTo(BODY);
+
+        compression.markUnsupported(endpoint, zstd);
+        HttpEntity gzip = compression.requestEntity(endpoint, BODY);
+        assertThat(gzip.getContentEncoding().getValue()).isEqualTo("gzip");
+        assertThat(readAll(compression.decode(gzip))).isEqualTo(BODY);
+
+        compression.markUnsupported(endpoint, gzip);
+        HttpEntity plain = compression.requestEntity(endpoint, BODY);
+        assertThat(CoreCompression.isCompressed(plain)).isFalse();
+        // 다른 엔드포인트는 영향 없음
+        assertThat(compression.requestEntity(new CoreEndpoint("http://core-2", 10_000), BODY)
+            .getContentEncoding().getValue()).isEqualTo("zstd");
+    }
+
+    @Test
+    void smallBodyIsNotCompressed() {
+        CoreCompression compression = newCompression("gzip", true);
+
+        HttpEntity entity = compression.requestEntity(endpoint, "{}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(CoreCompression.isCompressed(entity)).isFalse();
+        assertThat(compression.snapshot()).containsEntry("requestsBelowThreshold", 1L);
+    }
+
+    @Test
+    void acceptEncodingAdvertisesZstdOnlyWhenEnabled() {
+        HttpPost post = new HttpPost("http://core-1");
+        newCompression("gzip", false).acceptCompressed(post);
+        assertThat(post.getFirstHeader(HttpHeaders.ACCEPT_ENCODING).getValue()).isEqualTo("gzip");
+
+        newCompression("gzip", true).acceptCompressed(post);
+        assertThat(post.getFirstHeader(HttpHeaders.ACCEPT_ENCODING).getValue()).isEqualTo("zstd, gzip");
+    }
+
+    @Test
+    void responseIsDecodedByContentEncoding() throws IOException {
+        CoreCompression compression = newCompression("gzip", true);
+        ByteArrayEntity zstd = new ByteArrayEntity(Zstd.compress(BODY, 3));
+        zstd.setContentEncoding("zstd");
+
+        assertThat(compression.readBody(zstd)).isEqualTo(BODY);
+        assertThat(compression.readBody(new ByteArrayEntity(BODY))).isEqualTo(BODY);
+        assertThat(compression.snapshot())
+            .containsEntry("responsesCompressed", 1L)
+            .containsEntry("responsesZstd", 1L)
+            .containsEntry("responseDecodedBytes", (long) BODY.length);
+    }
+
+    private static CoreCompression newCompression(String requestEncoding, boolean responseZstd) {
+        CoreCompression compression = new CoreCompression();
+        ReflectionTestUtils.setField(compression, "requestEnabled", true);
+        ReflectionTestUtils.setField(compression, "requestEncoding", requestEncoding);
+        ReflectionTestUtils.setField(compression, "requestThresholdBytes", 256);
+        ReflectionTestUtils.setField(compression, "requestLevel", 3);
+        ReflectionTestUtils.setField(compression, "responseEnabled", true);
+        ReflectionTestUtils.setField(compression, "responseZstdEnabled", responseZstd);
+        compression.init();
+        return compression;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            return stream.readAllBytes();
+        }
+    }
+}
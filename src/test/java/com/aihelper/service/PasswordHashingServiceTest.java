@@ -0,0 +1,82 @@
+package com.aihelper.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * 비밀번호 확인 규칙 (BCrypt 비교, 기존 평문 비밀번호 허용/차단, 손상된 해시 거부, 재해싱 대상) 테스트
+ * 빠르게 돌도록 BCrypt cost는 최소값(4)을 사용합니다.
+ */
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void bcryptHashMatchesOnlyRawPassword() {
+        service = newService(true);
+        String hash = service.encode("secret");
+
+        assertThat(service.matches("secret", hash)).isTrue();
+        assertThat(service.matches("wrong", hash)).isFalse();
+        assertThat(service.matches(hash, hash)).isFalse();
+        assertThat(service.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void plaintextFallbackCanBeDisabledAfterMigration() {
+        service = newService(true);
+        assertThat(service.matches("legacy-pass", "legacy-pass")).isTrue();
+        assertThat(service.upgradeEncoding("legacy-pass")).isTrue();
+        service.shutdown();
+
+        service = newService(false);
+        assertThat(service.matches("legacy-pass", "legacy-pass")).isFalse();
+        assertThat(service.snapshot())
+            .containsEntry("plaintextMatches", 0L)
+            .containsEntry("plaintextRejected", 1L);
+    }
+
+    @Test
+    void encodedLookingValuesAreNeverComparedAsPlaintext() {
+        service = newService(true);
+        String hash = service.encode("secret");
+        String[] malformed = {
+            "{bcrypt}" + hash,
+            "{noop}secret",
+            hash.substring(0, hash.length() - 1),
+            "$2a$04$short",
+        };
+
+        for (String stored : malformed) {
+            // 저장된 값 자체를 입력해도 통과하지 않음
+            assertThat(service.matches(stored, stored)).as(stored).isFalse();
+        }
+        assertThat(service.snapshot())
+            .containsEntry("plaintextMatches", 0L)
+            .containsEntry("malformedHashes", (long) malformed.length);
+    }
+
+    private static PasswordHashingService newService(boolean plaintextFallbackEnabled) {
+        PasswordHashingService hashingService = new PasswordHashingService();
+        ReflectionTestUtils.setField(hashingService, "threads", 1);
+        ReflectionTestUtils.setField(hashingService, "queueCapacity", 4);
+        ReflectionTestUtils.setField(hashingService, "timeoutMs", 5000L);
+        ReflectionTestUtils.setField(hashingService, "retryAfterSeconds", 2L);
+        ReflectionTestUtils.setField(hashingService, "strength", 4);
+        ReflectionTestUtils.setField(hashingService, "minStrength", 4);
+        ReflectionTestUtils.setField(hashingService, "maxStrength", 4);
+        ReflectionTestUtils.setField(hashingService, "plaintextFallbackEnabled", plaintextFallbackEnabled);
+        hashingService.init();
+        return hashingService;
+    }
+}
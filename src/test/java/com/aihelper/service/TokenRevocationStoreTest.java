@@ -0,0 +1,157 @@
+package com.aihelper.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.aihelper.mapper.RevokedTokenMapper;
+import com.aihelper.model.RevokedToken;
+
+/**
+ * 토큰 폐기 목록(Bloom 필터 + jti 맵, 만료 정리 시 필터 재구성, DB 동기화) 테스트
+ * DB는 메모리 목록으로 대신하고, init()의 주기 작업 대신 sync/cleanup을 테스트에서 직접 호출합니다.
+ */
+class TokenRevocationStoreTest {
+
+    private final FakeRevokedTokenMapper mapper = new FakeRevokedTokenMapper();
+    private TokenRevocationStore store;
+
+    @Test
+    void revokedTokenIsRejectedAndOthersPassBloomFilter() {
+        store = newStore(1000);
+
+        assertThat(store.revoke("revoked-jti", 1L, System.currentTimeMillis() + 60_000)).isTrue();
+
+        assertThat(store.isRevoked("revoked-jti")).isTrue();
+        assertThat(store.isRevoked(null)).isFalse();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(store.isRevoked("live-jti-" + i)).isFalse();
+        }
+        assertThat(mapper.inserted).extracting(RevokedToken::getJti).containsExactly("revoked-jti");
+        assertThat(store.snapshot())
+            .containsEntry("entries", 1)
+            .containsEntry("revocations", 1L)
+            .containsEntry("rejectedTokens", 1L);
+        // 폐기되지 않은 토큰은 대부분 맵 조회 없이 필터에서 통과
+        assertThat((Double) store.snapshot().get("bloomPassRate")).isGreaterThan(0.99);
+        assertThat((Long) store.snapshot().get("bloomFalsePositives")).isLessThan(10L);
+    }
+
+    @Test
+    void alreadyExpiredTokenIsNotStored() {
+        store = newStore(1000);
+
+        assertThat(store.revoke("old-jti", 1L, System.currentTimeMillis() - 1)).isTrue();
+
+        assertThat(store.isRevoked("old-jti")).isFalse();
+        assertThat(store.snapshot()).containsEntry("entries", 0);
+        assertThat(mapper.inserted).isEmpty();
+    }
+
+    @Test
+    void fullListRejectsNewEntries() {
+        store = newStore(2);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        assertThat(store.revoke("jti-1", 1L, expiresAt)).isTrue();
+        assertThat(store.revoke("jti-2", 1L, expiresAt)).isTrue();
+        assertThat(store.revoke("jti-3", 1L, expiresAt)).isFalse();
+        // 이미 있는 jti는 다시 폐기해도 성공
+        assertThat(store.revoke("jti-1", 1L, expiresAt)).isTrue();
+
+        assertThat(store.isRevoked("jti-3")).isFalse();
+        assertThat(store.snapshot()).containsEntry("entries", 2).containsEntry("overflows", 1L);
+    }
+
+    @Test
+    void cleanupRemovesExpiredEntriesAndRebuildsBloomFilter() throws InterruptedException {
+        store = newStore(1000);
+        store.revoke("short-jti", 1L, System.currentTimeMillis() + 100);
+        store.revoke("long-jti", 1L, System.currentTimeMillis() + 60_000);
+        Thread.sleep(150);
+
+        // 정리 전: 필터에는 남아 있어 맵 조회 후 만료로 통과 (false positive로 집계)
+        assertThat(store.isRevoked("short-jti")).isFalse();
+        assertThat(store.snapshot()).containsEntry("bloomFalsePositives", 1L);
+
+        store.cleanup();
+
+        assertThat(store.snapshot()).containsEntry("entries", 1).containsEntry("expiredRemoved", 1L);
+        assertThat(mapper.deleteCalls).isEqualTo(1);
+        // 재구성된 필터에는 만료된 jti가 없으므로 필터에서 바로 통과
+        assertThat(store.isRevoked("short-jti")).isFalse();
+        assertThat(store.snapshot()).containsEntry("bloomFalsePositives", 1L);
+        assertThat(store.isRevoked("long-jti")).isTrue();
+    }
+
+    @Test
+    void syncAppliesRevocationsFromOtherNodes() {
+        store = newStore(1000);
+        LocalDateTime revokedAt = LocalDateTime.now();
+        mapper.active.add(new RevokedToken("other-node-jti", 2L, LocalDateTime.now().plusMinutes(10), revokedAt));
+
+        store.sync();
+
+        assertThat(store.isRevoked("other-node-jti")).isTrue();
+        assertThat((LocalDateTime) store.snapshot().get("syncedUntil")).isBefore(revokedAt);
+        assertThat(mapper.lastSince).isNull();
+
+        store.sync();
+        assertThat(mapper.lastSince).isEqualTo(store.snapshot().get("syncedUntil"));
+    }
+
+    @Test
+    void dbFailureStillRevokesLocally() {
+        store = newStore(1000);
+        mapper.failInsert = true;
+
+        assertThat(store.revoke("jti", 1L, System.currentTimeMillis() + 60_000)).isTrue();
+
+        assertThat(store.isRevoked("jti")).isTrue();
+    }
+
+    private TokenRevocationStore newStore(int maxEntries) {
+        TokenRevocationStore revocationStore = new TokenRevocationStore(mapper);
+        ReflectionTestUtils.setField(revocationStore, "maxEntries", maxEntries);
+        ReflectionTestUtils.setField(revocationStore, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(revocationStore, "syncIntervalMs", 5000L);
+        ReflectionTestUtils.setField(revocationStore, "bloom",
+            new TokenRevocationStore.BloomFilter(maxEntries, 0.001));
+        return revocationStore;
+    }
+
+    private static final class FakeRevokedTokenMapper implements RevokedTokenMapper {
+        private final List<RevokedToken> inserted = Collections.synchronizedList(new ArrayList<>());
+        private final List<RevokedToken> active = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean failInsert;
+        private volatile LocalDateTime lastSince;
+        private volatile int deleteCalls;
+
+        @Override
+        public int insert(RevokedToken token) {
+            if (failInsert) {
+                throw new IllegalStateException("db down");
+            }
+            inserted.add(token);
+            return 1;
+        }
+
+        @Override
+        public List<RevokedToken> findActiveSince(LocalDateTime since, LocalDateTime now) {
+            lastSince = since;
+            return new ArrayList<>(active);
+        }
+
+        @Override
+        public int deleteExpired(LocalDateTime now) {
+            deleteCalls++;
+            return 0;
+        }
+    }
+}